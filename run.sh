@@ -1,2 +1,2 @@
 #!/bin/bash
-java -jar target/RFrEAK-0.2-8.jar
+java --add-modules jdk.incubator.vector -jar target/RFrEAK-0.2-8.jar
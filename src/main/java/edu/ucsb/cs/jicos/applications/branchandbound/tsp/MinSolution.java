@@ -40,7 +40,7 @@ import edu.ucsb.cs.jicos.services.shared.*;
 // import edu.ucsb.cs.jicos.applications.branchandbound.tsp.pete.*; // !! DEBUG ONLY
 
 
-public final class MinSolution extends Task
+public final class MinSolution extends Task implements CloneableTask
 {	
     /** This method returns the Solution Object among its inputs, whose IntUpperBound
      * has minimal intValue, provided that it is at least as low as the Shared
@@ -0,0 +1,48 @@
+/**
+ * The List of Command objects of one receiveCommands call. Its elements are
+ * written with WireCodecs, so Command classes with a registered codec are 
+ * not written with default Java serialization.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.foundation;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+
+
+public final class CommandBatch extends ArrayList<Command> implements Externalizable
+{
+    private static final long serialVersionUID = 1L;
+    
+    /** A no argument constructor is needed for unmarshalling.
+     */
+    public CommandBatch() {}
+    
+    public CommandBatch( Collection<? extends Command> commands ) { super( commands ); }
+    
+    public void writeExternal( ObjectOutput out ) throws IOException
+    {
+        out.writeInt( size() );
+        for ( int i = 0; i < size(); i++ )
+        {
+            WireCodecs.writeObject( out, get( i ) );
+        }
+    }
+    
+    public void readExternal( ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        int $commands = in.readInt();
+        clear();
+        ensureCapacity( $commands );
+        for ( int i = 0; i < $commands; i++ )
+        {
+            add( (Command) WireCodecs.readObject( in ) );
+        }
+    }
+}
@@ -26,6 +26,13 @@
 /**
  * Encapsulates a List of Commands to be sent to a particular Service.
  *
+ * The Commands are sent in batches, each with one receiveCommands call.
+ * The mail processor sends the Commands pending when it wakes. If
+ * jicos.mailer.linger is set, it lingers up to that many microseconds after
+ * the first Command of a batch arrived, unless jicos.mailer.maxBatch 
+ * Commands are pending. A MergeableCommand replaces or is dropped in favour
+ * of a pending Command with the same merge key.
+ *
  * @version 1.0
  * @author  Peter Cappello
  */
@@ -38,13 +45,28 @@ import java.util.*;
 
 public class Mailer extends Processor
 {
+    // linger time in microseconds; 0 sends as soon as the mail processor wakes
+    private static final long LINGER = Long.getLong( "jicos.mailer.linger", 0 ).longValue();
+    // maximal # of Command objects per receiveCommands call
+    private static final int MAX_BATCH = Integer.getInteger( "jicos.mailer.maxBatch", 256 ).intValue();
+    
     private Service fromAddress;
     private Service toAddress;   // the destination of this Mail
-    private List commandQ = new LinkedList(); // queue of Command objects
+    private List<Command> commandQ = new CommandBatch(); // queue of Command objects, sent with WireCodecs
+    private Map<Object, MergeableCommand> mergeableCommands = new HashMap<Object, MergeableCommand>(); // merge key |--> pending MergeableCommand
     private Q mailQ; // queue of references to this.
+    private boolean scheduled; // this is in mailQ
+    private long firstCommandTime; // System.nanoTime() when commandQ became nonempty
+    private long batchTime; // firstCommandTime of the batch being sent, used by the mail processor only
     private RemoteExceptionHandler remoteExceptionHandler;
     private Proxy myProxy;
     
+    // counters for this destination
+    private long $commands;
+    private long $mergedCommands;
+    private long $batches;
+    private long roundTripTime; // moving average of the time from adding a batch's first Command to its delivery, ns
+    
     public Mailer( Service fromAddress, RemoteExceptionHandler remoteExceptionHandler, 
                    Q mailQ, Proxy myProxy) 
     { 
@@ -67,14 +89,83 @@ public class Mailer extends Processor
     { 
         assert command != null;
         
+        $commands++;
+        if ( command instanceof MergeableCommand && merge( (MergeableCommand) command ) )
+        {
+            return;
+        }
+        if ( commandQ.isEmpty() )
+        {
+            firstCommandTime = System.nanoTime();
+        }
         commandQ.add( command );
-        mailQ.add( this ); // notify mail processor: send commandQ
+        if ( ! scheduled )
+        {
+            scheduled = true;
+            mailQ.add( this ); // notify mail processor: send commandQ
+        }
+        else if ( commandQ.size() >= MAX_BATCH )
+        {
+            notify(); // stop lingering
+        }
+    }
+    
+    /* @return true if command was dropped as redundant.
+     */
+    private boolean merge( MergeableCommand command )
+    {
+        Object key = command.mergeKey();
+        MergeableCommand pending = mergeableCommands.get( key );
+        mergeableCommands.put( key, command );
+        if ( pending == null )
+        {
+            return false;
+        }
+        $mergedCommands++;
+        if ( command.supersedes( pending ) )
+        {
+            commandQ.remove( pending );
+            return false;
+        }
+        mergeableCommands.put( key, pending );
+        return true;
     }
     
-    private synchronized final List copyCommandQ() 
+    /* Wait until the linger time of the current batch elapsed or the batch is
+     * full. Then remove the batch from commandQ.
+     */
+    private synchronized final List<Command> copyCommandQ() 
     {
-        List commandQCopy = commandQ;
-        commandQ = new LinkedList();
+        long deadline = firstCommandTime + LINGER * 1000;
+        long remaining;
+        while ( commandQ.size() < MAX_BATCH && ( remaining = deadline - System.nanoTime() ) > 0 )
+        {
+            try
+            {
+                wait( remaining / 1000000, (int) ( remaining % 1000000 ) );
+            }
+            catch ( InterruptedException ignore ) {}
+        }
+        List<Command> commandQCopy;
+        batchTime = firstCommandTime;
+        if ( commandQ.size() <= MAX_BATCH )
+        {
+            commandQCopy = commandQ;
+            commandQ = new CommandBatch();
+            mergeableCommands.clear();
+            scheduled = false;
+        }
+        else
+        {
+            // send the first MAX_BATCH commands, the rest starts a new batch
+            List<Command> batch = commandQ.subList( 0, MAX_BATCH );
+            commandQCopy = new CommandBatch( batch );
+            batch.clear();
+            mergeableCommands.values().removeAll( commandQCopy );
+            firstCommandTime = System.nanoTime();
+            mailQ.add( this );
+        }
+        $batches++;
         return commandQCopy;
     }
     
@@ -86,10 +177,16 @@ public class Mailer extends Processor
         {
             return;
         }
-        List commandQCopy = copyCommandQ();
+        List<Command> commandQCopy = copyCommandQ();
         try
         {
             toAddress.receiveCommands ( fromAddress, commandQCopy );
+            // includes the time the batch waited for the mail processor and lingered
+            long time = System.nanoTime() - batchTime;
+            synchronized ( this )
+            {
+                roundTripTime = ( roundTripTime == 0 ) ? time : ( 7 * roundTripTime + time ) / 8;
+            }
         }
         catch ( RemoteException exception ) 
         {
@@ -106,6 +203,25 @@ public class Mailer extends Processor
         }
     }
     
+    /** @return # of Command objects added for this destination.
+     */
+    public synchronized long getCommandCount() { return $commands; }
+    
+    /** @return # of Command objects that replaced or were dropped in favour
+     * of a pending Command.
+     */
+    public synchronized long getMergedCommandCount() { return $mergedCommands; }
+    
+    /** @return # of receiveCommands calls to this destination.
+     */
+    public synchronized long getBatchCount() { return $batches; }
+    
+    /** @return moving average of the time from adding the first Command of
+     * a batch to the return of its receiveCommands call to this destination,
+     * in nanoseconds; 0 before the first call.
+     */
+    public synchronized long getRoundTripTime() { return roundTripTime; }
+    
     /** Returns a String representation of the object.
      * @return A String representation of the object.
      */    
@@ -113,9 +229,9 @@ public class Mailer extends Processor
     {
         StringBuffer stringBuffer = new StringBuffer("Mail: toAddress: " + toAddress);
         stringBuffer.append("\n Command Q: \n");
-        for ( Iterator iterator = commandQ.iterator(); iterator.hasNext(); )
+        for ( Command command : commandQ )
         {
-            stringBuffer.append( ((Command) iterator.next()).toString() );
+            stringBuffer.append( command.toString() );
         }
         return new String( stringBuffer );
     }
@@ -0,0 +1,21 @@
+/**
+ * A Command that makes an earlier, still unsent Command with the same merge 
+ * key redundant. Mailer keeps only one of them in its queue.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.foundation;
+
+
+public interface MergeableCommand extends Command
+{    
+    /** Commands with equal keys may be merged.
+     */
+    Object mergeKey();
+    
+    /** @return true if this Command replaces the unsent Command pending;
+     * false if this Command is redundant and may be dropped.
+     */
+    boolean supersedes( MergeableCommand pending );
+}
@@ -154,6 +154,11 @@ public abstract class Proxy extends Thread
     
     public Service getService() { return service; }
     
+    /** @return moving average of the round trip time of mail to the Service 
+     * in nanoseconds; 0 if unknown or if the Service is internal.
+     */
+    public long getRoundTripTime() { return ( mailer == null ) ? 0 : mailer.getRoundTripTime(); }
+    
     public boolean isUnreachable() { return isUnreachable; }
     
     public void kill() { kill = true; }
@@ -0,0 +1,24 @@
+/**
+ * Writes and reads objects of one class in a hand-written wire format, 
+ * instead of default Java serialization. A codec is registered with a class
+ * id in WireCodecs; the id replaces the class name on the wire.
+ *
+ * Implementations must read exactly what they write. Nested objects may be
+ * written with WireCodecs.writeObject or ObjectOutput.writeObject.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.foundation;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+
+public interface WireCodec
+{
+    void write( ObjectOutput out, Object object ) throws IOException;
+    
+    Object read( ObjectInput in ) throws IOException, ClassNotFoundException;
+}
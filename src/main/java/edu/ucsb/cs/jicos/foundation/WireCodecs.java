@@ -0,0 +1,123 @@
+/**
+ * Class id table of the registered WireCodec objects.
+ *
+ * Every object is written as a one byte class id followed by its encoding.
+ * Id 0 denotes null, id 1 an object of a class without codec, which is
+ * written with default Java serialization. Ids 2 to 255 are assigned by the
+ * codec providers. A provider is a class that registers its codecs in its 
+ * static initializer; the comma separated class names in the system property
+ * jicos.codecs are loaded when this class is initialized, so that all
+ * services share the same table.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.foundation;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+
+public final class WireCodecs
+{
+    private static final int NULL = 0;
+    private static final int SERIALIZED = 1;
+    
+    private static final WireCodec[] codecs = new WireCodec[ 256 ];
+    private static final Map<Class<?>, Integer> class2Id = new HashMap<Class<?>, Integer>();
+    
+    static
+    {
+        String providers = System.getProperty( "jicos.codecs", 
+                                     "edu.ucsb.cs.jicos.services.ServiceCodecs," +
+                                     "edu.ucsb.cs.jicos.services.commands.CommandCodecs" );
+        for ( StringTokenizer tokenizer = new StringTokenizer( providers, "," ); tokenizer.hasMoreTokens(); )
+        {
+            String provider = tokenizer.nextToken().trim();
+            try
+            {
+                Class.forName( provider );
+            }
+            catch ( ClassNotFoundException exception )
+            {
+                System.err.println( "WireCodecs: codec provider " + provider + " not found." );
+            }
+        }
+    }
+    
+    private WireCodecs() {}
+    
+    /** Registers a codec.
+     * @param id the class id, 2 to 255.
+     * @param objectClass the exact class encoded by codec.
+     * @param codec the codec.
+     */
+    public static synchronized void register( int id, Class<?> objectClass, WireCodec codec )
+    {
+        if ( id <= SERIALIZED || id >= codecs.length )
+        {
+            throw new IllegalArgumentException( "WireCodecs: invalid class id " + id );
+        }
+        if ( codecs[ id ] != null && class2Id.get( objectClass ) == null )
+        {
+            throw new IllegalArgumentException( "WireCodecs: class id " + id + " already used." );
+        }
+        codecs[ id ] = codec;
+        class2Id.put( objectClass, Integer.valueOf( id ) );
+    }
+    
+    /** Writes object with its codec, if one is registered for its class.
+     */
+    public static void writeObject( ObjectOutput out, Object object ) throws IOException
+    {
+        if ( object == null )
+        {
+            out.writeByte( NULL );
+            return;
+        }
+        Integer id;
+        synchronized ( WireCodecs.class )
+        {
+            id = class2Id.get( object.getClass() );
+        }
+        if ( id == null )
+        {
+            out.writeByte( SERIALIZED );
+            out.writeObject( object );
+        }
+        else
+        {
+            out.writeByte( id.intValue() );
+            codecs[ id.intValue() ].write( out, object );
+        }
+    }
+    
+    /** Reads an object written by writeObject.
+     */
+    public static Object readObject( ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        int id = in.readUnsignedByte();
+        if ( id == NULL )
+        {
+            return null;
+        }
+        if ( id == SERIALIZED )
+        {
+            return in.readObject();
+        }
+        WireCodec codec;
+        synchronized ( WireCodecs.class )
+        {
+            codec = codecs[ id ];
+        }
+        if ( codec == null )
+        {
+            throw new IOException( "WireCodecs: no codec for class id " + id );
+        }
+        return codec.read( in );
+    }
+}
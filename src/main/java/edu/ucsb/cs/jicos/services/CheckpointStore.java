@@ -0,0 +1,345 @@
+/**
+ * Embedded, append-only checkpoint store of a TaskServer's Session.
+ *
+ * The store is a directory of memory-mapped segment files NAME.SEQ.log, to
+ * which each checkpoint appends one batch: the tasks put into and removed 
+ * from the Session's task map since the previous checkpoint. A batch is
+ * written as its length, its CRC32 and its bytes; a batch with a wrong
+ * checksum ends the segment, so a checkpoint torn by a crash is dropped as 
+ * a whole. When the bytes appended since the last snapshot exceed the size 
+ * of that snapshot, the log is compacted: the complete state is written to 
+ * NAME.SEQ.snap, which is renamed into place only when it is complete, and 
+ * the older segments and snapshots are deleted. Recovery reads the newest 
+ * snapshot and replays the segments that follow it. A store that holds 
+ * files when it is opened is compacted only after it has been recovered, so
+ * a snapshot never deletes state that has not been read.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+import edu.ucsb.cs.jicos.foundation.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.zip.CRC32;
+
+
+final class CheckpointStore
+{
+    // constants
+    private static final int SEGMENT_SIZE = Integer.getInteger( "jicos.checkpoint.segmentSize", 1 << 24 ).intValue();
+    private static final int HEADER_SIZE = 8; // batch length & CRC32
+    private static final String LOG = ".log";
+    private static final String SNAPSHOT = ".snap";
+    
+    // record types of a batch
+    private static final byte END      = 0;
+    private static final byte CLEAR    = 1;
+    private static final byte SESSION  = 2;
+    private static final byte PUT      = 3;
+    private static final byte REMOVE   = 4;
+    
+    private File directory;
+    private String name;
+    
+    private long sequence;             // sequence number of the current segment
+    private MappedByteBuffer segment;  // null until the first append
+    private long snapshotSize;         // bytes of the newest snapshot
+    private long appendedSize;         // bytes appended since the newest snapshot
+    
+    private boolean recovered;         // compact may delete the existing files
+    private SessionInfo recoveredSessionInfo;
+    
+    /** Opens the store NAME in directory, which is created if necessary.
+     * Appending starts in a new segment that follows all existing files.
+     */
+    CheckpointStore( File directory, String name ) throws IOException
+    {
+        this.directory = directory;
+        this.name = name;
+        if ( ! directory.isDirectory() && ! directory.mkdirs() )
+        {
+            throw new IOException( "CheckpointStore: cannot create " + directory );
+        }
+        long snapshot = newest( SNAPSHOT );
+        if ( snapshot >= 0 )
+        {
+            snapshotSize = file( snapshot, SNAPSHOT ).length();
+        }
+        sequence = Math.max( snapshot, newest( LOG ) ) + 1;
+        recovered = sequence == 0; // nothing to recover
+    }
+    
+    /** @return true if this is the store NAME in directory.
+     */
+    boolean isStore( File directory, String name )
+    {
+        return this.name.equals( name ) && this.directory.getAbsoluteFile().equals( directory.getAbsoluteFile() );
+    }
+    
+    /** Appends a batch of changes built by a Batch object.
+     */
+    synchronized void append( Batch batch ) throws IOException
+    {
+        byte[] bytes = batch.toByteArray();
+        if ( segment == null || segment.remaining() < HEADER_SIZE + bytes.length )
+        {
+            segment = map( file( sequence++, LOG ), Math.max( SEGMENT_SIZE, 2 * HEADER_SIZE + bytes.length ) );
+        }
+        segment.putInt( bytes.length );
+        segment.putInt( checksum( bytes ) );
+        segment.put( bytes );
+        segment.force();
+        appendedSize += HEADER_SIZE + bytes.length;
+    }
+    
+    /** Returns true if the next checkpoint should be a snapshot, i.e. if
+     * replaying the log would cost more than reading a new snapshot.
+     */
+    synchronized boolean shouldCompact()
+    {
+        return appendedSize > Math.max( snapshotSize, SEGMENT_SIZE / 4 );
+    }
+    
+    /** Writes a batch holding the complete state as the new snapshot and
+     * deletes the files it makes obsolete.
+     * @param batch the complete state; it must begin with a clear record.
+     * @throws IOException if the existing files have not been recovered.
+     */
+    synchronized void compact( Batch batch ) throws IOException
+    {
+        if ( ! recovered )
+        {
+            throw new IOException( "CheckpointStore: " + name + " must be recovered before it is compacted." );
+        }
+        byte[] bytes = batch.toByteArray();
+        long snapshot = sequence++;
+        File temporary = new File( directory, name + "." + snapshot + SNAPSHOT + ".tmp" );
+        RandomAccessFile file = new RandomAccessFile( temporary, "rw" );
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + bytes.length );
+            buffer.putInt( bytes.length ).putInt( checksum( bytes ) ).put( bytes );
+            buffer.flip();
+            FileChannel channel = file.getChannel();
+            while ( buffer.hasRemaining() )
+            {
+                channel.write( buffer );
+            }
+            channel.force( true );
+        }
+        finally
+        {
+            file.close();
+        }
+        if ( ! temporary.renameTo( file( snapshot, SNAPSHOT ) ) )
+        {
+            throw new IOException( "CheckpointStore: cannot rename " + temporary );
+        }
+        segment = null;
+        snapshotSize = HEADER_SIZE + bytes.length;
+        appendedSize = 0;
+        
+        // remove obsolete segments & snapshots
+        File[] files = directory.listFiles();
+        for ( int i = 0; files != null && i < files.length; i++ )
+        {
+            long fileSequence = sequence( files[i].getName() );
+            if ( fileSequence >= 0 && fileSequence < snapshot )
+            {
+                files[i].delete();
+            }
+        }
+    }
+    
+    /** Replays the newest snapshot and the segments that follow it.
+     * @return the recovered task map: TaskId -> Task.
+     */
+    synchronized Map<TaskId, Task> recover() throws IOException, ClassNotFoundException
+    {
+        Map<TaskId, Task> tasks = new HashMap<TaskId, Task>();
+        recoveredSessionInfo = null;
+        long snapshot = newest( SNAPSHOT );
+        if ( snapshot >= 0 )
+        {
+            replay( readFile( file( snapshot, SNAPSHOT ) ), tasks );
+        }
+        for ( long i = Math.max( snapshot, 0 ); i < sequence; i++ )
+        {
+            File log = file( i, LOG );
+            if ( log.exists() )
+            {
+                replay( readFile( log ), tasks );
+            }
+        }
+        recovered = true;
+        return tasks;
+    }
+    
+    /** @return the SessionInfo found by the last recover, if any.
+     */
+    synchronized SessionInfo getRecoveredSessionInfo() { return recoveredSessionInfo; }
+    
+    private void replay( ByteBuffer buffer, Map<TaskId, Task> tasks ) throws IOException, ClassNotFoundException
+    {
+        while ( buffer.remaining() >= HEADER_SIZE )
+        {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if ( length <= 0 || length > buffer.remaining() )
+            {
+                return; // end of segment
+            }
+            byte[] bytes = new byte[ length ];
+            buffer.get( bytes );
+            if ( checksum( bytes ) != crc )
+            {
+                return; // torn batch
+            }
+            ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes ) );
+            for ( byte type = in.readByte(); type != END; type = in.readByte() )
+            {
+                switch ( type )
+                {
+                    case CLEAR:
+                        tasks.clear();
+                        recoveredSessionInfo = null;
+                        break;
+                    case SESSION:
+                        recoveredSessionInfo = (SessionInfo) in.readObject();
+                        break;
+                    case PUT:
+                        Task task = (Task) in.readObject();
+                        tasks.put( task.getTaskId(), task );
+                        break;
+                    case REMOVE:
+                        tasks.remove( WireCodecs.readObject( in ) );
+                        break;
+                    default:
+                        throw new StreamCorruptedException( "CheckpointStore: record type " + type );
+                }
+            }
+        }
+    }
+    
+    private File file( long fileSequence, String suffix )
+    {
+        return new File( directory, name + "." + fileSequence + suffix );
+    }
+    
+    // sequence number of a file of this store, or -1
+    private long sequence( String fileName )
+    {
+        String suffix = fileName.endsWith( LOG ) ? LOG : fileName.endsWith( SNAPSHOT ) ? SNAPSHOT : null;
+        if ( suffix == null || ! fileName.startsWith( name + "." ) )
+        {
+            return -1;
+        }
+        try
+        {
+            return Long.parseLong( fileName.substring( name.length() + 1, fileName.length() - suffix.length() ) );
+        }
+        catch ( NumberFormatException ignore )
+        {
+            return -1;
+        }
+    }
+    
+    // largest sequence number of the files with the given suffix, or -1
+    private long newest( String suffix )
+    {
+        long newest = -1;
+        String[] fileNames = directory.list();
+        for ( int i = 0; fileNames != null && i < fileNames.length; i++ )
+        {
+            if ( fileNames[i].endsWith( suffix ) )
+            {
+                newest = Math.max( newest, sequence( fileNames[i] ) );
+            }
+        }
+        return newest;
+    }
+    
+    private static MappedByteBuffer map( File file, int size ) throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        try
+        {
+            return randomAccessFile.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, size );
+        }
+        finally
+        {
+            randomAccessFile.close(); // the mapping stays valid
+        }
+    }
+    
+    private static ByteBuffer readFile( File file ) throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+    }
+    
+    private static int checksum( byte[] bytes )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( bytes, 0, bytes.length );
+        return (int) crc.getValue();
+    }
+    
+    /** The records of one checkpoint. A Batch is built while its Session is
+     * locked, so the tasks are serialized in a consistent state.
+     */
+    static final class Batch
+    {
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private ObjectOutputStream out;
+        private int $records;
+        
+        Batch() throws IOException { out = new ObjectOutputStream( bytes ); }
+        
+        void clear() throws IOException { out.writeByte( CLEAR ); $records++; }
+        
+        void sessionInfo( SessionInfo sessionInfo ) throws IOException
+        {
+            out.writeByte( SESSION );
+            out.writeObject( sessionInfo );
+            $records++;
+        }
+        
+        void put( Task task ) throws IOException
+        {
+            out.writeByte( PUT );
+            out.writeObject( task );
+            $records++;
+        }
+        
+        void remove( TaskId taskId ) throws IOException
+        {
+            out.writeByte( REMOVE );
+            WireCodecs.writeObject( out, taskId );
+            $records++;
+        }
+        
+        boolean isEmpty() { return $records == 0; }
+        
+        byte[] toByteArray() throws IOException
+        {
+            out.writeByte( END );
+            out.close();
+            return bytes.toByteArray();
+        }
+    }
+}
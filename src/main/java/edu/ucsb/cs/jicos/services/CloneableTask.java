@@ -0,0 +1,14 @@
+/**
+ * Marks a Task class whose execute method changes none of the attributes 
+ * declared by the class or its superclasses other than Task. 
+ *
+ * A Host caches a copy of a child Task for subsequent execution. The copy 
+ * of a CloneableTask is a clone with its own List of children and its own 
+ * inputs; the copy of any other Task is a deep copy, made by marshalling and 
+ * unmarshalling it.
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+
+public interface CloneableTask extends Cloneable {}
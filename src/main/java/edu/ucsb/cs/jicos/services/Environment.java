@@ -164,6 +164,36 @@ public final class Environment implements java.io.Serializable
     // then remove getInput, getShared, setShared from Host interface.
     public synchronized Shared getShared() { return shared; }
     
+    /** Returns true if the Host executing the invoking task waits for tasks
+     * a substantial fraction of the time, although it already prefetches as
+     * many tasks as it may. Such a Host is starved by task granularity: an
+     * application that decides whether a task is atomic (e.g., via 
+     * Task.isAtomic or Solution.isAtomic) should then prefer coarser atomic
+     * tasks. 
+     *
+     * Intended to be invoked by hosted Task.
+     * @return true if the Host would benefit from coarser atomic tasks.
+     */
+    public boolean isHostStarved() 
+    { 
+        return host != null && host.isStarved(); 
+    }
+    
+    /** Merges a LatticeShared value into the Shared object without 
+     * propagating it.
+     * @return the merged value, if it is newer than the previous one; else null.
+     */
+    synchronized LatticeShared mergeShared( LatticeShared shared )
+    {
+        LatticeShared merged = ( this.shared == null ) ? shared : shared.join( (LatticeShared) this.shared );
+        if ( this.shared != null && ! merged.isNewerThan( this.shared ) )
+        {
+            return null;
+        }
+        this.shared = merged;
+        return merged;
+    }
+    
     boolean isKilledTask( Task task ) 
     { 
         return killedTasks.contains( task.getTaskId() );
@@ -200,6 +230,25 @@ public final class Environment implements java.io.Serializable
     {
         assert shared != null;
         
+        if ( shared instanceof LatticeShared && ( this.shared == null || this.shared instanceof LatticeShared ) )
+        {
+            // merge; the TaskServer propagates the merged value once per epoch
+            LatticeShared merged = mergeShared( (LatticeShared) shared );
+            if ( merged == null )
+            {
+                return;
+            }
+            if ( host.amInternalHost() ) 
+            {
+                ((TaskServer) taskServer).sharedChanged( host );
+            }
+            else
+            {
+                Command command = new SetShared ( merged, host );
+                taskServerProxy.execute( command );
+            }
+            return;
+        }
         if ( this.shared == null || shared.isNewerThan( this.shared ) )
         {
             this.shared = shared;
@@ -41,7 +41,6 @@ import edu.ucsb.cs.jicos.utilities.*;
 
 import java.net.MalformedURLException;
 
-import java.rmi.MarshalledObject;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.rmi.RMISecurityManager;
@@ -84,6 +83,10 @@ public class Host extends ServiceImpl implements AdministrableHost
     private boolean prefetchOn;
     private boolean cacheOn;
     
+    // prefetch window; time each compute processor finished its last Task, ns
+    private PrefetchWindow prefetchWindow;
+    private ThreadLocal<Long> lastStopTime = new ThreadLocal<Long>();
+    
     // declare/construct Department objects
     private Department computeDepartment = new Department( this, new Qu(), 1 );
     private Department[] departments = 
@@ -127,8 +130,10 @@ public class Host extends ServiceImpl implements AdministrableHost
         
         this.myTaskServer = taskServer;
         this.amInternalHost = amInternalHost;
+        prefetchWindow = new PrefetchWindow( $processors );
         
         taskServerProxy = new TaskServerProxy( taskServer, this, REMOTE_EXCEPTION_HANDLER );
+        computeDepartment.addProcessors( $processors - 1 );
         if ( amInternalHost )                
         {            
             // make a Proxy, even though it is for my containing TaskServer            
@@ -147,7 +152,6 @@ public class Host extends ServiceImpl implements AdministrableHost
             
             Service hsp = (Service) taskServer.executeCommand( this, GET_HSP );
             hspProxy = new HspProxy( hsp, this, REMOTE_EXCEPTION_HANDLER );
-            computeDepartment.addProcessors( $processors - 1 );           
             CommandSynchronous command = new RegisterHost( serviceName() );            
             sessionInfo = (SessionInfo) taskServerProxy.execute( command, REMOTE_EXCEPTION_HANDLER );
             
@@ -221,9 +225,17 @@ public class Host extends ServiceImpl implements AdministrableHost
         assert sessionInfo != null;
         assert task.getTaskId().getSessionId() == sessionId;
                     
-        if ( task.isAtomic( environment ) && prefetchOn ) 
+        boolean prefetch = task.isAtomic( environment ) && prefetchOn;
+        long startNanoTime = System.nanoTime();
+        if ( prefetch ) 
         {             
-            taskServerProxy.execute( REQUEST_TASK );   // initiate prefetch
+            Long stopNanoTime = lastStopTime.get();
+            long idleTime = ( stopNanoTime == null ) ? -1 : startNanoTime - stopNanoTime.longValue();
+            int $requests = prefetchWindow.start( idleTime, taskServerProxy.getRoundTripTime() );
+            for ( int i = 0; i < $requests; i++ )
+            {
+                taskServerProxy.execute( REQUEST_TASK );   // initiate prefetch
+            }
         }
         
         long startTime = System.currentTimeMillis();
@@ -255,7 +267,14 @@ public class Host extends ServiceImpl implements AdministrableHost
         }
         long stopTime = System.currentTimeMillis();   
         int executeTime = (int) (stopTime - startTime);
+        long stopNanoTime = System.nanoTime();
+        lastStopTime.set( Long.valueOf( stopNanoTime ) );
+        if ( prefetch )
+        {
+            prefetchWindow.executed( stopNanoTime - startNanoTime );
+        }
         TaskInfo taskInfo = new TaskInfo ( this, task, executeTime );
+        taskInfo.prefetchWindow( prefetchWindow.window() );
         Command cachedTask = null;
         Command killTaskCommand = null;
                 
@@ -323,14 +342,12 @@ public class Host extends ServiceImpl implements AdministrableHost
                      * unmarshalled (the get method). 
                      *
                      * For this reason, we make a deep copy of the child to cache
-                     * for subsequent execution. Currently, the best way we know of
-                     * for making a deep copy of an instance of a class that extends
-                     * Task is to marshal it, then unmarshal it :(
+                     * for subsequent execution. Task.copy marshals, then unmarshals
+                     * the child, unless its class is a CloneableTask.
                      */
                     try
                     {
-                        MarshalledObject deepCopy = new MarshalledObject( cacheableChild );
-                        cachedTask = new ExecuteTask( (Task) deepCopy.get() );
+                        cachedTask = new ExecuteTask( cacheableChild.copy() );
                     }
                     catch ( Exception exception )
                     {
@@ -402,7 +419,7 @@ public class Host extends ServiceImpl implements AdministrableHost
         CommandList command = new CommandList();
         command.add ( processResult );
         //if ( !( task.isAtomic( environment ) && prefetchOn ) && !cacheTask )
-        if ( !( task.isAtomic( environment ) && prefetchOn ) && null == cachedTask ) 
+        if ( ! prefetch && null == cachedTask ) 
         {
             // Neither prefetch nor cache occurred: Request another Task
             command.add ( REQUEST_TASK );
@@ -443,6 +460,9 @@ public class Host extends ServiceImpl implements AdministrableHost
      
      Service getTaskServer () { return myTaskServer; }
      
+     // Used by Environment
+     boolean isStarved() { return prefetchWindow.isStarved(); }
+     
      Proxy getTaskServerProxy() { return taskServerProxy; }
      
      private int indexCacheableChild( List children )
@@ -519,7 +539,12 @@ public class Host extends ServiceImpl implements AdministrableHost
         /* Still may be wrong environment. But shared will be set to correct 
          * value when current client's session is downloaded (in executeTask).
          */ 
-        if ( shared.isNewerThan( environment.getShared() ) )
+        Shared current = environment.getShared();
+        if ( shared instanceof LatticeShared && ( current == null || current instanceof LatticeShared ) )
+        {
+            environment.mergeShared( (LatticeShared) shared ); // no echo to my TaskServer
+        }
+        else if ( shared.isNewerThan( environment.getShared() ) )
         {
             environment.setShared( shared );
         }       
@@ -43,6 +43,10 @@ public class HostTaskStats extends ServiceTaskStats implements Serializable,
         XmlConverter {
     private int $tasksExecuted;
 
+    private int prefetchWindow; // as last reported by the Host
+
+    private int maxPrefetchWindow;
+
     private TaskClassStats taskClassStats = new TaskClassStats();
 
     private boolean isHost; // Should averages be output by toString?
@@ -59,6 +63,8 @@ public class HostTaskStats extends ServiceTaskStats implements Serializable,
         super( hostTaskStats.serviceName() );
         $tasksExecuted = hostTaskStats.$tasksExecuted;
         $tasksExecuted = hostTaskStats.$tasksExecuted;
+        prefetchWindow = hostTaskStats.prefetchWindow;
+        maxPrefetchWindow = hostTaskStats.maxPrefetchWindow;
         taskClassStats = (TaskClassStats) hostTaskStats.taskClassStats.clone();
         isHost = hostTaskStats.isHost;
     }
@@ -71,12 +77,30 @@ public class HostTaskStats extends ServiceTaskStats implements Serializable,
         return $tasksExecuted;
     }
 
+    /** Returns the number of Task objects the Host prefetched per compute
+     * processor when it completed its last Task.
+     * @return the prefetch window of the Host, or 0 if it is unknown.
+     */
+    public int prefetchWindow()
+    {
+        return prefetchWindow;
+    }
+
+    /** Returns the largest prefetch window that was reported.
+     * @return the largest prefetch window that was reported.
+     */
+    public int maxPrefetchWindow()
+    {
+        return maxPrefetchWindow;
+    }
+
     /**
      * Aggregate the Host statistics.
      */
     void add( HostTaskStats hostTaskStats )
     {
         $tasksExecuted += hostTaskStats.$tasksExecuted();
+        maxPrefetchWindow = Math.max( maxPrefetchWindow, hostTaskStats.maxPrefetchWindow() );
         taskClassStats.add( hostTaskStats.taskClassStats() );
     }
 
@@ -86,12 +110,16 @@ public class HostTaskStats extends ServiceTaskStats implements Serializable,
     void add( TaskInfo taskInfo )
     {
         $tasksExecuted++;
+        prefetchWindow = taskInfo.prefetchWindow();
+        maxPrefetchWindow = Math.max( maxPrefetchWindow, prefetchWindow );
         taskClassStats.add( taskInfo.className(), taskInfo.executeTime() );
     }
 
     void clear()
     {
         $tasksExecuted = 0;
+        prefetchWindow = 0;
+        maxPrefetchWindow = 0;
         taskClassStats.clear();
     }
 
@@ -115,6 +143,14 @@ public class HostTaskStats extends ServiceTaskStats implements Serializable,
         s.append( serviceName().toString() );
         s.append( " Tasks executed: " );
         s.append( $tasksExecuted );
+        if ( isHost )
+        {
+            s.append( " Prefetch window: " );
+            s.append( prefetchWindow );
+            s.append( " (max " );
+            s.append( maxPrefetchWindow );
+            s.append( ")" );
+        }
         s.append( "\n" );
         s.append( taskClassStats.toString( pad ) );
         return new String( s );
@@ -0,0 +1,32 @@
+/**
+ *  A Shared object whose values form a join semilattice: values only grow,
+ *  and any 2 values can be merged into the least value that is newer than
+ *  or equal to both (e.g., the minimum of 2 upper bounds on a cost).
+ *
+ *  Jicos merges LatticeShared values where they meet instead of forwarding
+ *  each of them: a TaskServer sends the merged value at most once per epoch
+ *  up its spanning tree and once per epoch down to its Hosts and child
+ *  TaskServers. Since merging is commutative, associative and idempotent, 
+ *  the order and the grouping of the merges does not change the result.
+ *
+ * @version 1.0
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+
+abstract public class LatticeShared extends Shared 
+{
+     private static final long serialVersionUID = 1L;
+     
+     /** Returns the join of this and the argument LatticeShared object: the
+      * least value that is newer than or equal to both. It must be 
+      * commutative, associative and idempotent, and x.isNewerThan( y ) must
+      * hold if and only if x.join( y ) is not equal to y.
+      * <I>Its implementation must be synchronized</I>.
+      * @param shared The LatticeShared object to be merged with this one.
+      * @return the join of this and the argument. It may be this or the 
+      * argument, if one of them is newer than or equal to the other.
+      */    
+     abstract public LatticeShared join( LatticeShared shared );
+}
@@ -33,59 +33,78 @@ import edu.ucsb.cs.jicos.services.external.services.TaskServerExternal;
 
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 /**
- * Priority queue of LinkedList objects.
- * A LinkedList has unassigned Task objects at the same level in the dag.
+ * Priority queue of unassigned Task objects, one deque per level in the dag.
+ *
+ * The deques are lock-free: Hosts of this TaskServer pop the most recently
+ * added Task of a level (LIFO), neighbor TaskServers steal the oldest Task
+ * objects of the highest level (FIFO). The monitor of this object is only
+ * used to let remove wait when there is no Task at all.
 */
-final class PQTasks extends TreeMap
+final class PQTasks
 {
     private final static int THRESHOLD = 200;
     
-    private int size; // # tasks at all levels
+    // level |--> deque of unassigned Task objects at that level
+    private final ConcurrentSkipListMap<Integer, ConcurrentLinkedDeque<Task>> levels =
+            new ConcurrentSkipListMap<Integer, ConcurrentLinkedDeque<Task>>();
+    private final AtomicInteger size = new AtomicInteger(); // # tasks at all levels
     private TaskServer taskServer;
     
+    // # of threads waiting in remove
+    private final AtomicInteger waiters = new AtomicInteger();
     // DEBUG
-    private int waiters;
     int getWaiters() 
     {
         System.out.println("PQTasks.getWaiters: size: " + size );
-        return waiters; 
+        return waiters.get(); 
     }
     // END DEBUG
     
     PQTasks( TaskServer taskServer ) { this.taskServer = taskServer; }
     
-    public synchronized void clear() { super.clear(); }
+    public void clear() 
+    { 
+        levels.clear();
+        size.set( 0 );
+    }
     
-    public synchronized void dump()
+    public void dump()
     {
-        Collection values = values();
-        for ( Iterator iterator = values.iterator(); iterator.hasNext(); )
+        for ( ConcurrentLinkedDeque<Task> deque : levels.values() )
         {
-            LinkedList list = (LinkedList) iterator.next();
-            for ( ListIterator listIterator = list.listIterator(); listIterator.hasNext(); )
+            for ( Task task : deque )
             {
-                Task task = (Task) listIterator.next();
                 System.out.println( "PQTasks.dump: " + task.getTaskId() );
             }
         }
     }
     
-    synchronized void put ( Task task )
+    int size() { return size.get(); }
+    
+    void put ( Task task )
     {
-        Integer key = new Integer ( task.getLevel() );
-        LinkedList list = (LinkedList) get ( key );
-        if ( list == null )
+        Integer key = Integer.valueOf( task.getLevel() );
+        ConcurrentLinkedDeque<Task> deque = levels.get ( key );
+        if ( deque == null )
         {
-            list = new LinkedList();
-            put ( key, list );
+            // empty deques are kept, the number of levels is small
+            ConcurrentLinkedDeque<Task> newDeque = new ConcurrentLinkedDeque<Task>();
+            deque = levels.putIfAbsent ( key, newDeque );
+            if ( deque == null )
+            {
+                deque = newDeque;
+            }
+        }
+        deque.addLast( task );
+        size.incrementAndGet();
+        if ( waiters.get() > 0 )
+        {
+            synchronized ( this ) { notify(); }
         }
-        assert list != null;
-        assert get( key ) == list;       
-        list.add( task );
-        assert list.contains( task );
-        size++;
-        notify();
     }
 
     /**
@@ -96,76 +115,117 @@ final class PQTasks extends TreeMap
      * else
      *     take from highest level: increase new task arrival rate.
      */
-    synchronized Task remove() //throws Exception
+    Task remove() //throws Exception
     {
         while ( true )
         {
-            /* iteration invariant: remove an empty List of complete tasks
-             * OR return a ready task OR both.
-            */
-            while ( ! isEmpty() )
+            Task task = poll();
+            if ( task != null )
             {
-                Task task;            
-                /* Get the firstKey (high level in DAG), if want rate of Task arrivals to 
-                * increase; else get the lastKey (low level in DAG).
-                */
-                Integer key = ( reduceTaskSpawnRate() ) ? (Integer) lastKey() : (Integer) firstKey();
-                LinkedList list = (LinkedList) get( key );
-            
-                // remove most recently added Task at this level
-                task = (Task) list.removeLast();
-                assert null != task;
-
-                if ( list.isEmpty() ) 
-                {
-                    remove( key );
-                }
-                size--;
-                
-                // DEBUG
-//                task.numAssignments++;
-//                if (task.numAssignments > 1 )
-//                {
-//                    System.out.println("PQTasks: " + task.getTaskId() + " numAssignments: " + task.numAssignments );
-//                }
-                
                 return task;
             }
-            assert isEmpty();            
             if ( ! (taskServer instanceof TaskServerExternal) )
             {
                 // ask neighbor taskServers for unassigned tasks
                 taskServer.issueRequestTasks();
             }
-            try 
+            synchronized ( this )
+            {
+                /* put increments size before it reads waiters: either it 
+                 * sees this waiter or the check below sees its task.
+                 */
+                waiters.incrementAndGet();
+                try 
+                {
+                    if ( size.get() == 0 )
+                    {
+                        wait(); // notifier: put
+                    }
+                }
+                catch ( InterruptedException ignore ) {}
+                finally
+                {
+                    waiters.decrementAndGet();
+                }
+            }
+        }
+    }
+    
+    /**
+     * return unassigned task or null, if there is none.
+     * Pops the most recently added Task of the chosen level.
+     */
+    Task poll()
+    {
+        while ( size.get() > 0 )
+        {
+            /* Get the firstKey (high level in DAG), if want rate of Task arrivals to 
+            * increase; else get the lastKey (low level in DAG).
+            */
+            Collection<ConcurrentLinkedDeque<Task>> deques = ( reduceTaskSpawnRate() ) ? levels.descendingMap().values() : levels.values();
+            for ( ConcurrentLinkedDeque<Task> deque : deques )
+            {
+                // remove most recently added Task at this level
+                Task task = deque.pollLast();
+                if ( task != null )
+                {
+                    size.decrementAndGet();
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * return oldest Task of the highest level in the dag or null, if there is none.
+     */
+    Task steal()
+    {
+        while ( size.get() > 0 )
+        {
+            for ( ConcurrentLinkedDeque<Task> deque : levels.values() )
             {
-                waiters++; // DEBUG
-                wait(); // notifier: put
-                waiters--; // DEBUG
+                Task task = deque.pollFirst();
+                if ( task != null )
+                {
+                    size.decrementAndGet();
+                    return task;
+                }
             }
-            catch ( InterruptedException ignore ) {}
         }
+        return null;
     }
     
-    synchronized Task[] removeTasks( int factor ) //throws Exception
+    /**
+     * return a fraction of all Task objects, but at least 1, for another 
+     * TaskServer. Waits for the first Task, the others are stolen from the 
+     * highest levels without waiting.
+     */
+    Task[] removeTasks( int factor ) //throws Exception
     {        
-        // return a fraction of all Task objects, but at least 1.
-        int $tasks = size / factor;
+        int $tasks = size.get() / factor;
         if ( $tasks < 1 )
         {
             $tasks = 1;
         }
-        Task[] tasks = new Task[ $tasks ];
-        for ( int i = 0; i < $tasks; i++ )
+        List<Task> tasks = new ArrayList<Task>( $tasks );
+        Task task = steal();
+        if ( task == null )
+        {
+            task = remove();
+        }
+        tasks.add( task );
+        while ( tasks.size() < $tasks && ( task = steal() ) != null )
         {
-            tasks[ i ] = remove();
+            tasks.add( task );
         }
         //System.out.println("PQTasks.removeTasks: returning." );
-        return tasks;
+        return tasks.toArray( new Task[ tasks.size() ] );
     }
     
     private boolean reduceTaskSpawnRate() 
     { 
-        return ( size > THRESHOLD ) ? true : false;
+        return ( size.get() > THRESHOLD ) ? true : false;
     }
 }
\ No newline at end of file
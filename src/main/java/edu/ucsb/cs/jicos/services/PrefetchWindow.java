@@ -0,0 +1,84 @@
+/**
+ * Adaptive prefetch window of a Host.
+ *
+ * A Host requests the next Task when it starts an atomic Task. If the
+ * round trip of such a request takes longer than the Task, the Host waits
+ * for work. The window is the number of Task objects the Host keeps
+ * requested per compute processor: the request round trip time divided by
+ * the average execute time of atomic Task objects, at least 1 and at most
+ * jicos.host.maxPrefetch (default 16). Both times are moving averages.
+ *
+ * The Host is starved if, although the window is at its maximum, its 
+ * compute processors still wait for Task objects a substantial fraction of 
+ * the time: only coarser Task objects can help then.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+
+final class PrefetchWindow
+{
+    // constants
+    private static final int MAX_WINDOW = Integer.getInteger( "jicos.host.maxPrefetch", 16 ).intValue();
+    private static final double STARVED_IDLE_FRACTION = 0.25;
+    
+    private int $processors;
+    
+    // moving averages, ns
+    private double executeTime;
+    private double idleTime;
+    private long roundTripTime;
+    
+    private int window = 1;
+    private int $extraRequests; // requests beyond 1 per processor
+    
+    PrefetchWindow( int $processors ) { this.$processors = $processors; }
+    
+    /** Records the start of an atomic Task and returns the number of Task 
+     * requests to send now: 1 replaces the Task that started, more widen the
+     * window, 0 narrows it.
+     * @param idleTime time the processor waited since its previous Task, ns;
+     * negative if unknown.
+     * @param roundTripTime current round trip time to the TaskServer, ns.
+     */
+    synchronized int start( long idleTime, long roundTripTime )
+    {
+        if ( idleTime >= 0 )
+        {
+            this.idleTime = ( 7 * this.idleTime + idleTime ) / 8;
+        }
+        this.roundTripTime = roundTripTime;
+        int $target = ( window - 1 ) * $processors;
+        int $requests = 1 + $target - $extraRequests;
+        if ( $requests < 0 )
+        {
+            $requests = 0; // narrow the window 1 request at a time
+        }
+        $extraRequests += $requests - 1;
+        return $requests;
+    }
+    
+    /** Records the execute time of an atomic Task & adapts the window.
+     * @param executeTime ns
+     */
+    synchronized void executed( long executeTime )
+    {
+        this.executeTime = ( this.executeTime == 0 ) ? executeTime : ( 7 * this.executeTime + executeTime ) / 8;
+        double ratio = roundTripTime / Math.max( this.executeTime, 1 );
+        window = (int) Math.max( 1, Math.min( MAX_WINDOW, Math.ceil( ratio ) ) );
+    }
+    
+    /** @return the number of Task objects requested per compute processor.
+     */
+    synchronized int window() { return window; }
+    
+    /** @return true if, with the maximal window, the compute processors still
+     * wait for Task objects: coarser Task objects would help.
+     */
+    synchronized boolean isStarved()
+    {
+        return window == MAX_WINDOW && idleTime > STARVED_IDLE_FRACTION * ( idleTime + executeTime );
+    }
+}
@@ -29,12 +29,40 @@
 
 package edu.ucsb.cs.jicos.services;
 
+import edu.ucsb.cs.jicos.foundation.WireCodec;
+import edu.ucsb.cs.jicos.foundation.WireCodecs;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 /** A data container for a computation's result.
  * It essentially has 1) an identifier, so the application can know to which
  * computation this result corresponds, and 2) the value, which is an Object.
  */
 public final class Result implements java.io.Serializable		
 {
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            Result result = (Result) object;
+            // resultId is never null
+            WireCodecs.writeObject( out, result.resultId.getTaskId() );
+            out.writeObject( result.value );
+            out.writeLong( result.criticalPathTime );
+            out.writeLong( result.totalTaskTime );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            TaskId taskId = (TaskId) WireCodecs.readObject( in );
+            Result result = new Result( taskId, in.readObject(), in.readLong() );
+            result.totalTaskTime = in.readLong();
+            return result;
+        }
+    };
+    
     private ResultId resultId;
     private Object value;
     private long criticalPathTime;
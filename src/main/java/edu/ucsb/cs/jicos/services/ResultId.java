@@ -49,7 +49,7 @@ public class ResultId implements java.io.Serializable
         return getTaskId().equals( ((ResultId) resultId).getTaskId() );
     }
     
-    private TaskId getTaskId() { return taskId; }
+    TaskId getTaskId() { return taskId; }
     
     /** Used so that ResultId objects can be the key in utility data structures, such as
      * HashMap.
@@ -0,0 +1,22 @@
+/**
+ * Registers the WireCodec objects of the classes of this package that are 
+ * contained in most Command objects. Loaded by WireCodecs, see the system 
+ * property jicos.codecs. Class ids 2 to 15 are reserved for this package.
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+import edu.ucsb.cs.jicos.foundation.WireCodecs;
+
+
+public final class ServiceCodecs
+{
+    static
+    {
+        WireCodecs.register( 2, TaskId.class, TaskId.CODEC );
+        WireCodecs.register( 3, Result.class, Result.CODEC );
+        WireCodecs.register( 4, TaskInfo.class, TaskInfo.CODEC );
+    }
+    
+    private ServiceCodecs() {}
+}
@@ -32,9 +32,11 @@ import edu.ucsb.cs.jicos.foundation.*;
 import edu.ucsb.cs.jicos.services.commands.*;
 import edu.ucsb.cs.jicos.services.external.services.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 /**
  * @author  Peter Cappello
  * @version 1
@@ -45,6 +47,7 @@ public final class Session
 {
     // constants
     private static final int TASKS_INITIAL_CAPACITY = 1024;
+    private static final int TASK_LOCK_STRIPES = 64; // power of 2
 
     // switches
     private static final boolean executeOn = true;
@@ -55,16 +58,31 @@ public final class Session
     private Map externalServiceProviderMap;
 
     // Session attributes
-    private SessionInfo sessionInfo;  // data pertinent to Host & application
-    private Map tasks =
-          Collections.synchronizedMap ( new HashMap( TASKS_INITIAL_CAPACITY ) );
+    private volatile SessionInfo sessionInfo;  // data pertinent to Host & application
+    private Map<TaskId, Task> tasks = new ConcurrentHashMap<TaskId, Task>( TASKS_INITIAL_CAPACITY, 0.75f, TASK_LOCK_STRIPES );
+    /* A Task in tasks is changed only while holding its lock stripe, so 
+     * setArg calls for distinct successor tasks proceed in parallel. A Task
+     * is put into tasks or dispatched only while holding its lock stripe, and 
+     * only if it belongs to the current session; see clear.
+     */
+    private final Object[] taskLocks = new Object[ TASK_LOCK_STRIPES ];
     private PQTasks unassignedTasks;
     private SessionStatistics sessionStatistics = new SessionStatistics();
     private JoinCounter joinCounter = new JoinCounter();
     private TaskIdTrie killedTasks = new TaskIdTrie();
+    
+    // Checkpoint attributes: changes since the last checkpoint
+    private volatile boolean checkpointing; // set by the first snapshot
+    private Map<TaskId, Object> changedTasks = new ConcurrentHashMap<TaskId, Object>(); // TaskId -> Task, or the TaskId if removed
+    private volatile boolean cleared;
+    private volatile boolean sessionInfoChanged;
 
     Session( TaskServer taskserver, Host internalHost )
     {
+        for ( int i = 0; i < taskLocks.length; i++ )
+        {
+            taskLocks[i] = new Object();
+        }
         this.taskserver = taskserver;
         this.internalHost = internalHost;
         unassignedTasks = new PQTasks( taskserver );
@@ -76,8 +94,15 @@ public final class Session
 
     synchronized void clear()
     {
-        sessionInfo = null;
+        sessionInfo = null; // from now on, Tasks of the old session are ignored
+        for ( int i = 0; i < taskLocks.length; i++ )
+        {
+            // wait for callers that saw the old session before
+            synchronized ( taskLocks[i] ) {}
+        }
         tasks.clear();
+        changedTasks.clear();
+        cleared = true;
         unassignedTasks.clear();
         sessionStatistics = new SessionStatistics();
         joinCounter.reset();
@@ -103,7 +128,7 @@ public final class Session
     
     void killTask( TaskId taskId ) { System.out.println("Session.killTask: " + taskId ); killedTasks.add( taskId ); }
     
-    public void setSessionInfo(SessionInfo si) { sessionInfo=si; }
+    public synchronized void setSessionInfo(SessionInfo si) { sessionInfo=si; sessionInfoChanged = true; }
     /** Should be changed so that info is piggy-backed w/ task, as needed.
      */
     SessionStatistics getSessionStatistics() { return sessionStatistics; }
@@ -147,15 +172,16 @@ public final class Session
 
     PQTasks unassignedTasks() { return unassignedTasks; }
 
-    void loginClient( SessionInfo sessionInfo )
+    synchronized void loginClient( SessionInfo sessionInfo )
     {
         // pre-condition
         assert sessionInfo != null;
 
         this.sessionInfo = sessionInfo;
+        sessionInfoChanged = true;
     }
 
-    synchronized private void processCompletedTask( TaskInfo taskInfo )
+    private void processCompletedTask( TaskInfo taskInfo )
     {
         TaskId    completedTaskId = taskInfo.taskId();
         TaskId    successorTaskId = taskInfo.getSuccessorTaskId();
@@ -187,13 +213,13 @@ public final class Session
                 spawn( child );
             }
         }     
-        tasks.remove ( completedTaskId );
+        removeTask ( completedTaskId );
     }
 
     /**
        * @param TaskInfo taskInfo: information about the task just completed.
     */
-    public synchronized void processResult( TaskInfo taskInfo )
+    public void processResult( TaskInfo taskInfo )
     {
         TaskId taskId = taskInfo.taskId();
         
@@ -205,6 +231,7 @@ public final class Session
         
         assert taskId != null;
 
+        SessionInfo sessionInfo = this.sessionInfo;
         if ( sessionInfo == null ||
              sessionInfo.getSessionId() != taskId.getSessionId() )
         {
@@ -218,12 +245,17 @@ public final class Session
         //System.out.println( "Session.processResult: unassignedTasks.size: " + unassignedTasks.size() + " tasks.size: " + tasks.size());
     }
 
-    synchronized void receiveTasks( Task[] fetchedTasks )
+    void receiveTasks( Task[] fetchedTasks )
     {
         for ( int i = 0; i < fetchedTasks.length; i++ )
         {
-            tasks.put( fetchedTasks[i].getTaskId(), fetchedTasks[i] );
-            unassignedTasks.put( fetchedTasks[i] );
+            synchronized ( taskLock( fetchedTasks[i].getTaskId() ) )
+            {
+                if ( putTask( fetchedTasks[i] ) )
+                {
+                    unassignedTasks.put( fetchedTasks[i] );
+                }
+            }
         }
     }
 
@@ -248,7 +280,7 @@ public final class Session
         Task[] fetchedTasks = unassignedTasks.removeTasks( factor );
         for( int i = 0; i < fetchedTasks.length; i++ )
         {
-            Task task = (Task) tasks.remove( fetchedTasks[i].getTaskId() );
+            Task task = removeTask( fetchedTasks[i].getTaskId() );
             assert task != null; //DEBUG of OutOfMemoryException
         }
         return fetchedTasks;
@@ -269,7 +301,7 @@ public final class Session
        went wrong.
      * @param taskserver that has this session
      */
-    public synchronized void setArg ( TaskId taskId, int index, Object value,
+    public void setArg ( TaskId taskId, int index, Object value,
                                       long criticalPathTime )
     {
         assert taskId != null;
@@ -284,42 +316,49 @@ public final class Session
         else
         {
             // set argument of successor task.
-            Task task = (Task) tasks.get( taskId );
-                      
-            if ( task == null )
-            {
-                /* Assumption: this compose task completed before processing
-                 * all of its inputs, and this input thus should be ignored.
-                 */
-                LogManager.getLogger().log( LogManager.DEBUG, "Task not found. Ignoring." );
-                return;
-            }           
-            assert task.get$UnsetArgs() != 0 : "Successor: no unset arguments";
-
-            // update critical path time
-            if ( task.getPredecessorCriticalPathTime() < criticalPathTime )
+            synchronized ( taskLock( taskId ) )
             {
-                task.setPredecessorCriticalPathTime( criticalPathTime );
-            }
-
-            // update total task time
-            
-            // set task's index'th input; decrement number of unset inputs
-            task.setInput ( index, value );
-            
-            // dispatch task?
-            Environment environment = sessionInfo.getEnvironment();
-            Command command;
-            if ( task.executeIncrementally( environment ) )
-            {
-                command = new ExecuteTask ( task, index );
-                dispatchTask( task, environment, command );
-                return;
-            }
-            if ( task.get$UnsetArgs() == 0 )
-            {
-                command = new ExecuteTask ( task );
-                dispatchTask( task, environment, command );
+                // looked up under the lock: removeTask may not run in between
+                Task task = tasks.get( taskId );
+                if ( task == null )
+                {
+                    /* Assumption: this compose task completed before processing
+                     * all of its inputs, and this input thus should be ignored.
+                     */
+                    LogManager.getLogger().log( LogManager.DEBUG, "Task not found. Ignoring." );
+                    return;
+                }
+                SessionInfo sessionInfo = currentSessionInfo( taskId );
+                if ( sessionInfo == null )
+                {
+                    return; // the Session was cleared
+                }
+                Environment environment = sessionInfo.getEnvironment();
+                assert task.get$UnsetArgs() != 0 : "Successor: no unset arguments";
+
+                // update critical path time
+                if ( task.getPredecessorCriticalPathTime() < criticalPathTime )
+                {
+                    task.setPredecessorCriticalPathTime( criticalPathTime );
+                }
+
+                // update total task time
+
+                // set task's index'th input; decrement number of unset inputs
+                int $unsetArgs = task.setInput ( index, value );
+                changed( taskId, task );
+
+                // dispatch task? Incremental inputs are dispatched in order.
+                if ( task.executeIncrementally( environment ) )
+                {
+                    dispatchTask( task, environment, new ExecuteTask ( task, index ) );
+                    return;
+                }
+                if ( $unsetArgs == 0 )
+                {
+                    Command command = new ExecuteTask ( task );
+                    dispatchTask( task, environment, command );
+                }
             }
         }
     }
@@ -329,9 +368,10 @@ public final class Session
         assert sessionInfo != null;
 
         this.sessionInfo = sessionInfo;
+        sessionInfoChanged = true;
     }
 
-    public synchronized void spawn ( Task task )
+    public void spawn ( Task task )
     {
         assert null != task;
         
@@ -339,20 +379,27 @@ public final class Session
         if ( appropriateTaskServer == taskserver )
         {
             // task should be handled by this TaskServer
-            tasks.put( task.getTaskId(), task ); // put task in tasks map
-            if ( task.isCached() )
+            synchronized ( taskLock( task.getTaskId() ) )
             {
-                // assign is needed to track Task, e.g., detect when cached Task's Host fails
-                assign ( task, task.getSpawningHost() );
-                return;
-            }
-
-            // dispatch task?
-            if ( task.get$UnsetArgs() == 0 )
-            {            
-                Environment environment = sessionInfo.getEnvironment();
-                Command command = new ExecuteTask ( task );
-                dispatchTask( task, environment, command );            
+                SessionInfo sessionInfo = currentSessionInfo( task.getTaskId() );
+                if ( sessionInfo == null || ! putTask( task ) ) // put task in tasks map
+                {
+                    return; // the Session was cleared
+                }
+                if ( task.isCached() )
+                {
+                    // assign is needed to track Task, e.g., detect when cached Task's Host fails
+                    assign ( task, task.getSpawningHost() );
+                    return;
+                }
+
+                // dispatch task?
+                if ( task.get$UnsetArgs() == 0 )
+                {            
+                    Environment environment = sessionInfo.getEnvironment();
+                    Command command = new ExecuteTask ( task );
+                    dispatchTask( task, environment, command );            
+                }
             }
         }
         else
@@ -431,12 +478,12 @@ public final class Session
         if ( killedTasks.contains( taskId ) )
         {
             System.out.println("Session.unassign: ignoring killed task: " + taskId );
-            tasks.remove( taskId );
+            removeTask( taskId );
             return;
         }
         
 //        System.out.println("Session.unassign: " + taskId );
-        Task task = (Task) tasks.get ( taskId );
+        Task task = tasks.get ( taskId );
         if ( task != null /*&& ! task.isComplete()*/ )
         {
             task.setHost( null ); // For consistency: Unassigned tasks have no host            
@@ -450,7 +497,7 @@ public final class Session
     * serialization.
     * @return tasks The Session tasks.
     */
-    public Map getTasks() { return tasks; }
+    public Map<TaskId, Task> getTasks() { return tasks; }
     
     // DEBUG
     int getWaiters() 
@@ -471,11 +518,118 @@ public final class Session
             Task task = (Task)iter.next();
             task.taskServerServiceName( taskserver.serviceName() );
             task.setTaskServer( taskserver );
-            tasks.put( task.getTaskId(), task );
-            if ( task.get$UnsetArgs() == 0 )
-            {               
-                unassignedTasks.put( task ); // the task is ready for processing
+            synchronized ( taskLock( task.getTaskId() ) )
+            {
+                if ( putTask( task ) && task.get$UnsetArgs() == 0 )
+                {               
+                    unassignedTasks.put( task ); // the task is ready for processing
+                }
             }
         }
     }
+    
+    /** Builds the checkpoint batch of the changes since the last checkpoint.
+     * Tasks changed several times are written once, in their current state.
+     * @param snapshot if true, the batch holds the complete state instead.
+     * The first checkpoint must be a snapshot: changes are recorded only
+     * from then on.
+     */
+    synchronized CheckpointStore.Batch checkpoint( boolean snapshot ) throws IOException
+    {
+        checkpointing = true; // later changes go to this or the next checkpoint
+        CheckpointStore.Batch batch = new CheckpointStore.Batch();
+        if ( snapshot || cleared )
+        {
+            batch.clear();
+        }
+        if ( ( snapshot || sessionInfoChanged ) && sessionInfo != null )
+        {
+            batch.sessionInfo( sessionInfo );
+        }
+        if ( snapshot )
+        {
+            changedTasks.clear();
+            for ( Task task : tasks.values() )
+            {
+                put( batch, task );
+            }
+        }
+        else
+        {
+            for ( TaskId taskId : changedTasks.keySet() )
+            {
+                Object change = changedTasks.remove( taskId );
+                if ( change instanceof Task )
+                {
+                    put( batch, (Task) change );
+                }
+                else if ( change != null )
+                {
+                    batch.remove( (TaskId) change );
+                }
+            }
+        }
+        cleared = false;
+        sessionInfoChanged = false;
+        return batch;
+    }
+    
+    // serialize task while it cannot change
+    private void put( CheckpointStore.Batch batch, Task task ) throws IOException
+    {
+        synchronized ( taskLock( task.getTaskId() ) )
+        {
+            batch.put( task );
+        }
+    }
+    
+    private Object taskLock( TaskId taskId )
+    {
+        int hash = taskId.hashCode();
+        return taskLocks[ ( hash ^ ( hash >>> 16 ) ) & ( TASK_LOCK_STRIPES - 1 ) ];
+    }
+    
+    // the current SessionInfo, or null if taskId belongs to another session
+    private SessionInfo currentSessionInfo( TaskId taskId )
+    {
+        SessionInfo sessionInfo = this.sessionInfo;
+        if ( sessionInfo == null || sessionInfo.getSessionId() != taskId.getSessionId() )
+        {
+            return null;
+        }
+        return sessionInfo;
+    }
+    
+    /* pre-condition: the lock stripe of task is held.
+     * @return false if task was ignored: it does not belong to the current session.
+     */
+    private boolean putTask( Task task )
+    {
+        if ( currentSessionInfo( task.getTaskId() ) == null )
+        {
+            return false;
+        }
+        tasks.put( task.getTaskId(), task );
+        changed( task.getTaskId(), task );
+        return true;
+    }
+    
+    private Task removeTask( TaskId taskId )
+    {
+        synchronized ( taskLock( taskId ) )
+        {
+            Task task = tasks.remove( taskId );
+            changed( taskId, taskId );
+            return task;
+        }
+    }
+    
+    // record a change for the next checkpoint
+    private void changed( TaskId taskId, Object change )
+    {
+        if ( checkpointing )
+        {
+            changedTasks.put( taskId, change );
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/**
+ * Epoch-based propagation of a TaskServer's LatticeShared value.
+ *
+ * When the merged value of a TaskServer improves, the improvement is only
+ * recorded. Once per epoch, flush sends the current merged value to the 
+ * parent TaskServer, if some improvement came from below, and to the Hosts
+ * & child TaskServers, if any improvement occurred. Thus improvements 
+ * travel as at most 1 message per tree edge per epoch, however many Hosts
+ * find them. The source of the improvements is skipped on the way down if 
+ * it was the only one in the epoch: it already has the value.
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+
+abstract class SharedPropagator 
+{
+    private static final Object SEVERAL_SOURCES = new Object();
+    
+    private boolean upPending;
+    private boolean downPending;
+    private Object downSource; // the source of this epoch's improvements, or SEVERAL_SOURCES
+    private long $epochs;
+    private long $messages;
+    
+    /** Records that the merged value improved.
+     * @param source the Service, or other sender, whose value improved it.
+     * @param fromParent true if source is the parent TaskServer.
+     */
+    synchronized void changed( Object source, boolean fromParent )
+    {
+        if ( ! fromParent )
+        {
+            upPending = true;
+        }
+        if ( ! downPending )
+        {
+            downPending = true;
+            downSource = source;
+        }
+        else if ( downSource != source )
+        {
+            downSource = SEVERAL_SOURCES;
+        }
+    }
+    
+    /** Ends the current epoch: sends the merged value, if it improved.
+     */
+    void flush()
+    {
+        boolean up, down;
+        Object exclude;
+        synchronized ( this )
+        {
+            up = upPending;
+            down = downPending;
+            exclude = ( downSource == SEVERAL_SOURCES ) ? null : downSource;
+            upPending = downPending = false;
+            downSource = null;
+            $epochs++;
+        }
+        if ( ! ( up || down ) )
+        {
+            return;
+        }
+        LatticeShared shared = current();
+        if ( shared == null )
+        {
+            return; // client logged out
+        }
+        int $sent = 0;
+        if ( up )
+        {
+            $sent += sendUp( shared );
+        }
+        if ( down )
+        {
+            $sent += sendDown( shared, exclude );
+        }
+        synchronized ( this ) { $messages += $sent; }
+    }
+    
+    /** @return # of epochs ended.
+     */
+    synchronized long getEpochCount() { return $epochs; }
+    
+    /** @return # of messages sent by flush.
+     */
+    synchronized long getMessageCount() { return $messages; }
+    
+    /** @return the current merged value.
+     */
+    abstract LatticeShared current();
+    
+    /** Sends shared to the parent TaskServer, if any.
+     * @return # of messages sent.
+     */
+    abstract int sendUp( LatticeShared shared );
+    
+    /** Sends shared to the Hosts & child TaskServers, except exclude.
+     * @return # of messages sent.
+     */
+    abstract int sendDown( LatticeShared shared, Object exclude );
+}
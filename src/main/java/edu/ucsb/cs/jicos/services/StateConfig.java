@@ -39,6 +39,10 @@ public class StateConfig implements java.io.Serializable {
     public String user;
     public String pass;
     public String id;
+    /** If not null, the TaskServer state is kept in a CheckpointStore in
+     * this directory instead of the datasource.
+     */
+    public String directory;
     
     /** Creates a new instance of StateConfig */
     public StateConfig() {
@@ -35,6 +35,7 @@ package edu.ucsb.cs.jicos.services;
 import  edu.ucsb.cs.jicos.foundation.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public abstract class Task implements java.io.Serializable
 {    
@@ -44,25 +45,27 @@ public abstract class Task implements java.io.Serializable
     // constants
     static final int RESULT = -1;
     static public final int ALL_INPUTS = -1;
+    private static final AtomicIntegerFieldUpdater<Task> UNSET_ARGS = 
+                AtomicIntegerFieldUpdater.newUpdater( Task.class, "$unsetArgs" );
     
-    //** to become transient attributes
-    private short $unsetArgs; // # of arguments to be set before task is ready
-    private Service host; // host assigned to execute this Task
+    //** to become transient attributes, still written by writeObject
+    private transient volatile int $unsetArgs; // # of arguments to be set before task is ready; decremented atomically
+    private transient Service host; // host assigned to execute this Task
     
-    //** Serialized attributes
-    private TaskId taskId;
-    private boolean cached = false; // set true in Host; read by Session spawn             
-    private short level;    
-    private ArrayList children = new ArrayList();
-    private Object[] inputs;   // execute method inputs, from predecessor tasks.
-    private Service spawningHost;   // Host that spawned this Task
+    //** Serialized attributes, all written by writeObject
+    private transient TaskId taskId;
+    private transient boolean cached = false; // set true in Host; read by Session spawn             
+    private transient short level;    
+    private transient ArrayList children = new ArrayList();
+    private transient Object[] inputs;   // execute method inputs, from predecessor tasks.
+    private transient Service spawningHost;   // Host that spawned this Task
     
     // successor information
-    private TaskId successorTaskId; // The taskId of the successor task
-    private int successorIndex;  // successorTask.input[successorIndex] = output
-    private ServiceName taskServerServiceName;
-    private Service taskServer;     // This task's output is sent here
-    private long predecessorCriticalPathTime;
+    private transient TaskId successorTaskId; // The taskId of the successor task
+    private transient int successorIndex;  // successorTask.input[successorIndex] = output
+    private transient ServiceName taskServerServiceName;
+    private transient Service taskServer;     // This task's output is sent here
+    private transient long predecessorCriticalPathTime;
     
     /** 
      * if I am my parent's children[1]
@@ -71,12 +74,81 @@ public abstract class Task implements java.io.Serializable
      *      then set to the sum of my input tasks' totalTaskTime + my executionTime
      *  else set to my execution time.
      */
-    private long totalTaskTime; 
+    private transient long totalTaskTime; 
         
     /** A no argument constructor is needed by RMI when unmarshalling arguments
      * and/or return values.
      */        
     public Task() {}
+    
+    /** Returns a copy of this Task that does not share its mutable state. 
+     * A CloneableTask is cloned, with its own List of children and inputs.
+     * Any other Task is copied deeply: Currently, the best way we know of for 
+     * making a deep copy of an instance of a class that extends Task is to 
+     * marshal it, then unmarshal it :(
+     */
+    final Task copy() throws java.io.IOException, ClassNotFoundException
+    {
+        if ( ! ( this instanceof CloneableTask ) )
+        {
+            return new java.rmi.MarshalledObject<Task>( this ).get();
+        }
+        Task copy;
+        try
+        {
+            copy = (Task) clone();
+        }
+        catch ( CloneNotSupportedException exception )
+        {
+            throw new InternalError( exception.toString() );
+        }
+        copy.children = (ArrayList) children.clone();
+        if ( inputs != null )
+        {
+            copy.inputs = inputs.clone();
+        }
+        return copy;
+    }
+    
+    /* Serialized form of the attributes of Task: TaskId objects are written
+     * with their WireCodec, all other attributes in declaration order. The 
+     * attributes of subclasses are serialized as usual.
+     */
+    private void writeObject( java.io.ObjectOutputStream out ) throws java.io.IOException
+    {
+        out.writeShort( (short) $unsetArgs );
+        out.writeObject( host );
+        WireCodecs.writeObject( out, taskId );
+        out.writeBoolean( cached );
+        out.writeShort( level );
+        out.writeObject( children );
+        out.writeObject( inputs );
+        out.writeObject( spawningHost );
+        WireCodecs.writeObject( out, successorTaskId );
+        out.writeInt( successorIndex );
+        out.writeObject( taskServerServiceName );
+        out.writeObject( taskServer );
+        out.writeLong( predecessorCriticalPathTime );
+        out.writeLong( totalTaskTime );
+    }
+    
+    private void readObject( java.io.ObjectInputStream in ) throws java.io.IOException, ClassNotFoundException
+    {
+        $unsetArgs = in.readShort();
+        host = (Service) in.readObject();
+        taskId = (TaskId) WireCodecs.readObject( in );
+        cached = in.readBoolean();
+        level = in.readShort();
+        children = (ArrayList) in.readObject();
+        inputs = (Object[]) in.readObject();
+        spawningHost = (Service) in.readObject();
+        successorTaskId = (TaskId) WireCodecs.readObject( in );
+        successorIndex = in.readInt();
+        taskServerServiceName = (ServiceName) in.readObject();
+        taskServer = (Service) in.readObject();
+        predecessorCriticalPathTime = in.readLong();
+        totalTaskTime = in.readLong();
+    }
                
     /** This is used to "dispatch" a <I>subtask</I> (its argument).
      * The subtask is ready for immediate execution.
@@ -165,7 +237,7 @@ public abstract class Task implements java.io.Serializable
     
     //END API
     
-    final short     get$UnsetArgs()      { return $unsetArgs; }
+    final short     get$UnsetArgs()      { return (short) $unsetArgs; }
     final boolean   isCached()          { return cached; }
     final ArrayList getChildren()        { return children; }
     final Service   getHost()            { return host; }
@@ -192,12 +264,15 @@ public abstract class Task implements java.io.Serializable
     final void setHost ( Service host ) { this.host = host; }   
     final void setCached( boolean cached ) { this.cached = cached; }
     
-    /** set this task's ith input to value; decrement the unset inputs counter
+    /** set this task's ith input to value; decrement the unset inputs counter.
+     * Concurrent calls for distinct inputs are safe: exactly 1 of them 
+     * returns 0, and that caller sees all inputs.
+     * @return the number of inputs that remain unset.
      */
-    final void setInput( int i, Object value ) 
+    final int setInput( int i, Object value ) 
     { 
         inputs[ i ] = value;
-        --$unsetArgs;
+        return UNSET_ARGS.decrementAndGet( this );
     }   
     
     final void setPredecessorCriticalPathTime( long predecessorCriticalPathTime)
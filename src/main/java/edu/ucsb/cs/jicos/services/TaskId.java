@@ -31,13 +31,40 @@
 
 package edu.ucsb.cs.jicos.services;
 
+import edu.ucsb.cs.jicos.foundation.WireCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
 
 final public class TaskId implements java.io.Serializable, Comparable
 {
     //public long serialVersionUID = 
-    private long sessionId;
-    private short computationId;
-    private short[] path;
+    // written by writeObject
+    private transient long sessionId;
+    private transient short computationId;
+    private transient short[] path;
+    
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            ((TaskId) object).write( out );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException
+        {
+            TaskId taskId = new TaskId();
+            taskId.read( in );
+            return taskId;
+        }
+    };
+    
+    private TaskId() {}
     
     TaskId( long sessionId, short computationId )
     {
@@ -215,6 +242,10 @@ final public class TaskId implements java.io.Serializable, Comparable
 
     int getChild() { return path.length == 0 ? -1 : (int) path[path.length -1];}
 
+    int getPathLength() { return path.length; }
+
+    short getPathElement( int i ) { return path[i]; }
+
     TaskId getParentId()
     {
         if ( path.length == 0 )
@@ -227,6 +258,34 @@ final public class TaskId implements java.io.Serializable, Comparable
     }
     
     long getSessionId() { return sessionId; }
+    
+    /* Serialized form: sessionId, computationId, # path elements, path elements.
+     */
+    private void writeObject( ObjectOutputStream out ) throws IOException { write( out ); }
+    
+    private void readObject( ObjectInputStream in ) throws IOException { read( in ); }
+    
+    private void write( DataOutput out ) throws IOException
+    {
+        out.writeLong( sessionId );
+        out.writeShort( computationId );
+        out.writeShort( path.length );
+        for ( int i = 0; i < path.length; i++ )
+        {
+            out.writeShort( path[i] );
+        }
+    }
+    
+    private void read( DataInput in ) throws IOException
+    {
+        sessionId = in.readLong();
+        computationId = in.readShort();
+        path = new short[ in.readUnsignedShort() ];
+        for ( int i = 0; i < path.length; i++ )
+        {
+            path[i] = in.readShort();
+        }
+    }
         
     public String toString ()
     {
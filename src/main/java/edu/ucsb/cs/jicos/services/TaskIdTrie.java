@@ -24,9 +24,17 @@
  * ************************************************************************* */
 
 /**
+ * Set of killed TaskId objects: a TaskId is contained, if one of its ancestors
+ * was added. The trie has one root per computation and one edge per path
+ * element, so contains costs O(depth) regardless of the number of killed
+ * tasks. Adding a TaskId prunes the subtries of its descendants.
+ *
  * Supports multi-threaded execution: Multiple hosts can concurrently invoke 
- * TaskServer's Session, which invokes its TaskIdTrie object.
- *  !! Fix: Implement as true Trie
+ * TaskServer's Session, which invokes its TaskIdTrie object. contains does not
+ * lock, add is synchronized.
+ *
+ * The serialized form (sent to Hosts inside their Environment) only contains
+ * the killed prefixes.
  *
  * @author  Peter Cappello
  */
@@ -37,29 +45,134 @@
 
 package edu.ucsb.cs.jicos.services;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 final class TaskIdTrie implements Serializable
 {
-    private Collection taskIdSet = new HashSet();
+    // computation (TaskId with empty path) |--> Node
+    private transient Map<TaskId, Node> roots = new ConcurrentHashMap<TaskId, Node>();
+    
+    private static final class Node
+    {
+        volatile boolean killed;
+        // path element |--> Node; null if killed
+        volatile Map<Short, Node> children = new ConcurrentHashMap<Short, Node>();
+    }
     
-    synchronized void add( TaskId taskId ) { taskIdSet.add( taskId ); }
+    synchronized void add( TaskId taskId ) 
+    {
+        TaskId computation = new TaskId( taskId.getSessionId(), (short) taskId.getComputationId() );
+        Node node = roots.get( computation );
+        if ( node == null )
+        {
+            node = new Node();
+            roots.put( computation, node );
+        }
+        for ( int i = 0; i < taskId.getPathLength(); i++ )
+        {
+            if ( node.killed )
+            {
+                return; // an ancestor is already killed
+            }
+            Short key = Short.valueOf( taskId.getPathElement( i ) );
+            Node child = node.children.get( key );
+            if ( child == null )
+            {
+                child = new Node();
+                node.children.put( key, child );
+            }
+            node = child;
+        }
+        node.killed = true;
+        node.children = null; // descendants are killed too
+    }
+    
+    boolean contains( TaskId taskId )
+    {
+        Node node = roots.get( new TaskId( taskId.getSessionId(), (short) taskId.getComputationId() ) );
+        for ( int i = 0; node != null; i++ )
+        {
+            if ( node.killed )
+            {
+                return true;
+            }
+            Map<Short, Node> children = node.children;
+            if ( i == taskId.getPathLength() || children == null )
+            {
+                return false;
+            }
+            node = children.get( Short.valueOf( taskId.getPathElement( i ) ) );
+        }
+        return false;
+    }
+    
+    /* Serialized form: # computations, then per computation its sessionId,
+     * its computationId and its trie in preorder: killed flag, # children, 
+     * then per child its path element and subtrie.
+     */
+    private synchronized void writeObject( ObjectOutputStream out ) throws IOException
+    {
+        out.defaultWriteObject();
+        out.writeInt( roots.size() );
+        for ( Map.Entry<TaskId, Node> entry : roots.entrySet() )
+        {
+            TaskId computation = entry.getKey();
+            out.writeLong( computation.getSessionId() );
+            out.writeShort( computation.getComputationId() );
+            writeNode( out, entry.getValue() );
+        }
+    }
+    
+    private static void writeNode( ObjectOutputStream out, Node node ) throws IOException
+    {
+        out.writeBoolean( node.killed );
+        if ( node.killed )
+        {
+            return;
+        }
+        out.writeInt( node.children.size() );
+        for ( Map.Entry<Short, Node> entry : node.children.entrySet() )
+        {
+            out.writeShort( entry.getKey().shortValue() );
+            writeNode( out, entry.getValue() );
+        }
+    }
+    
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        roots = new ConcurrentHashMap<TaskId, Node>();
+        int $computations = in.readInt();
+        for ( int i = 0; i < $computations; i++ )
+        {
+            long sessionId = in.readLong();
+            short computationId = in.readShort();
+            roots.put( new TaskId( sessionId, computationId ), readNode( in ) );
+        }
+    }
     
-    synchronized boolean contains( TaskId taskId )
+    private static Node readNode( ObjectInputStream in ) throws IOException
     {
-        for ( Iterator iterator = taskIdSet.iterator(); iterator.hasNext(); )
-         {
-             TaskId nextTaskId = (TaskId) iterator.next();
-             if ( nextTaskId.isAncestor( taskId ) )
-             {
-                 return true;
-             }
-         }
-         return false;
+        Node node = new Node();
+        if ( in.readBoolean() )
+        {
+            node.killed = true;
+            node.children = null;
+            return node;
+        }
+        int $children = in.readInt();
+        for ( int i = 0; i < $children; i++ )
+        {
+            Short key = Short.valueOf( in.readShort() );
+            node.children.put( key, readNode( in ) );
+        }
+        return node;
     }
     
     public static void main( String[] args )
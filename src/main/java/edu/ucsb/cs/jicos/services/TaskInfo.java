@@ -32,15 +32,55 @@ package edu.ucsb.cs.jicos.services;
 
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.*;
 
 public final class TaskInfo implements java.io.Serializable
 {
     private final static int INVALID_INDEX = -2;
+    
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            TaskInfo taskInfo = (TaskInfo) object;
+            out.writeObject( taskInfo.host );
+            WireCodecs.writeObject( out, taskInfo.taskId );
+            out.writeInt( taskInfo.executeTime );
+            out.writeShort( taskInfo.prefetchWindow );
+            out.writeLong( taskInfo.criticalPathTime );
+            out.writeObject( taskInfo.className );
+            out.writeObject( taskInfo.exception );
+            out.writeObject( taskInfo.children );
+            WireCodecs.writeObject( out, taskInfo.successorTaskId );
+            out.writeInt( taskInfo.successorIndex );
+            out.writeObject( taskInfo.successorValue );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            TaskInfo taskInfo = new TaskInfo();
+            taskInfo.host = (Service) in.readObject();
+            taskInfo.taskId = (TaskId) WireCodecs.readObject( in );
+            taskInfo.executeTime = in.readInt();
+            taskInfo.prefetchWindow = in.readShort();
+            taskInfo.criticalPathTime = in.readLong();
+            taskInfo.className = (Class) in.readObject();
+            taskInfo.exception = (Exception) in.readObject();
+            taskInfo.children = (List) in.readObject();
+            taskInfo.successorTaskId = (TaskId) WireCodecs.readObject( in );
+            taskInfo.successorIndex = in.readInt();
+            taskInfo.successorValue = in.readObject();
+            return taskInfo;
+        }
+    };
         
     private Service host;
     private TaskId taskId;
     private int executeTime;
+    private short prefetchWindow; // of the Host, when it completed the task
     private long criticalPathTime;
     private Class className;
     private Exception exception; // execute method caused this exception
@@ -51,6 +91,8 @@ public final class TaskInfo implements java.io.Serializable
     private int       successorIndex;
     private Object    successorValue;
     
+    private TaskInfo() {}
+    
     TaskInfo ( Service host, Task task, int executeTime )
     {
         assert host != null;
@@ -67,6 +109,9 @@ public final class TaskInfo implements java.io.Serializable
     Class className() { return className; }
     
     int executeTime() {  return executeTime; }
+    
+    int prefetchWindow() { return prefetchWindow; }
+    void prefetchWindow( int prefetchWindow ) { this.prefetchWindow = (short) prefetchWindow; }
     void executeTime( int executeTime ) 
     {
         assert executeTime >= 0;        
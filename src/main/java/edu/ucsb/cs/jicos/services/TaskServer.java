@@ -40,6 +40,8 @@ import edu.ucsb.cs.jicos.foundation.*;
 import edu.ucsb.cs.jicos.services.commands.*;
 import edu.ucsb.cs.jicos.utilities.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.rmi.AccessException;
 import java.rmi.AlreadyBoundException;
 import java.rmi.RMISecurityManager;
@@ -59,6 +61,9 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
     public static final RemoteExceptionHandler REMOTE_EXCEPTION_HANDLER = new
                                                   JicosRemoteExceptionHandler();    
     private static final int $NEIGHBORS = 4;    
+    // processors of the internal Host & of the internalCommandDepartment
+    private static final int $INTERNAL_PROCESSORS = Integer.getInteger( 
+        "jicos.taskserver.processors", Runtime.getRuntime().availableProcessors() ).intValue();
     
     private final Command REQUEST_TASKS = new RequestTasks( this );
     
@@ -109,20 +114,20 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         }
     };    
     //private Q q = new PriorityQ( 2, command2PriorityMap );
-    private Q q = new PriorityQ( 1, command2PriorityMap );
+    private Q q = new ConcurrentPriorityQ( 1, command2PriorityMap );
     private Department taskRequests = new Department ( this, q, 1 );     
     private Department[] departments = 
     {  
         ServiceImpl.ASAP_DEPARTMENT, taskRequests
     };
-    private Q taskRequestQ = new PriorityQ( 1, command2PriorityMap );
+    private Q taskRequestQ = new ConcurrentPriorityQ( 1, command2PriorityMap );
     private Department requestTaskDepartment = new Department( this, taskRequestQ, 1);
     
     /* Processes INTERNALLY GENERATED ExecuteTask & ProcessResult commands.
      * Hence, it is not included in departments array above.
      */
     private Department internalCommandDepartment = 
-                                            new Department( this, new Qu(), 1 );
+                      new Department( this, new Qu(), $INTERNAL_PROCESSORS );
     private Host internalHost; // internal Host executes Compose Task objects 
     private TaskServerServiceInfo myTaskServerServiceInfo;
     
@@ -152,6 +157,54 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
     private ServiceTaskStats hspTaskStats = new ServiceTaskStats(serviceName());
     private JoinCounter clientRegistrationCoordinator = new JoinCounter();
     
+    // Checkpoint-oriented attributes
+    private static final String CHECKPOINT_DIRECTORY = System.getProperty( "jicos.checkpoint.dir" );
+    private static final long CHECKPOINT_INTERVAL = Long.getLong( "jicos.checkpoint.interval", 5000 ).longValue(); // ms
+    private CheckpointStore checkpointStore; // receives the Session changes
+    private boolean checkpointFailed; // changes may be lost: next checkpoint is a snapshot
+    private final Object checkpointLock = new Object();
+    
+    // Shared-oriented attributes: LatticeShared values are propagated per epoch
+    private static final long SHARED_EPOCH = Long.getLong( "jicos.shared.epoch", 10 ).longValue(); // ms
+    private SharedPropagator sharedPropagator = new SharedPropagator()
+    {
+        LatticeShared current()
+        {
+            SessionInfo sessionInfo = session.getSessionInfo();
+            return ( sessionInfo == null ) ? null : (LatticeShared) sessionInfo.getEnvironment().getShared();
+        }
+        
+        int sendUp( LatticeShared shared )
+        {
+            Proxy parent = neighborManager.getParent();
+            if ( parent == null )
+            {
+                return 0;
+            }
+            parent.execute( new UpdateShared( shared, TaskServer.this ) );
+            return 1;
+        }
+        
+        int sendDown( LatticeShared shared, Object exclude )
+        {
+            Command command = new UpdateShared( shared, TaskServer.this );
+            int $sent = 0;
+            synchronized ( subtree )
+            {
+                for ( Object element : subtree )
+                {
+                    Proxy proxy = (Proxy) element;
+                    if ( exclude == null || ! exclude.equals( proxy.getService() ) )
+                    {
+                        proxy.execute( command );
+                        $sent++;
+                    }
+                }
+            }
+            return $sent;
+        }
+    };
+    
     // To support external services
     protected Class myTaskClass = Task.class;
     private Map externalServiceProviderMap = new HashMap();
@@ -195,7 +248,7 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         SessionInfo sessionInfo = (SessionInfo) hspProxy.execute( commandSynchronous, REMOTE_EXCEPTION_HANDLER );
         
         // construct internal Host
-        internalHost = new Host ( this, true, 1 );
+        internalHost = new Host ( this, true, $INTERNAL_PROCESSORS );
             
         // construct Session
         session = new Session( this, internalHost );
@@ -204,6 +257,28 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
             session.loginClient( sessionInfo );
         }
         
+        // end an epoch of LatticeShared propagation periodically
+        new Reporter( SHARED_EPOCH )
+        {
+            public void report() { sharedPropagator.flush(); }
+        };
+        
+        // recover the checkpoint of a previous run, then checkpoint periodically
+        if ( CHECKPOINT_DIRECTORY != null )
+        {
+            try
+            {
+                // restore only the tasks of the session still logged in at the Hsp
+                SessionInfo currentSession = ( sessionInfo == null ) ? new SessionInfo() : sessionInfo;
+                recover( CHECKPOINT_DIRECTORY, SERVICE_NAME, currentSession );
+                new TaskServerCheckpointer( this, CHECKPOINT_INTERVAL );
+            }
+            catch ( Exception exception ) // IOException, ClassNotFoundException
+            {
+                LogManager.getLogger( this ).log( LogManager.INFO, "Checkpointing disabled: " + exception.getMessage() );
+            }
+        }
+        
         LogManager.getLogger().log( LogManager.INFO, "TaskServer has been constructed." );
     }
     
@@ -482,7 +557,7 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
          * save some for this TaskServer.
          */
         //int factor = ((PriorityQ) taskRequests.q()).size( 1 ) + 2;
-        int factor = ((PriorityQ) taskRequests.q()).size( REQUEST_TASKS_LEVEL ) + 2;
+        int factor = ((ConcurrentPriorityQ) taskRequests.q()).size( REQUEST_TASKS_LEVEL ) + 2;
         Task[] tasks = session.requestTasks( factor );
         Command command = new ReceiveTasks( tasks, this );
         sendCommand( requestingTaskServer, command );
@@ -513,6 +588,9 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
      * Current implementation is O( |S| ), where S is the set of services in the 
      * multicast group. However, it simply adds an UpdatShared Command to each 
      * Service's Mail: no wait; no RMI.
+     * A LatticeShared value is merged instead, and the merged value is sent
+     * by the SharedPropagator at the end of the epoch: O( |S| ) per epoch,
+     * not per improvement.
      */
     public void setShared ( Shared proposedShared, Service fromService )
     {
@@ -526,6 +604,17 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         }
         
         Environment environment = sessionInfo.getEnvironment();
+        if ( proposedShared instanceof LatticeShared && 
+             ( environment.getShared() == null || environment.getShared() instanceof LatticeShared ) )
+        {
+            // merge now; propagate at the end of the epoch
+            if ( environment.mergeShared( (LatticeShared) proposedShared ) != null )
+            {
+                Proxy parent = neighborManager.getParent();
+                sharedPropagator.changed( fromService, parent != null && fromService.equals( parent.getService() ) );
+            }
+            return;
+        }
         if ( proposedShared.isNewerThan( environment.getShared() ) )
         {
             environment.setShared( proposedShared );
@@ -538,6 +627,11 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         }
     }            
     
+    /** Records that a LatticeShared value of my internal Host improved the
+     * merged value, which is in the Environment it shares with me.
+     */
+    void sharedChanged( Service internalHost ) { sharedPropagator.changed( internalHost, false ); }
+    
     public Session session() { return session; }    
     
     RemoteExceptionHandler remoteExceptionHandler()
@@ -656,6 +750,19 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         //System.out.println( "Loading state from database with ID: " + stateConfig.id +
             //" and server name " + serviceName().stringName() );
 
+        if ( stateConfig.directory != null )
+        {
+            try
+            {
+                recover( stateConfig.directory, stateConfig.id, null );
+            }
+            catch ( Exception ignore ) {
+                ignore.printStackTrace();
+            }
+            internalCommandDepartment.setPaused( false );
+            requestTaskDepartment.setPaused( false );
+            return;
+        }
         try {
             Class.forName(stateConfig.driver);
             Connection con = DriverManager.getConnection(stateConfig.dsn, stateConfig.user, stateConfig.pass);            
@@ -693,6 +800,20 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
      */
     public void saveState( StateConfig stateConfig ) {
         //System.out.println( "TaskServer:Saving state to: " + stateConfig.dsn );
+        if ( stateConfig.directory != null )
+        {
+            // O(changes since the last checkpoint): need not wait for the pause
+            internalCommandDepartment.setPaused( false );
+            requestTaskDepartment.setPaused( false );
+            try
+            {
+                checkpoint( stateConfig.directory, stateConfig.id );
+            }
+            catch ( IOException ignore ) {
+                ignore.printStackTrace();
+            }
+            return;
+        }
         try {            
             Class.forName(stateConfig.driver);
             Connection con = DriverManager.getConnection(stateConfig.dsn, 
@@ -733,6 +854,112 @@ public class TaskServer extends ServiceImpl implements AdministrableTaskServer
         requestTaskDepartment.setPaused( false );                
     }
     
+    /** Appends the changes of the Session since the last checkpoint to the
+     * current CheckpointStore, or writes a snapshot if the log has grown 
+     * larger than the last snapshot. The TaskServer is not paused: the 
+     * Session is locked only while the changed tasks are serialized.
+     */
+    void checkpoint() throws IOException
+    {
+        synchronized ( checkpointLock )
+        {
+            if ( checkpointStore != null )
+            {
+                checkpoint( checkpointStore );
+            }
+        }
+    }
+    
+    private void checkpoint( String directory, String id ) throws IOException
+    {
+        synchronized ( checkpointLock )
+        {
+            CheckpointStore store = checkpointStore( directory, id );
+            if ( store != checkpointStore )
+            {
+                // the snapshot replaces the saved state; compact deletes only recovered files
+                try
+                {
+                    store.recover();
+                }
+                catch ( ClassNotFoundException exception )
+                {
+                    throw new IOException( "TaskServer: cannot recover " + id + ": " + exception.getMessage() );
+                }
+            }
+            checkpoint( store );
+        }
+    }
+    
+    /* Recovers the store for directory & id and makes it the current store; 
+     * the next checkpoint is a snapshot. If currentSession is null, the 
+     * Session is set to the recovered one. Otherwise, the recovered tasks are
+     * restored only if they belong to currentSession, the session logged in 
+     * at the Hsp; tasks of another session are dropped by the snapshot.
+     */
+    private void recover( String directory, String id, SessionInfo currentSession ) 
+            throws IOException, ClassNotFoundException
+    {
+        synchronized ( checkpointLock )
+        {
+            CheckpointStore store = checkpointStore( directory, id );
+            Map<TaskId, Task> tasks = store.recover();
+            SessionInfo recoveredSessionInfo = store.getRecoveredSessionInfo();
+            if ( currentSession == null )
+            {
+                if ( recoveredSessionInfo != null )
+                {
+                    session.setSessionInfo( recoveredSessionInfo );
+                }
+                session.setTasks( tasks );
+            }
+            else if ( recoveredSessionInfo != null 
+                      && recoveredSessionInfo.getSessionId() == currentSession.getSessionId() )
+            {
+                session.setTasks( tasks );
+            }
+            checkpointStore = store;
+            checkpointFailed = true; // the next checkpoint is a snapshot
+        }
+    }
+    
+    // pre-condition: checkpointLock is held
+    private void checkpoint( CheckpointStore store ) throws IOException
+    {
+        boolean snapshot = store != checkpointStore || checkpointFailed || store.shouldCompact();
+        checkpointStore = store;
+        checkpointFailed = true;
+        if ( snapshot )
+        {
+            // changes are recorded for 1 store only: a new store starts with a snapshot
+            store.compact( session.checkpoint( true ) );
+        }
+        else
+        {
+            CheckpointStore.Batch batch = session.checkpoint( false );
+            if ( ! batch.isEmpty() )
+            {
+                store.append( batch );
+            }
+        }
+        checkpointFailed = false;
+    }
+    
+    // the store of this TaskServer for directory & id: the current one, if it matches
+    private CheckpointStore checkpointStore( String directory, String id ) throws IOException
+    {
+        File directoryFile = new File( directory );
+        String name = ( id + "-" + serviceName() ).replaceAll( "[^A-Za-z0-9_-]", "_" );
+        synchronized ( checkpointLock )
+        {
+            if ( checkpointStore != null && checkpointStore.isStore( directoryFile, name ) )
+            {
+                return checkpointStore;
+            }
+        }
+        return new CheckpointStore( directoryFile, name );
+    }
+    
     public void updateExternalServiceProviderMap(Class taskClass, Service taskServer, Service fromService)
     {
         assert taskClass != null;
@@ -0,0 +1,38 @@
+/**
+ *  Checkpoint my TaskServer's Session every time interval.
+ */
+
+/*
+ * TaskServerCheckpointer.java
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+import edu.ucsb.cs.jicos.foundation.*;
+import java.io.IOException;
+
+
+final class TaskServerCheckpointer extends Reporter 
+{
+    // attributes
+    private TaskServer taskServer;
+    
+    public TaskServerCheckpointer( TaskServer taskServer, long timeInterval ) 
+    {
+        super( timeInterval );
+        this.taskServer = taskServer;
+    }
+    
+    public void report()
+    {
+        try
+        {
+            taskServer.checkpoint();
+        }
+        catch ( IOException exception )
+        {
+            // a failed checkpoint is retried with the next one
+            LogManager.getLogger( taskServer ).log( LogManager.INFO, "Checkpoint failed: " + exception.getMessage() );
+        }
+    }
+}
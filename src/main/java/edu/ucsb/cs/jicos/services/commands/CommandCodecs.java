@@ -0,0 +1,24 @@
+/**
+ * Registers the WireCodec objects of the Command classes sent most often.
+ * Loaded by WireCodecs, see the system property jicos.codecs.
+ * Class ids 16 to 63 are reserved for this package.
+ */
+
+package edu.ucsb.cs.jicos.services.commands;
+
+import edu.ucsb.cs.jicos.foundation.WireCodecs;
+
+
+public final class CommandCodecs
+{
+    static
+    {
+        WireCodecs.register( 16, ExecuteTask.class, ExecuteTask.CODEC );
+        WireCodecs.register( 17, ProcessResult.class, ProcessResult.CODEC );
+        WireCodecs.register( 18, PutResult.class, PutResult.CODEC );
+        WireCodecs.register( 19, ReceiveTasks.class, ReceiveTasks.CODEC );
+        WireCodecs.register( 20, RequestTask.class, RequestTask.CODEC );
+    }
+    
+    private CommandCodecs() {}
+}
@@ -33,12 +33,31 @@ package edu.ucsb.cs.jicos.services.commands;
 import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 
 public final class ExecuteTask  implements Command  
 {
     private Task task;
     private int inputIndex = Task.ALL_INPUTS;
     
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            ExecuteTask command = (ExecuteTask) object;
+            out.writeObject( command.task );
+            out.writeInt( command.inputIndex );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            return new ExecuteTask( (Task) in.readObject(), in.readInt() );
+        }
+    };
+    
     public ExecuteTask( Task task ) { this.task = task; }
     
     public ExecuteTask( Task task, int inputIndex ) 
@@ -33,11 +33,29 @@ package edu.ucsb.cs.jicos.services.commands;
 import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 
 public final class ProcessResult implements Command 
 {
     private TaskInfo taskInfo;
     
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            ProcessResult command = (ProcessResult) object;
+            WireCodecs.writeObject( out, command.taskInfo );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            return new ProcessResult( (TaskInfo) WireCodecs.readObject( in ) );
+        }
+    };
+    
     public ProcessResult( TaskInfo taskInfo ) { this.taskInfo = taskInfo; }
     
     public void execute( Proxy proxy ) {} // never invoked.
@@ -35,12 +35,32 @@ package edu.ucsb.cs.jicos.services.commands;
 import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 
 public final class PutResult implements Command 
 {
     private TaskId taskId;
     private Result result;
     
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            PutResult command = (PutResult) object;
+            WireCodecs.writeObject( out, command.taskId );
+            WireCodecs.writeObject( out, command.result );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            TaskId taskId = (TaskId) WireCodecs.readObject( in );
+            return new PutResult( taskId, (Result) WireCodecs.readObject( in ) );
+        }
+    };
+    
     public PutResult( TaskId taskId, Result result ) 
     {
         this.taskId = taskId;
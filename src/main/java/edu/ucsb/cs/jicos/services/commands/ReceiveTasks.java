@@ -38,11 +38,32 @@ package edu.ucsb.cs.jicos.services.commands;
 import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 
 public final class ReceiveTasks implements Command 
 {
     private Task[] tasks;
     private Service respondingTaskServer;
+    
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            ReceiveTasks command = (ReceiveTasks) object;
+            out.writeObject( command.tasks );
+            out.writeObject( command.respondingTaskServer );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            Task[] tasks = (Task[]) in.readObject();
+            return new ReceiveTasks( tasks, (Service) in.readObject() );
+        }
+    };
+    
 
     public ReceiveTasks(Task[] tasks, Service respondingTaskServer) 
     {
@@ -35,11 +35,29 @@ package edu.ucsb.cs.jicos.services.commands;
 import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 
 public final class RequestTask implements Command  
 {
     private Service requestingHost;
     
+    static final WireCodec CODEC = new WireCodec()
+    {
+        public void write( ObjectOutput out, Object object ) throws IOException
+        {
+            RequestTask command = (RequestTask) object;
+            out.writeObject( command.requestingHost );
+        }
+        
+        public Object read( ObjectInput in ) throws IOException, ClassNotFoundException
+        {
+            return new RequestTask( (Service) in.readObject() );
+        }
+    };
+    
     public RequestTask( Service requestingHost )
     {
         this.requestingHost = requestingHost;
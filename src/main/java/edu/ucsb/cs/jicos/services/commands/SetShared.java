@@ -38,7 +38,7 @@ import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
 
-public final class SetShared implements Command  
+public final class SetShared implements MergeableCommand  
 {
     private Shared shared;
     private Service source;
@@ -53,6 +53,19 @@ public final class SetShared implements Command
     }
     
     public void execute( Proxy proxy ) { proxy.sendCommand( this ); }
+    
+    /* A Host's Shared object only gets newer, so only the newest pending 
+     * SetShared of a source needs to be sent.
+     */
+    public Object mergeKey() 
+    { 
+        return java.util.Arrays.asList( new Object[] { SetShared.class, source } ); 
+    }
+    
+    public boolean supersedes( MergeableCommand pending )
+    {
+        return shared.isNewerThan( ((SetShared) pending).shared );
+    }
 
     public void execute( ServiceImpl myService ) throws Exception 
     {
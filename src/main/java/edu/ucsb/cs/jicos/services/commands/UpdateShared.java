@@ -35,7 +35,7 @@ import edu.ucsb.cs.jicos.services.*;
 import edu.ucsb.cs.jicos.foundation.*;
 
 
-public final class UpdateShared implements Command  
+public final class UpdateShared implements MergeableCommand  
 {
     private Shared shared;
     private Service initiator;
@@ -47,6 +47,21 @@ public final class UpdateShared implements Command
     }
     
     public void execute( Proxy proxy ) { proxy.sendCommand( this ); }
+    
+    /* Receivers only keep the newest Shared object of a computation, so only
+     * the newest pending UpdateShared needs to be sent. The UpdateShared
+     * objects of a Mailer all come from its sending TaskServer, whose values
+     * only get newer, so a newer one contains the pending one.
+     */
+    public Object mergeKey() 
+    { 
+        return UpdateShared.class; 
+    }
+    
+    public boolean supersedes( MergeableCommand pending )
+    {
+        return shared.isNewerThan( ((UpdateShared) pending).shared );
+    }
 
      public void execute( ServiceImpl myService ) throws Exception 
     {        
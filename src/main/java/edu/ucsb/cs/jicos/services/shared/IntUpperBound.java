@@ -35,7 +35,7 @@ package edu.ucsb.cs.jicos.services.shared;
 import edu.ucsb.cs.jicos.services.*;
 
 
-public class IntUpperBound extends Shared
+public class IntUpperBound extends LatticeShared
 {
     private Integer shared;
     
@@ -59,4 +59,15 @@ public class IntUpperBound extends Shared
         
         return this.shared.intValue() < ( (Integer) shared.get() ).intValue();
     }
+    
+    /** The join of 2 upper bounds is the smaller one.
+     * @return this if it is smaller than the argument; else the argument.
+     * @param shared The upper bound to be merged with this one.
+     */    
+    public synchronized LatticeShared join( LatticeShared shared )
+    {
+        assert shared != null;
+        
+        return isNewerThan( shared ) ? this : shared;
+    }
 }
@@ -33,7 +33,7 @@ package edu.ucsb.cs.jicos.services.tasks;
 
 import edu.ucsb.cs.jicos.services.*;
 
-public final class AddInteger extends Task
+public final class AddInteger extends Task implements CloneableTask
 {	
     /** This method's returned value is the Integer whose intValue is the sum
      * of the intValues of its Integer inputs.
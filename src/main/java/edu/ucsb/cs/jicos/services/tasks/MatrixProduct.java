@@ -30,11 +30,12 @@
  */
 package edu.ucsb.cs.jicos.services.tasks;
 
+import edu.ucsb.cs.jicos.services.CloneableTask;
 import edu.ucsb.cs.jicos.services.ComputeException;
 import edu.ucsb.cs.jicos.services.Environment;
 import edu.ucsb.cs.jicos.services.Task;
 
-public final class MatrixProduct extends Task {
+public final class MatrixProduct extends Task implements CloneableTask {
     /**
      * This method's returned value is a matrix that is the product of the
      * inputs.
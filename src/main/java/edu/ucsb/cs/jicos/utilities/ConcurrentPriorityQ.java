@@ -0,0 +1,120 @@
+/**
+ * A thread-safe priority queue whose add and poll do not lock. Only remove
+ * waits on the monitor, when all levels are empty.
+ */
+
+package edu.ucsb.cs.jicos.utilities;
+
+import edu.ucsb.cs.jicos.foundation.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public final class ConcurrentPriorityQ implements Q 
+{
+    private List<ConcurrentLinkedQueue<Object>> qq;
+    private AtomicInteger[] sizes;
+    private Class2Int class2Level;
+    
+    // # of threads waiting in remove
+    private final AtomicInteger waiters = new AtomicInteger();
+    
+    public ConcurrentPriorityQ( int levels, Class<?>[][] class2IntArray ) 
+    {
+        qq = new ArrayList<ConcurrentLinkedQueue<Object>>( levels );
+        sizes = new AtomicInteger[ levels ];
+        for ( int i = 0; i < levels; i++ )
+        {
+            qq.add( new ConcurrentLinkedQueue<Object>() );
+            sizes[i] = new AtomicInteger();
+        }
+        class2Level = new Class2Int ( class2IntArray );
+    }
+    
+    public boolean add ( Object object ) //throws Exception
+    {
+        if ( object == null )
+        {
+            throw new IllegalArgumentException("Cannot add null Command.");
+        }
+        int level = class2Level.map ( object );
+        qq.get( level ).add ( object );
+        sizes[ level ].incrementAndGet();
+        if ( waiters.get() > 0 )
+        {
+            synchronized ( this ) { notify(); }
+        }
+        return true;
+    }
+    
+    public boolean isEmpty() 
+    {
+        for ( int i = 0; i < sizes.length; i++ )
+        {
+            if ( sizes[i].get() > 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * return the first object of the highest nonempty level or null, if
+     * all levels are empty.
+     */
+    public Object poll ()
+    {
+        for ( int i = 0; i < sizes.length; i++ )
+        {
+            Object object = qq.get( i ).poll();
+            if ( object != null )
+            {
+                sizes[i].decrementAndGet();
+                return object;
+            }
+        }
+        return null;
+    }
+    
+    public Object remove ()
+    {
+        while ( true )
+        {
+            Object object = poll();
+            if ( object != null )
+            {
+                return object;
+            }
+            synchronized ( this )
+            {
+                // add increments a size before it reads waiters
+                waiters.incrementAndGet();
+                try
+                {
+                    if ( isEmpty() )
+                    {
+                        wait();
+                    }
+                }
+                catch ( InterruptedException ignore ) {}
+                finally
+                {
+                    waiters.decrementAndGet();
+                }
+            }
+        }
+    }
+  
+    public int size ( int level ) 
+    {
+        if ( level < 0 || level > sizes.length - 1 )
+        {
+            throw new IllegalArgumentException(
+                                           "Priority Q has no level " + level );
+        }
+        return sizes[ level ].get(); 
+    }
+}
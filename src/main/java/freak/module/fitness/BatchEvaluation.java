@@ -0,0 +1,25 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.fitness;
+
+import freak.core.population.IndividualList;
+
+/**
+ * Implemented by fitness functions that can evaluate a whole
+ * <code>IndividualList</code> in one call. The values are stored with
+ * <code>Individual.setLatestKnownFitnessValue</code>, so the following calls
+ * of <code>evaluate(Individual, IndividualList)</code> do not evaluate the
+ * genotypes again.
+ */
+public interface BatchEvaluation {
+
+	/**
+	 * Evaluates all individuals of the list whose fitness value is not known yet.
+	 * @param individuals individuals to evaluate
+	 */
+	public void evaluateAll(IndividualList individuals);
+}
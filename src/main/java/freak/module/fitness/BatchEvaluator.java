@@ -0,0 +1,106 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.fitness;
+
+import freak.core.fitness.AbstractStaticSingleObjectiveFitnessFunction;
+import freak.core.population.Genotype;
+import freak.core.population.Individual;
+import freak.core.population.IndividualList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch evaluation for static single objective fitness functions.
+ * Individuals with equal phenotypes share one evaluation and individuals
+ * with a known fitness value are skipped, so every genotype is evaluated
+ * at most once. Larger lists are evaluated in parallel in the common
+ * fork/join pool, hence <code>evaluate(Genotype)</code> of the fitness
+ * function must not change any state.
+ */
+public class BatchEvaluator {
+
+	// below this number of genotypes the calling thread evaluates them itself
+	private static final int PARALLEL_THRESHOLD = 64;
+	// number of genotypes evaluated by one task
+	private static final int LEAF_SIZE = 16;
+
+	private BatchEvaluator() {
+	}
+
+	/**
+	 * Evaluates all individuals of the list whose fitness value is not known yet
+	 * and stores the values in the individuals.
+	 * @param fitness     the fitness function
+	 * @param individuals individuals to evaluate
+	 */
+	public static void evaluateAll(AbstractStaticSingleObjectiveFitnessFunction fitness, IndividualList individuals) {
+		Map<Genotype, List<Individual>> pending = new LinkedHashMap<Genotype, List<Individual>>();
+		Iterator it = individuals.iterator();
+		while (it.hasNext()) {
+			Individual individual = (Individual)it.next();
+			if (individual.getLatestKnownFitnessValue() != null) continue;
+			List<Individual> same = pending.get(individual.getPhenotype());
+			if (same == null) {
+				same = new ArrayList<Individual>(1);
+				pending.put(individual.getPhenotype(), same);
+			}
+			same.add(individual);
+		}
+		if (pending.isEmpty()) return;
+
+		Genotype[] genotypes = pending.keySet().toArray(new Genotype[pending.size()]);
+		double[] values = new double[genotypes.length];
+		if (genotypes.length < PARALLEL_THRESHOLD) {
+			for (int i = 0; i < genotypes.length; i++) values[i] = fitness.evaluate(genotypes[i]);
+		} else {
+			ForkJoinPool.commonPool().invoke(new Evaluation(fitness, genotypes, values, 0, genotypes.length));
+		}
+
+		for (int i = 0; i < genotypes.length; i++) {
+			Double[] value = new Double[] {Double.valueOf(values[i])};
+			for (Individual individual : pending.get(genotypes[i])) {
+				individual.setLatestKnownFitnessValue(value);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates a range of genotypes, splitting it until it is small enough.
+	 */
+	private static class Evaluation extends RecursiveAction {
+
+		private final AbstractStaticSingleObjectiveFitnessFunction fitness;
+		private final Genotype[] genotypes;
+		private final double[] values;
+		private final int from;
+		private final int to;
+
+		Evaluation(AbstractStaticSingleObjectiveFitnessFunction fitness, Genotype[] genotypes, double[] values, int from, int to) {
+			this.fitness = fitness;
+			this.genotypes = genotypes;
+			this.values = values;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= LEAF_SIZE) {
+				for (int i = from; i < to; i++) values[i] = fitness.evaluate(genotypes[i]);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Evaluation(fitness, genotypes, values, from, mid),
+						new Evaluation(fitness, genotypes, values, mid, to));
+			}
+		}
+	}
+}
@@ -17,7 +17,10 @@ import freak.core.modulesupport.Configurable;
 import freak.core.modulesupport.inspector.CustomInspectable;
 import freak.core.modulesupport.inspector.Inspector;
 import freak.core.population.Genotype;
+import freak.core.population.IndividualList;
 import freak.core.searchspace.HasDimension;
+import freak.module.fitness.BatchEvaluation;
+import freak.module.fitness.BatchEvaluator;
 import freak.module.searchspace.GeneralString;
 import freak.module.searchspace.GeneralStringGenotype;
 
@@ -42,7 +45,7 @@ import freak.module.searchspace.GeneralStringGenotype;
  */
 
 public class Champ extends AbstractStaticSingleObjectiveFitnessFunction implements Configurable,
-		CustomInspectable {
+		CustomInspectable, BatchEvaluation {
 
 	private int rule[];
 	private int[][] match;
@@ -137,6 +140,10 @@ public class Champ extends AbstractStaticSingleObjectiveFitnessFunction implemen
 		return Math.exp(currentScore[0]);
 	}
 
+	public void evaluateAll(IndividualList individuals) {
+		BatchEvaluator.evaluateAll(this, individuals);
+	}
+
 	public double getOptimalFitnessValue() throws UnsupportedOperationException {
 		throw new UnsupportedOperationException();
 	}
@@ -17,6 +17,9 @@ import freak.core.event.RunEvent;
 import freak.core.event.RunEventListener;
 import freak.core.fitness.AbstractStaticSingleObjectiveFitnessFunction;
 import freak.core.population.Genotype;
+import freak.core.population.IndividualList;
+import freak.module.fitness.BatchEvaluation;
+import freak.module.fitness.BatchEvaluator;
 import freak.module.searchspace.GraphEdgeSelection;
 import freak.module.searchspace.GraphEdgeSelectionGenotype;
 
@@ -24,7 +27,7 @@ import freak.module.searchspace.GraphEdgeSelectionGenotype;
  * @author  Oliver
  */
 public abstract class AbstractMSTFitnessFunction extends AbstractStaticSingleObjectiveFitnessFunction
-implements MSTFitnessFunctionInterface, BatchEventListener, RunEventListener {
+implements MSTFitnessFunctionInterface, BatchEventListener, RunEventListener, BatchEvaluation {
 
 	private GraphEdgeSelectionGenotype optimum = null;
 	
@@ -32,6 +35,10 @@ implements MSTFitnessFunctionInterface, BatchEventListener, RunEventListener {
 		super(schedule);
 	}
 
+	public void evaluateAll(IndividualList individuals) {
+		BatchEvaluator.evaluateAll(this, individuals);
+	}
+
 	public double getOptimalFitnessValue() throws UnsupportedOperationException {
 		GraphEdgeSelection.Graph graph = ((GraphEdgeSelection)schedule.getPhenotypeSearchSpace()).getGraph();
 		if (graph != null) return (-((GraphEdgeSelection)schedule.getPhenotypeSearchSpace()).getGraph().getMSTWeight());
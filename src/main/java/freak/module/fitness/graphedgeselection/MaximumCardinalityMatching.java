@@ -0,0 +1,303 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.fitness.graphedgeselection;
+
+import java.util.Arrays;
+
+/**
+ * Computes a maximum cardinality matching of a sparse undirected graph given
+ * by adjacency arrays: the neighbours of node v are
+ * <code>neighbours[start[v]]</code> to <code>neighbours[start[v + 1] - 1]</code>.
+ * <p>
+ * The matching starts greedily. Bipartite graphs are then completed by
+ * Hopcroft-Karp in O(m sqrt(n)) time, all other graphs by Edmonds' blossom
+ * algorithm, which searches one alternating tree per free node. A node
+ * without augmenting path stays without one, so every node is searched at
+ * most once, and a search only resets the nodes it has reached.
+ */
+public class MaximumCardinalityMatching {
+
+	private final int n;
+	private final int[] start;
+	private final int[] neighbours;
+	// matched node of every node or -1
+	private final int[] mate;
+
+	private MaximumCardinalityMatching(int n, int[] start, int[] neighbours) {
+		this.n = n;
+		this.start = start;
+		this.neighbours = neighbours;
+		mate = new int[n];
+		Arrays.fill(mate, -1);
+	}
+
+	/**
+	 * Returns a maximum matching as array of the matched node of every node,
+	 * -1 for unmatched nodes. Loops are ignored.
+	 */
+	public static int[] match(int n, int[] start, int[] neighbours) {
+		MaximumCardinalityMatching matching = new MaximumCardinalityMatching(n, start, neighbours);
+		matching.matchGreedily();
+		int[] side = matching.bipartition();
+		if (side != null) {
+			matching.hopcroftKarp(side);
+		} else {
+			matching.edmonds();
+		}
+		return matching.mate;
+	}
+
+	private void matchGreedily() {
+		for (int v = 0; v < n; v++) {
+			if (mate[v] != -1) continue;
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				int w = neighbours[i];
+				if (w != v && mate[w] == -1) {
+					mate[v] = w;
+					mate[w] = v;
+					break;
+				}
+			}
+		}
+	}
+
+	// colours the nodes with 0 and 1, null if the graph is not bipartite
+	private int[] bipartition() {
+		int[] side = new int[n];
+		Arrays.fill(side, -1);
+		int[] queue = new int[n];
+		for (int s = 0; s < n; s++) {
+			if (side[s] != -1) continue;
+			side[s] = 0;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = s;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int i = start[v]; i < start[v + 1]; i++) {
+					int w = neighbours[i];
+					if (w == v) continue;
+					if (side[w] == -1) {
+						side[w] = 1 - side[v];
+						queue[tail++] = w;
+					} else if (side[w] == side[v]) {
+						return null;
+					}
+				}
+			}
+		}
+		return side;
+	}
+
+	// ------------------- Hopcroft-Karp ---------------------
+
+	private void hopcroftKarp(int[] side) {
+		int[] dist = new int[n];
+		int[] queue = new int[n];
+		int[] next = new int[n];
+		int[] stack = new int[n];
+		while (true) {
+			// layers of alternating paths from the free nodes of side 0
+			int head = 0;
+			int tail = 0;
+			for (int v = 0; v < n; v++) {
+				if (side[v] == 0 && mate[v] == -1) {
+					dist[v] = 0;
+					queue[tail++] = v;
+				} else {
+					dist[v] = -1;
+				}
+			}
+			boolean found = false;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int i = start[v]; i < start[v + 1]; i++) {
+					int w = neighbours[i];
+					if (w == v) continue;
+					int u = mate[w];
+					if (u == -1) {
+						found = true;
+					} else if (dist[u] == -1) {
+						dist[u] = dist[v] + 1;
+						queue[tail++] = u;
+					}
+				}
+			}
+			if (!found) return;
+
+			// vertex disjoint shortest augmenting paths by depth first search
+			for (int v = 0; v < n; v++) next[v] = start[v];
+			for (int s = 0; s < n; s++) {
+				if (side[s] != 0 || mate[s] != -1 || dist[s] != 0) continue;
+				int top = 0;
+				stack[top++] = s;
+				while (top > 0) {
+					int v = stack[top - 1];
+					if (next[v] == start[v + 1]) {
+						// dead end, never visit v again in this phase
+						dist[v] = -1;
+						top--;
+						continue;
+					}
+					int w = neighbours[next[v]++];
+					if (w == v) continue;
+					int u = mate[w];
+					if (u == -1) {
+						// augment along the stack
+						for (int k = top - 1; k >= 0; k--) {
+							int x = stack[k];
+							int y = mate[x];
+							mate[x] = w;
+							mate[w] = x;
+							w = y;
+						}
+						for (int k = 0; k < top; k++) dist[stack[k]] = -1;
+						top = 0;
+					} else if (dist[u] == dist[v] + 1) {
+						stack[top++] = u;
+					}
+				}
+			}
+		}
+	}
+
+	// ------------------- Edmonds ---------------------
+
+	// union find over the nodes, the representative of a blossom is its base
+	private int[] blossom;
+	// tree edges, for outer nodes in blossoms also the links around the blossom
+	private int[] parent;
+	private boolean[] outer;
+	private boolean[] onPath;
+	// nodes reached by the current search, their state is reset afterwards
+	private int[] reached;
+	private int reachedCount;
+	private int[] queue;
+	private int tail;
+
+	private void edmonds() {
+		blossom = new int[n];
+		parent = new int[n];
+		outer = new boolean[n];
+		onPath = new boolean[n];
+		reached = new int[n];
+		queue = new int[n];
+		for (int v = 0; v < n; v++) {
+			blossom[v] = v;
+			parent[v] = -1;
+		}
+		for (int root = 0; root < n; root++) {
+			if (mate[root] != -1) continue;
+			int end = search(root);
+			while (end != -1) {
+				// augment along the path from end to the root
+				int v = parent[end];
+				int w = mate[v];
+				mate[end] = v;
+				mate[v] = end;
+				end = w;
+			}
+			for (int i = 0; i < reachedCount; i++) {
+				int v = reached[i];
+				blossom[v] = v;
+				parent[v] = -1;
+				outer[v] = false;
+			}
+		}
+	}
+
+	private int base(int v) {
+		int b = v;
+		while (blossom[b] != b) b = blossom[b];
+		while (blossom[v] != b) {
+			int next = blossom[v];
+			blossom[v] = b;
+			v = next;
+		}
+		return b;
+	}
+
+	private void reach(int v) {
+		if (!outer[v] && parent[v] == -1) reached[reachedCount++] = v;
+	}
+
+	private void push(int v) {
+		reach(v);
+		outer[v] = true;
+		queue[tail++] = v;
+	}
+
+	// grows an alternating tree from root, returns the free node of an augmenting path or -1
+	private int search(int root) {
+		reachedCount = 0;
+		int head = 0;
+		tail = 0;
+		push(root);
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				int w = neighbours[i];
+				if (mate[v] == w || base(v) == base(w)) continue;
+				if (w == root || (mate[w] != -1 && parent[mate[w]] != -1)) {
+					// w is an outer node of the tree, the edge closes a blossom
+					int b = commonBase(v, w);
+					contract(v, b, w);
+					contract(w, b, v);
+				} else if (parent[w] == -1) {
+					reach(w);
+					parent[w] = v;
+					if (mate[w] == -1) return w;
+					push(mate[w]);
+				}
+			}
+		}
+		return -1;
+	}
+
+	// the base of the blossom closed by the edge {v, w}
+	private int commonBase(int v, int w) {
+		int x = v;
+		while (true) {
+			x = base(x);
+			onPath[x] = true;
+			if (mate[x] == -1) break;
+			x = parent[mate[x]];
+		}
+		int y = w;
+		while (true) {
+			y = base(y);
+			if (onPath[y]) break;
+			y = parent[mate[y]];
+		}
+		// clear the marks
+		x = v;
+		while (true) {
+			x = base(x);
+			onPath[x] = false;
+			if (mate[x] == -1) break;
+			x = parent[mate[x]];
+		}
+		return y;
+	}
+
+	/*
+	 * Walks from the outer node v down to the base b, links the outer nodes
+	 * around the blossom and merges the blossoms on the way into the one of b.
+	 * The inner nodes on the way become outer.
+	 */
+	private void contract(int v, int b, int child) {
+		while (base(v) != b) {
+			int w = mate[v];
+			parent[v] = child;
+			child = w;
+			blossom[base(v)] = b;
+			blossom[base(w)] = b;
+			if (!outer[w]) push(w);
+			v = parent[w];
+		}
+	}
+}
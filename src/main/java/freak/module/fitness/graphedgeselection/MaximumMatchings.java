@@ -10,14 +10,13 @@
 
 package freak.module.fitness.graphedgeselection;
 
-import edu.ucsb.cs.jicos.applications.utilities.graph.WeightedMatch;
 import freak.core.control.*;
 import freak.core.event.BatchEvent;
 import freak.core.event.BatchEventListener;
-import freak.core.event.RunEvent;
-import freak.core.event.RunEventListener;
 import freak.core.fitness.*;
 import freak.core.population.*;
+import freak.module.fitness.BatchEvaluation;
+import freak.module.fitness.BatchEvaluator;
 import freak.module.searchspace.GraphEdgeSelection;
 import freak.module.searchspace.GraphEdgeSelectionGenotype;
 
@@ -25,17 +24,18 @@ import freak.module.searchspace.GraphEdgeSelectionGenotype;
  * @author  Michael, Christian
  */
 				      
-public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFunction implements BatchEventListener, RunEventListener {
+public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFunction implements BatchEventListener, BatchEvaluation {
 	
 	private GraphEdgeSelectionGenotype optimum;
+	// the graph maxMatchingCache belongs to, a new graph is a new object
+	private transient GraphEdgeSelection.Graph matchedGraph;
+	// the matched node of every node or -1
 	int[] maxMatchingCache;
-	boolean firstTime;
 	int number;
 	int lowerBound = 0;
 	
 	public MaximumMatchings(Schedule schedule) {
 		super(schedule);
-		firstTime = true;
 		number = 0;
 	}
 	
@@ -73,8 +73,7 @@ public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFuncti
 				penalty += (count*(count-1))/2;
 		}
 
-		if (lowerBound > -penalty)
-			lowerBound = -penalty;
+		updateLowerBound(-penalty);
 		
 		if (penalty > 0)
 			return -penalty;
@@ -82,38 +81,48 @@ public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFuncti
 		return edgeCount;
 	}
 	
-	public double getOptimalFitnessValue() throws UnsupportedOperationException {
-		//throw new UnsupportedOperationException();
-
-		if (firstTime == true) {		
-			GraphEdgeSelection.Graph graph = ((GraphEdgeSelection)(schedule.getPhenotypeSearchSpace())).getGraph();
+	// evaluate may be called from several threads by evaluateAll
+	private synchronized void updateLowerBound(int value) {
+		if (lowerBound > value)
+			lowerBound = value;
+	}
+	
+	public void evaluateAll(IndividualList individuals) {
+		BatchEvaluator.evaluateAll(this, individuals);
+	}
+	
+	public synchronized double getOptimalFitnessValue() throws UnsupportedOperationException {
+		GraphEdgeSelection.Graph graph = ((GraphEdgeSelection)(schedule.getPhenotypeSearchSpace())).getGraph();
 
-			// -- if we don't have a graph yet, just return anything. Otherwise
-			// -- the OptimumReached stopping criterium won't be available.
-			if (graph == null) return 0;
+		// -- if we don't have a graph yet, just return anything. Otherwise
+		// -- the OptimumReached stopping criterium won't be available.
+		if (graph == null) return 0;
 
+		// -- the matching is kept as long as the graph, e.g. during a batch
+		if (graph != matchedGraph) {
 			int nodes = graph.getNumberOfNodes();
 
-			// convert graph into cost-matrix
-			int costs[][] = new int [nodes][nodes];
-			for (int i=0; i<nodes; i++) {
-				costs[i][i] = 0;
-				for (int j=i+1; j<nodes; j++) {
-					int edgeNr = graph.findEdgeSelectionIndexForEdge(i,j);
-					if (edgeNr != -1) costs[i][j] = 1; else costs[i][j] = 0;
-					costs[j][i] = costs[i][j];
+			// adjacency arrays of the graph
+			int[] start = new int[nodes + 1];
+			GraphEdgeSelection.Graph.Edge[][] incident = new GraphEdgeSelection.Graph.Edge[nodes][];
+			for (int i = 0; i < nodes; i++) {
+				incident[i] = graph.getIncidentEdgesForNode(i);
+				start[i + 1] = start[i] + incident[i].length;
+			}
+			int[] neighbours = new int[start[nodes]];
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < incident[i].length; j++) {
+					neighbours[start[i] + j] = incident[i][j].getEndNode();
 				}
 			}
 
-			// -- cache the matching as returned by WeightMatch
-			maxMatchingCache = new WeightedMatch(costs).weightedMatch(false);
+			maxMatchingCache = MaximumCardinalityMatching.match(nodes, start, neighbours);
 
 			// calculate the optimal number of matching-edges
 			number = 0;
-			for (int i = 1; i < maxMatchingCache.length - 1; i++)
-				if (maxMatchingCache[i] != 0) number++;
-			number = (int)(number/2);
-			firstTime = false;
+			for (int i = 0; i < nodes; i++)
+				if (maxMatchingCache[i] > i) number++;
+			matchedGraph = graph;
 		}
 		return number;
 	}
@@ -132,23 +141,19 @@ public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFuncti
 	}
 	
 	public Genotype getPhenotypeOptimum() throws UnsupportedOperationException {
-		if (optimum == null) {
-			GraphEdgeSelection.Graph graph = ((GraphEdgeSelection)schedule.getPhenotypeSearchSpace()).getGraph();
-			if (graph != null) {
-				getOptimalFitnessValue();
-				if (!firstTime) {
-					optimum = new GraphEdgeSelectionGenotype(graph);
-					boolean[] edgeSelection = optimum.getEdgeSelection();
-					for (int i=1; i < maxMatchingCache.length - 1; i++) {
-						int j = maxMatchingCache[i];
-						if (j != 0) {
-							int edgeIndex = graph.findEdgeSelectionIndexForEdge(i-1, j-1);
-							edgeSelection[edgeIndex] = true;
-						}
-					}
-					optimum.setEdgeSelection(edgeSelection);
+		GraphEdgeSelection.Graph graph = ((GraphEdgeSelection)schedule.getPhenotypeSearchSpace()).getGraph();
+		if (graph != null && (optimum == null || optimum.getGraph() != graph)) {
+			getOptimalFitnessValue();
+			optimum = new GraphEdgeSelectionGenotype(graph);
+			boolean[] edgeSelection = optimum.getEdgeSelection();
+			for (int i = 0; i < maxMatchingCache.length; i++) {
+				int j = maxMatchingCache[i];
+				if (j > i) {
+					int edgeIndex = graph.findEdgeSelectionIndexForEdge(i, j);
+					edgeSelection[edgeIndex] = true;
 				}
 			}
+			optimum.setEdgeSelection(edgeSelection);
 		}
 		return optimum;
 	}
@@ -162,20 +167,11 @@ public class MaximumMatchings extends AbstractStaticSingleObjectiveFitnessFuncti
 	}
 
 	public void batchStarted(BatchEvent evt) {
-		// -- reset to firstTime
-		firstTime = true;
 		lowerBound = 0;
 	}
 
-	public void runStarted(RunEvent evt) {
-		// -- reset to firstTime
-		firstTime = true;
-		optimum = null;
-	}
-
 	public void createEvents() {
 		schedule.getEventController().addEvent(this, BatchEvent.class, schedule);
-		schedule.getEventController().addEvent(this, RunEvent.class, schedule);
 	}
 
 }
@@ -0,0 +1,111 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.mapper.graphedgeselection;
+
+import java.util.Arrays;
+
+/**
+ * Converts between Prufer numbers and the edges of labelled trees in linear
+ * time. A tree with n nodes 0 to n - 1 is given by its n - 1 edges, edge i
+ * joins the nodes <code>ends[2 * i]</code> and <code>ends[2 * i + 1]</code>.
+ * <p>
+ * Both directions remove the leaves in ascending order. A pointer to the
+ * lowest leaf never removed only moves forward; a node that becomes a leaf
+ * below the pointer is the lowest leaf at once and is removed next.
+ */
+class PruferCode {
+
+	private PruferCode() {
+	}
+
+	/**
+	 * Returns the edges of the tree with <code>pruferNr.length + 2</code>
+	 * nodes whose Prufer number is <code>pruferNr</code>.
+	 */
+	static int[] decode(int[] pruferNr) {
+		// -- the degree of each node in the tree is one more than its occurrences in the prufer number
+		int n = pruferNr.length + 2;
+		int[] degree = new int[n];
+		Arrays.fill(degree, 1);
+		for (int i = 0; i < pruferNr.length; i++) degree[pruferNr[i]]++;
+
+		int[] ends = new int[2 * (n - 1)];
+		int pointer = 0;
+		while (degree[pointer] != 1) pointer++;
+		int leaf = pointer;
+		for (int i = 0; i < pruferNr.length; i++) {
+			int v = pruferNr[i];
+			ends[2 * i] = v;
+			ends[2 * i + 1] = leaf;
+			if (--degree[v] == 1 && v < pointer) {
+				leaf = v;
+			} else {
+				pointer++;
+				while (degree[pointer] != 1) pointer++;
+				leaf = pointer;
+			}
+		}
+		// -- last edge, the remaining nodes are leaf and the highest node
+		ends[2 * (n - 2)] = leaf;
+		ends[2 * (n - 2) + 1] = n - 1;
+		return ends;
+	}
+
+	/**
+	 * Returns the Prufer number of the tree with <code>n</code> nodes and
+	 * the given edges.
+	 */
+	static int[] encode(int n, int[] ends) {
+		// -- build the adjacency lists of the tree in CSR form and the degrees
+		int[] degree = new int[n];
+		for (int i = 0; i < ends.length; i++) degree[ends[i]]++;
+		int[] first = new int[n + 1];
+		for (int i = 0; i < n; i++) first[i + 1] = first[i] + degree[i];
+		int[] neighbours = new int[first[n]];
+		int[] fill = new int[n];
+		for (int i = 0; i < ends.length; i += 2) {
+			int v = ends[i];
+			int w = ends[i + 1];
+			neighbours[first[v] + fill[v]++] = w;
+			neighbours[first[w] + fill[w]++] = v;
+		}
+
+		// -- root the tree at the highest node, the parent of a leaf is its only remaining neighbour
+		int[] parent = new int[n];
+		int[] stack = new int[n];
+		int top = 0;
+		parent[n - 1] = -1;
+		stack[top++] = n - 1;
+		while (top > 0) {
+			int v = stack[--top];
+			for (int k = first[v]; k < first[v + 1]; k++) {
+				int w = neighbours[k];
+				if (w != parent[v]) {
+					parent[w] = v;
+					stack[top++] = w;
+				}
+			}
+		}
+
+		int[] pruferNr = new int[n - 2];
+		int pointer = 0;
+		while (degree[pointer] != 1) pointer++;
+		int leaf = pointer;
+		for (int i = 0; i < pruferNr.length; i++) {
+			int v = parent[leaf];
+			pruferNr[i] = v;
+			if (--degree[v] == 1 && v < pointer) {
+				leaf = v;
+			} else {
+				pointer++;
+				while (degree[pointer] != 1) pointer++;
+				leaf = pointer;
+			}
+		}
+		return pruferNr;
+	}
+}
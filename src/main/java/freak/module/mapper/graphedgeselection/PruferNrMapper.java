@@ -20,8 +20,6 @@ import freak.module.searchspace.GeneralStringGenotype;
 import freak.module.searchspace.GraphEdgeSelection;
 import freak.module.searchspace.GraphEdgeSelectionGenotype;
 
-import java.util.ArrayList;
-
 /**
  * Maps spanning trees (edge selections of search space GraphEdgeSelection) to Pr�fer numbers and vice versa. For this mapper to work correctly the underlying graph of the GraphEdgeSelection search space must be full.) The mapper performs the mapping from GraphEdgeSelection to GeneralString.
  * @author  Oliver
@@ -73,36 +71,11 @@ public class PruferNrMapper extends AbstractMapper {
 		GraphEdgeSelectionGenotype gene = new GraphEdgeSelectionGenotype(graph);
 		boolean[] edgeSelection = gene.getEdgeSelection();
 
-		// -- get prufernr
-		int[] pruferNr = ((GeneralStringGenotype)genotype).getIntArray();
-		
-		// -- the lookupMap contains as many entries as nodes and each entry represents how often the node is "selected"
-		int[] lookupMap = new int[pruferNr.length + 2];
-		for (int i = 0; i < pruferNr.length; i++) lookupMap[pruferNr[i]]++;
-		
-		int startAt = 0;
-		
-		// -- now parse the prufer number
-		for (int i = 0; i < pruferNr.length; i++) {
-			// -- we search the first node that doesn't occur in the lookupMap
-			int j = startAt;
-			while (j < graph.getNumberOfNodes() && lookupMap[j] != 0) j++;
-			// -- the next number of the prufer number is removed here
-			lookupMap[pruferNr[i]]--;
-			// -- and the found node is added
-			lookupMap[j]++;
-			// -- adjust index to start next scan
-			if (lookupMap[pruferNr[i]] == 0 && pruferNr[i] < j) startAt = pruferNr[i];
-			else startAt = j+1;
-			// -- select edge
-			edgeSelection[graph.findEdgeSelectionIndexForEdge(pruferNr[i], j)] = true;
+		// -- get prufernr and select the edges of its tree
+		int[] ends = PruferCode.decode(((GeneralStringGenotype)genotype).getIntArray());
+		for (int i = 0; i < ends.length; i += 2) {
+			edgeSelection[graph.findEdgeSelectionIndexForEdge(ends[i], ends[i + 1])] = true;
 		}
-		// -- add last edge
-		int node1 = startAt;
-		while (node1 < graph.getNumberOfNodes() && lookupMap[node1] != 0) node1++;
-		int node2 = node1 + 1;
-		while (node2 < graph.getNumberOfNodes() && lookupMap[node2] != 0) node2++;
-		edgeSelection[graph.findEdgeSelectionIndexForEdge(node1, node2)] = true;
 
 		gene.setEdgeSelection(edgeSelection);
 		
@@ -115,40 +88,25 @@ public class PruferNrMapper extends AbstractMapper {
 		GraphEdgeSelectionGenotype originalGraphGenotype = (GraphEdgeSelectionGenotype)phenotype;
 		GraphEdgeSelection.Graph graph = originalGraphGenotype.getGraph();
 
-		// -- create new phenotype on which we can work
-		GraphEdgeSelectionGenotype graphGenotype = new GraphEdgeSelectionGenotype(graph);
 		boolean[] edgeSelection = originalGraphGenotype.getEdgeSelection();
-		boolean[] workEdgeSelection = new boolean[edgeSelection.length];
-		for (int i = 0; i < edgeSelection.length; i++) workEdgeSelection[i] = edgeSelection[i];
-		graphGenotype.setEdgeSelection(workEdgeSelection);
-
-		// -- the resulting Pr�fer number
-		int[] pnum = new int[graph.getNumberOfNodes() - 2];
+		int n = graph.getNumberOfNodes();
 
-		// -- build incidenceTable
-		int[] incidenceTable = new int[graph.getNumberOfNodes()];
-		for (int i = 0; i < graph.getNumberOfNodes(); i++)
-			incidenceTable[i] = graph.getNumberOfSelectedIncidentEdgesForNode(i, graphGenotype);
-		
-		int startAt = 0;
-
-		for (int i = 0; i < pnum.length; i++) {
-			// -- determine lowest leaf
-			int j = startAt;
-			while (j < graph.getNumberOfNodes() && incidenceTable[j] != 1) j++;
-			
-			// -- now j is the number of the lowest leaf and edges contains the edge
-			ArrayList edges = graph.getSelectedIncidentEdgesForNode(j, graphGenotype);
-			GraphEdgeSelection.Graph.Edge edge = (GraphEdgeSelection.Graph.Edge)edges.get(0);
-			pnum[i] = edge.getEndNode();
-			
-			// -- remove the edge from the genotype
-			workEdgeSelection[edge.getIndexInGenotypeArray()] = false;
-			
-			incidenceTable[edge.getStartNode()]--;
-			incidenceTable[edge.getEndNode()]--;
+		// -- the end nodes of the selected edges
+		int count = 0;
+		for (int i = 0; i < edgeSelection.length; i++) {
+			if (edgeSelection[i]) count += 2;
 		}
-		
+		int[] ends = new int[count];
+		count = 0;
+		for (int i = 0; i < edgeSelection.length; i++) {
+			if (edgeSelection[i]) {
+				GraphEdgeSelection.Graph.Edge edge = graph.edgeForSpeedupIndex(i);
+				ends[count++] = edge.getStartNode();
+				ends[count++] = edge.getEndNode();
+			}
+		}
+		int[] pnum = PruferCode.encode(n, ends);
+
 		// -- create new Genotype and return it
 		GeneralStringGenotype gene = new GeneralStringGenotype(pnum, graph.getNumberOfNodes());
 		return gene;
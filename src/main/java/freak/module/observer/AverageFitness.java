@@ -15,6 +15,7 @@ import freak.core.fitness.SingleObjectiveFitnessFunction;
 import freak.core.modulesupport.*;
 import freak.core.observer.*;
 import freak.core.population.*;
+import freak.module.fitness.BatchEvaluation;
 
 /**
  * Computes the average fitness value within the individuals.
@@ -52,6 +53,7 @@ public class AverageFitness extends AbstractObserver implements IndividualListEv
 		IndividualList individualList = evt.getIndividualList();
 		Individual[] individuals = individualList.toArray();
 		SingleObjectiveFitnessFunction fitness = (SingleObjectiveFitnessFunction)getSchedule().getFitnessFunction();
+		if (fitness instanceof BatchEvaluation) ((BatchEvaluation)fitness).evaluateAll(individualList);
 		double sum = 0;
 		for (int i = 0; i < individuals.length; i++) {
 			sum = sum + fitness.evaluate(individuals[i], individualList);
@@ -15,6 +15,7 @@ import freak.core.fitness.SingleObjectiveFitnessFunction;
 import freak.core.modulesupport.*;
 import freak.core.observer.*;
 import freak.core.population.*;
+import freak.module.fitness.BatchEvaluation;
 
 /**
  * Computes the fitness values of the individuals observed.
@@ -58,6 +59,9 @@ public class CurrentFitness extends AbstractObserver implements IndividualListEv
 
 		Individual[] individuals = individualList.toArray();
 		double[] fitnessValues = new double[individuals.length];
+		if (getSchedule().getFitnessFunction() instanceof BatchEvaluation) {
+			((BatchEvaluation)getSchedule().getFitnessFunction()).evaluateAll(individualList);
+		}
 		for (int i = 0; i < individuals.length; i++) {
 			fitnessValues[i] = ((SingleObjectiveFitnessFunction)getSchedule().getFitnessFunction()).evaluate(individuals[i], individualList);
 		}
@@ -15,6 +15,7 @@ import freak.core.fitness.SingleObjectiveFitnessFunction;
 import freak.core.modulesupport.*;
 import freak.core.observer.*;
 import freak.core.population.*;
+import freak.module.fitness.BatchEvaluation;
 
 /**
  * Computes the fitness variance within the individuals.
@@ -54,6 +55,9 @@ public class FitnessVariance extends AbstractObserver implements IndividualListE
 		Individual[] indList = individualList.toArray();
 
 		double[] values = new double[indList.length];
+		if (getSchedule().getFitnessFunction() instanceof BatchEvaluation) {
+			((BatchEvaluation)getSchedule().getFitnessFunction()).evaluateAll(individualList);
+		}
 
 		double sum = 0;
 		for(int i = 0; i < indList.length; i++) {
@@ -25,6 +25,7 @@ import freak.module.fitness.booleanfunction.GenericPareto;
 import freak.module.searchspace.BooleanFunction;
 import freak.module.searchspace.BooleanFunctionGenotype;
 import freak.module.searchspace.logictree.Data;
+import freak.module.searchspace.logictree.DataContext;
 import freak.rinterface.model.IndividualSummary;
 import freak.rinterface.model.RReturns;
 
@@ -227,22 +228,30 @@ public class ResultObserver extends AbstractObserver implements RunEventListener
                 }
                 s.append("Individual\n");
             }
+            // the best individuals are scored against the contexts of training and test data,
+            // the current data of the schedule is not changed
+            DataContext data = Data.getContext();
+            String dataLocation = Data.getDataLocation();
             for (int k = 0; k < runs; k++) {
                 if (runs == 2) {
-                    if (k == 1) {
-                        if (Data.csvDisable) {
-                            Data.setRData(Data.trainingData);
-                            RReturns.setAllMCRinTrainingData(new Vector<IndividualSummary>());
-                        } else Data.setDataLocation(((BooleanFunction) schedule.getGenotypeSearchSpace())
-                                .getPropertyInputPath());
-                    } else {
-                        if (Data.csvDisable) {
-                            Data.setRData(Data.testData);
-                            RReturns.setAllMCRinTestData(new Vector<IndividualSummary>());
-                        } else Data.setDataLocation(testDataPath);
-                    }
                     try {
-                        Data.readData();
+                        if (k == 1) {
+                            if (Data.csvDisable) {
+                                data = Data.getContext(Data.trainingData);
+                                RReturns.setAllMCRinTrainingData(new Vector<IndividualSummary>());
+                            } else {
+                                dataLocation = ((BooleanFunction) schedule.getGenotypeSearchSpace()).getPropertyInputPath();
+                                data = Data.getContext(dataLocation);
+                            }
+                        } else {
+                            if (Data.csvDisable) {
+                                data = Data.getContext(Data.testData);
+                                RReturns.setAllMCRinTestData(new Vector<IndividualSummary>());
+                            } else {
+                                dataLocation = testDataPath;
+                                data = Data.getContext(dataLocation);
+                            }
+                        }
                     } catch (IOException e) {
                         // TODO Auto-generated catch block
                         e.printStackTrace();
@@ -268,7 +277,7 @@ public class ResultObserver extends AbstractObserver implements RunEventListener
                     //                  if ((!testDataPath.equals("")) && (individual.getGenotype() instanceof BooleanFunctionGenotype)) {
                     if ((runs == 2) && (individual.getGenotype() instanceof BooleanFunctionGenotype)) {
                         individual.setLatestKnownFitnessValue(null);
-                        ((BooleanFunctionGenotype) individual.getGenotype()).getDnfbaum().update();
+                        ((BooleanFunctionGenotype) individual.getGenotype()).getDnfbaum().update(data);
                         if (Data.csvDisable) {
                             if (k == 1) {
                                 //                              System.out.println("Update was called for training model "+individual.getGenotype());
@@ -277,43 +286,43 @@ public class ResultObserver extends AbstractObserver implements RunEventListener
                                 //                              System.out.println("Update was called for test model "+individual.getGenotype());
                                 s.append("test , ");
                             }
-                        } else s.append(Data.getDataLocation() + " , ");
+                        } else s.append(dataLocation + " , ");
                     }
                     // MCR Berechnungen f�r Aufruf aus R!!!!
                     // TODO Ansteuerbar aus R machen, also Test auf Data.csvDisable durch etwas sinnvolleres ersetzen
                     if ((Data.csvDisable) && (individual.getGenotype() instanceof BooleanFunctionGenotype)) {
                         int length = ((BooleanFunctionGenotype) individual.getGenotype()).evaluateSize();
                         double mcr = 100.0 * (1.0 - ((double) ((BooleanFunctionGenotype) individual.getGenotype())
-                                .evaluate()) / ((double) Data.getNumRows()));
+                                .evaluate()) / ((double) data.getNumRows()));
                         double geccoFit1 = 0.0;
                         double geccoFit2 = 0.0;
                         if (fitness instanceof GenericPareto) {
                             geccoFit1 = ((BooleanFunctionGenotype) individual.getGenotype()).evaluate1s()
-                                    / (double) Data.getNum1Rows() / 3.0
+                                    / (double) data.getNum1Rows() / 3.0
                                     + (((BooleanFunctionGenotype) individual.getGenotype()).evaluate0s())
-                                    / (double) Data.getNum0Rows() / 3.0
+                                    / (double) data.getNum0Rows() / 3.0
                                     + (double) (((GenericPareto) fitness).getPropertySizePruning() - length + 1)
                                     / (double) (((GenericPareto) fitness).getPropertySizePruning()) / 3.0;
                             geccoFit2 = ((BooleanFunctionGenotype) individual.getGenotype()).evaluate1s()
-                                    / (double) Data.getNum1Rows()
+                                    / (double) data.getNum1Rows()
                                     + (((BooleanFunctionGenotype) individual.getGenotype()).evaluate0s())
-                                    / (double) Data.getNum0Rows()
+                                    / (double) data.getNum0Rows()
                                     - (length)
-                                    / ((double) ((GenericPareto) fitness).getPropertySizePruning() * (double) Data
+                                    / ((double) ((GenericPareto) fitness).getPropertySizePruning() * (double) data
                                             .getNumRows());
                         }
                         if (k == 0) {
                             RReturns.getAllMCRinTestData().add(
                                     new IndividualSummary(individual.getDateOfBirth(), length, mcr,
                                             ((BooleanFunctionGenotype) individual.getGenotype())
-                                                    .getCharacteristicBitSet(), Data.getResultBitSet(), Data
+                                                    .getCharacteristicBitSet(), data.getResultBitSet(), data
                                                     .getNumRows(), geccoFit1, geccoFit2));
                             if (mcr < RReturns.getBestMCRinTestData()) RReturns.setBestMCRinTestData(mcr);
                         } else {
                             RReturns.getAllMCRinTrainingData().add(
                                     new IndividualSummary(individual.getDateOfBirth(), length, mcr,
                                             ((BooleanFunctionGenotype) individual.getGenotype())
-                                                    .getCharacteristicBitSet(), Data.getResultBitSet(), Data
+                                                    .getCharacteristicBitSet(), data.getResultBitSet(), data
                                                     .getNumRows(), geccoFit1, geccoFit2));
                         }
                         s.append(mcr + " , ");
@@ -15,6 +15,7 @@ import freak.core.graph.*;
 import freak.core.modulesupport.*;
 import freak.core.population.*;
 import freak.module.searchspace.PermutationGenotype;
+import freak.module.searchspace.Tour;
 
 import java.util.Iterator;
 
@@ -59,13 +60,6 @@ public class InverOver extends Recombination implements Configurable {
 		return "Probability to create new connections.";
 	}
 
-	private int findIndex(int[] tour, int city) {
-		int i;
-		for (i = 0; tour[i] != city; i++) {
-		}
-		return i;
-	}
-
 	/**
 	 * This method iterates the individual list and applies the Inver-over
 	 * Operator on every individual
@@ -76,68 +70,62 @@ public class InverOver extends Recombination implements Configurable {
 		IndividualList population = input[0];
 		Iterator it = population.iterator();
 		int city, nextCity, indexOfCity, indexOfNextCity, indexNCity, indexPCity;
-		int[] tour, tour2;
+		Tour tour;
 		Individual parent, child;
 		boolean exitloop;
 		int input0size = input[0].size();
 		IndividualList[] output = new IndividualList[1];
 		output[0] = new Population(schedule, input0size);
+		// tours of the individuals in the population, built when first selected
+		Tour[] tours = new Tour[input0size];
 
 		// for each individual of the population/individuallist
 		while (it.hasNext()) {
 			parent = (Individual)it.next();
-			tour = ((PermutationGenotype)parent.getGenotype()).getIntArray();
+			tour = new Tour(((PermutationGenotype)parent.getGenotype()).getIntArray());
 
 			//select randomly a city from "tour"
-			indexOfCity = re.choose(0, tour.length - 1);
-			city = tour[indexOfCity];
+			indexOfCity = re.choose(0, tour.size() - 1);
+			city = tour.get(indexOfCity);
 			exitloop = false;
 			do {
 				if (re.raw() <= p) {
 					//select the nextcity from the remaining cities in "tour"
-					indexOfNextCity = re.choose(0, tour.length - 2); //0..n-2
+					indexOfNextCity = re.choose(0, tour.size() - 2); //0..n-2
 					if (indexOfCity == indexOfNextCity)
-						indexOfNextCity = tour.length - 1;
-					nextCity = tour[indexOfNextCity];
+						indexOfNextCity = tour.size() - 1;
+					nextCity = tour.get(indexOfNextCity);
 				} else {
 
 					//select randomly an individual from Population
-					tour2 = ((PermutationGenotype)population.getIndividual(re.choose(0, input0size - 1)).getGenotype()).getIntArray();
+					int other = re.choose(0, input0size - 1);
+					if (tours[other] == null) {
+						tours[other] = new Tour(((PermutationGenotype)population.getIndividual(other).getGenotype()).getIntArray());
+					}
 
 					//assign to "nextCity" the next city to the "city" in the selected individual
-					nextCity = tour2[(findIndex(tour2, city) + 1) % tour2.length];
+					nextCity = tours[other].next(city);
 					// is unknown
 					indexOfNextCity = -1;
 				}
 
 				//if the next or previous city of "city" in "tour" is "nextCity"
-				indexNCity = (indexOfCity + 1) % tour.length;
-				indexPCity = (indexOfCity == 0) ? tour.length - 1 : indexOfCity - 1;
-				if (tour[indexNCity] == nextCity || tour[indexPCity] == nextCity) {
+				indexNCity = (indexOfCity + 1) % tour.size();
+				indexPCity = (indexOfCity == 0) ? tour.size() - 1 : indexOfCity - 1;
+				if (tour.get(indexNCity) == nextCity || tour.get(indexPCity) == nextCity) {
 					exitloop = true;
 				} else {
-					tour = inverse(tour, indexNCity, (indexOfNextCity == -1) ? findIndex(tour, nextCity) : indexOfNextCity);
+					// inverse the section from the next city of "city" to "nextCity"
+					tour.reverse(indexNCity, (indexOfNextCity == -1) ? tour.indexOf(nextCity) : indexOfNextCity);
 				}
 			} while (!exitloop);
 
-			child = new Individual(schedule, new PermutationGenotype(tour), new Individual[] { parent });
+			child = new Individual(schedule, new PermutationGenotype(tour.toArray()), new Individual[] { parent });
 			output[0].addIndividual(child);
 		}
 		return output;
 	}
 
-	/**
-	 * Inverse a substring from position start to end
-	 * @return the array with the inverted section
-	 */
-	private int[] inverse(int[] tour, int start, int end) {
-		int[] result = (int[])tour.clone();
-		for (int i = 0;(start + i - 1) % tour.length != end; i++) {
-			result[(start + i) % tour.length] = tour[(end - i < 0) ? end - i + tour.length : end - i];
-		}
-		return result;
-	}
-
 	public String getName() {
 		return "Inver-Over";
 	}
@@ -14,6 +14,7 @@ import freak.core.graph.*;
 import freak.core.population.*;
 import freak.module.operator.crossover.MultiPairwiseCrossover;
 import freak.module.searchspace.PermutationGenotype;
+import freak.module.searchspace.Tour;
 
 /**
  * Two crossing points are chosen at random. The subtour in the middle part of
@@ -48,37 +49,30 @@ public class MaximalPreservativeCrossover extends MultiPairwiseCrossover {
 	}
 
 	/**
-	 * This method transforms a cycle which is given in cyclic notation into
-	 * a function table representation.
-	 * @param cycle a permutation given in cyclic notation
-	 * @return the given permutation given in a function table representation
+	 * Marks a city as visited. <code>skip</code> links each position in the
+	 * first individual to the next position, so that chains of visited cities
+	 * are passed over by <code>firstUnvisited</code>.
 	 */
-	private int[] transformToFunctionTable(int[] cycle) {
-		// This array will contain the function table representation.
-		int[] ft = new int[cycle.length];
-		for (int i = 0; i < cycle.length - 1; i++) {
-			// The array starts with position 0 but cycle is a cycle on the
-			// elements 1,...,n. That's the reason for "-1". ft[i] = j means
-			// that i+1 is mapped to j+1 by the given permutation.			
-			ft[cycle[i] - 1] = cycle[i + 1];
-		}
-		ft[cycle[cycle.length - 1] - 1] = cycle[0];
-		return ft;
+	private void visit(int city, boolean[] visited, int[] skip, Tour tour1) {
+		visited[city - 1] = true;
+		int i = tour1.indexOf(city);
+		skip[i] = (i == skip.length - 1) ? 0 : i + 1;
 	}
 
 	/**
-	 * This method calculates the inverse of the mapping i -> a[i]-1. <br>
-	 * Example: a[0] = 2, a[1] = 3, a[2] = 1 <br>
-	 * Output: b[0] = 2, b[1] = 0, b[2] = 1
-	 * @param perm a permutation
-	 * @return the inverse of perm
+	 * Returns the first position at or after i (cyclically) in the first
+	 * individual whose city hasn't been visited yet. The chains followed are
+	 * shortened to point there directly.
 	 */
-	private int[] calculateInverse(int[] perm) {
-		int[] inv = new int[perm.length];
-		for (int i = 0; i < perm.length; i++) {
-			inv[perm[i] - 1] = i;
+	private int firstUnvisited(int[] skip, int i) {
+		int root = i;
+		while (skip[root] != root) root = skip[root];
+		while (skip[i] != root) {
+			int next = skip[i];
+			skip[i] = root;
+			i = next;
 		}
-		return inv;
+		return root;
 	}
 
 	/**
@@ -89,12 +83,17 @@ public class MaximalPreservativeCrossover extends MultiPairwiseCrossover {
 		int[] gt1 = ((PermutationGenotype)ind1.getGenotype()).getIntArray();
 		int[] gt2 = ((PermutationGenotype)ind2.getGenotype()).getIntArray();
 		int[] newGt = new int[gt1.length];
+		// The successors and positions of the cities in both parents.
+		Tour tour1 = new Tour(gt1);
+		Tour tour2 = new Tour(gt2);
 		// contains the information which city has been visited yet
 		boolean[] visited = new boolean[gt1.length];
+		int[] skip = new int[gt1.length];
 		// the number of cities visited yet
 		int numVis = 0;
 		for (int i = 0; i < gt1.length; i++) {
 			visited[i] = false;
+			skip[i] = i;
 		}
 		// First, two crossing points are chosen at random.
 		int xover1 = re.choose(0, gt1.length - 2);
@@ -103,43 +102,31 @@ public class MaximalPreservativeCrossover extends MultiPairwiseCrossover {
 		// The middle part of the second individual is now taken over.
 		for (int i = 0; i < xover2 - xover1; i++) {
 			newGt[i] = gt2[xover1 + i + 1];
-			visited[gt2[xover1 + i + 1] - 1] = true;
+			visit(gt2[xover1 + i + 1], visited, skip, tour1);
 		}
 		numVis = xover2 - xover1;
-		// Now we calculate a representation of gt1 and gt2 as function tables.
-		int[] ft1 = transformToFunctionTable(gt1);
-		int[] ft2 = transformToFunctionTable(gt2);
-		// We also need the inverse of gt1.
-		int[] inv1 = calculateInverse(gt1);
 		// Now we try to complete the tour by following edges from ind1 or ind2.
 		while (numVis < gt1.length) {
-			int nextCityOnTour1 = ft1[newGt[numVis - 1] - 1];
+			int nextCityOnTour1 = tour1.next(newGt[numVis - 1]);
 			// Can we use the edge from ind1?
 			if (!(visited[nextCityOnTour1 - 1])) {
-				visited[nextCityOnTour1 - 1] = true;
+				visit(nextCityOnTour1, visited, skip, tour1);
 				newGt[numVis] = nextCityOnTour1;
 				numVis++;
 			} else {
-				int nextCityOnTour2 = ft2[newGt[numVis - 1] - 1];
+				int nextCityOnTour2 = tour2.next(newGt[numVis - 1]);
 				// Can we use the edge from ind2?
 				if (!(visited[nextCityOnTour2 - 1])) {
-					visited[nextCityOnTour2 - 1] = true;
+					visit(nextCityOnTour2, visited, skip, tour1);
 					newGt[numVis] = nextCityOnTour2;
 					numVis++;
 				} else {
 					// We cannot use one of the edges from ind1 or ind2.
 					// So we look for the first city in ind1 which hasn't been
 					// visited yet.
-					int i = inv1[newGt[numVis - 1] - 1];
-					while (visited[gt1[i] - 1]) {
-						if (i < gt1.length - 1) {
-							i++;
-						} else {
-							i = 0;
-						}
-					}
-					visited[gt1[i] - 1] = true;
-					newGt[numVis] = gt1[i];
+					int city = tour1.get(firstUnvisited(skip, tour1.indexOf(newGt[numVis - 1])));
+					visit(city, visited, skip, tour1);
+					newGt[numVis] = city;
 					numVis++;
 				}
 			}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.mutation.common;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+import java.util.Arrays;
+
+/**
+ * Draws the positions altered by a standard mutation in one batch. First the
+ * number of positions is drawn from the binomial distribution B(n, p), then
+ * that many distinct positions are chosen uniformly. The work is linear in
+ * the number of positions, not in n.
+ *
+ * The positions are kept in a buffer that is reused for all mutations of
+ * one operator, so a sampler must not be shared between threads.
+ */
+public class FlipSampler {
+
+	// maximal expected value of one inversion step, keeps (1-p)^n far from underflow
+	private static final double MAX_MEAN = 250;
+
+	private int[] positions = new int[16];
+	private int[] spare = new int[16];
+	private int count;
+
+	/**
+	 * Draws the positions to alter in a string of length <code>n</code> where
+	 * each position is altered independently with probability <code>p</code>.
+	 * The positions are available in ascending order by <code>getPosition</code>.
+	 */
+	public void sample(RandomElement re, int n, double p) {
+		if (p > 0.5) {
+			// choose the positions to keep and alter all others
+			int keep = binomial(re, n, 1 - p);
+			choose(re, n, keep);
+			int[] kept = positions;
+			positions = spare.length < n - keep ? new int[n - keep] : spare;
+			spare = kept;
+			count = 0;
+			int next = 0;
+			for (int i = 0; i < n; i++) {
+				if (next < keep && kept[next] == i) next++;
+				else positions[count++] = i;
+			}
+		} else {
+			choose(re, n, binomial(re, n, p));
+		}
+	}
+
+	/**
+	 * Gives the number of positions drawn by the last call of <code>sample</code>.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gives the i-th smallest position drawn by the last call of <code>sample</code>.
+	 */
+	public int getPosition(int i) {
+		return positions[i];
+	}
+
+	// chooses k distinct positions of n in ascending order
+	private void choose(RandomElement re, int n, int k) {
+		if (positions.length < k) positions = new int[Math.max(k, 2 * positions.length)];
+		count = 0;
+		if (k == 0) return;
+		if (k > n / 16) {
+			// selection sampling, linear in n and so in k
+			for (int i = 0; i < n && count < k; i++) {
+				if ((n - i) * re.raw() < k - count) positions[count++] = i;
+			}
+			return;
+		}
+		// few positions, draw them and replace the duplicates
+		while (count < k) {
+			for (int i = count; i < k; i++) positions[i] = re.choose(0, n - 1);
+			Arrays.sort(positions, 0, k);
+			count = 1;
+			for (int i = 1; i < k; i++) {
+				if (positions[i] != positions[count - 1]) positions[count++] = positions[i];
+			}
+		}
+	}
+
+	/**
+	 * Draws a number from the binomial distribution B(n, p).
+	 */
+	public static int binomial(RandomElement re, int n, double p) {
+		if (n <= 0 || p <= 0) return 0;
+		if (p >= 1) return n;
+		if (p > 0.5) return n - binomial(re, n, 1 - p);
+		// B(n, p) is the sum of the parts B(chunk, p)
+		int chunk = (int)Math.min(n, Math.max(1, Math.floor(MAX_MEAN / p)));
+		int result = 0;
+		for (int start = 0; start < n; start += chunk) {
+			result += inversion(re, Math.min(chunk, n - start), p);
+		}
+		return result;
+	}
+
+	// inversion of the distribution function, linear in the drawn number
+	private static int inversion(RandomElement re, int n, double p) {
+		double ratio = p / (1 - p);
+		double prob = Math.exp(n * Math.log1p(-p));
+		double u = re.raw();
+		int k = 0;
+		while (u > prob && k < n) {
+			u -= prob;
+			prob *= ratio * (n - k) / (k + 1);
+			k++;
+		}
+		return k;
+	}
+}
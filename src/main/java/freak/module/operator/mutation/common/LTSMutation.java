@@ -20,20 +20,6 @@ import freak.module.searchspace.BitString;
 import freak.module.searchspace.BitStringGenotype;
 import freak.module.searchspace.PointSet;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
-
-class vglSignedResiduals implements Comparator<ResidualContainer> {
-	public int compare(ResidualContainer arg0, ResidualContainer arg1) {
-		// TODO Auto-generated method stub
-		if (arg0.signedResidual < arg1.signedResidual) return -1;
-		if (arg0.signedResidual > arg1.signedResidual) return 1;
-		return 0;
-		
-	}
-}
-
 public class LTSMutation extends Mutation implements CompatibleWithDifferentSearchSpaces,Configurable{
 
 	AbstractRobustRegressionFitness m_kFitnessFunktion;
@@ -79,17 +65,16 @@ public class LTSMutation extends Mutation implements CompatibleWithDifferentSear
 		if (re.uniform(1.0, 100.0) <= percentMovement){
 			// movement-operator
             // take d points with similar residual
-			// from start index r backwards in the sorted order
-            Arrays.sort(residuals, new vglSignedResiduals());
-            
+			// from rank r backwards in the order of the signed residuals
             if (r < pointDimension)
             	r = pointDimension;
             
+            int[] points = ResidualSelection.select(residuals, r - pointDimension + 1, r);
             for (int i = 0; i < dimension; i++){
             	bs.set(i, false );
             }
             for (int i = 0; i < pointDimension; i++){
-            	bs.set(residuals[r-i].pointIndexInPointSet,true);
+            	bs.set(points[i],true);
             }
             
 		} else {
@@ -0,0 +1,89 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.mutation.common;
+
+import freak.module.fitness.pointset.util.ResidualContainer;
+
+/**
+ * Finds the points whose signed residuals have given ranks without sorting.
+ * The residuals are copied first, so the array of the fitness function is
+ * neither reordered nor read more than once. Two quickselect passes
+ * partition the copy in expected linear time.
+ */
+public class ResidualSelection {
+
+	private ResidualSelection() {
+	}
+
+	/**
+	 * Gives the indices in the point set of the points whose signed residuals
+	 * have the ranks <code>from</code> to <code>to</code> in ascending order,
+	 * counting from 0. Points with equal residuals are ranked arbitrarily.
+	 * The indices are returned in no particular order.
+	 */
+	public static int[] select(ResidualContainer[] residuals, int from, int to) {
+		int n = residuals.length;
+		double[] keys = new double[n];
+		int[] points = new int[n];
+		for (int i = 0; i < n; i++) {
+			ResidualContainer rc = residuals[i];
+			keys[i] = rc.signedResidual;
+			points[i] = rc.pointIndexInPointSet;
+		}
+		return select(keys, points, from, to);
+	}
+
+	/**
+	 * Gives the points whose keys have the ranks <code>from</code> to
+	 * <code>to</code>. Both arrays are reordered.
+	 */
+	static int[] select(double[] keys, int[] points, int from, int to) {
+		int n = keys.length;
+		quickselect(keys, points, 0, n - 1, from);
+		quickselect(keys, points, from + 1, n - 1, to);
+		int[] result = new int[to - from + 1];
+		System.arraycopy(points, from, result, 0, result.length);
+		return result;
+	}
+
+	// moves the element of rank k into position k, smaller ones before, larger ones behind
+	private static void quickselect(double[] keys, int[] points, int left, int right, int k) {
+		while (left < right) {
+			double pivot = median(keys[left], keys[(left + right) >>> 1], keys[right]);
+			// three way partition, so equal residuals do not degrade the selection
+			int lt = left;
+			int gt = right;
+			int i = left;
+			while (i <= gt) {
+				if (keys[i] < pivot) swap(keys, points, lt++, i++);
+				else if (keys[i] > pivot) swap(keys, points, i, gt--);
+				else i++;
+			}
+			if (k < lt) right = lt - 1;
+			else if (k > gt) left = gt + 1;
+			else return;
+		}
+	}
+
+	private static double median(double a, double b, double c) {
+		if (a < b) {
+			if (b < c) return b;
+			return a < c ? c : a;
+		}
+		if (a < c) return a;
+		return b < c ? c : b;
+	}
+
+	private static void swap(double[] keys, int[] points, int i, int j) {
+		double key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		int point = points[i];
+		points[i] = points[j];
+		points[j] = point;
+	}
+}
@@ -49,6 +49,9 @@ public class StandardMutation extends Mutation implements Configurable, Compatib
 	// should the standard mutation probability 1/n be used
 	private boolean standardMutationProb;
 	
+	// reusable buffer for the positions of one mutation
+	private transient FlipSampler sampler;
+	
 	
 	public StandardMutation(OperatorGraph graph) {
 		super(graph);
@@ -201,12 +204,15 @@ public class StandardMutation extends Mutation implements Configurable, Compatib
 	}
 	
 	/**
-	 * Performs a standard mutation.
+	 * Performs a standard mutation. The positions to alter are drawn in one
+	 * batch by a <code>FlipSampler</code>.
 	 */
 	protected Individual doMutation(Individual ind) {
 		int dimension = ((HasDimension)graph.getSchedule().getGenotypeSearchSpace()).getDimension();
-		int startindex = 0;
-		int nextPos = getNextPosition(dimension - 1);
+		RandomElement re = graph.getSchedule().getRandomElement();
+		if (sampler == null) sampler = new FlipSampler();
+		sampler.sample(re, dimension, mutationProb);
+		int flips = sampler.getCount();
 		
 		Genotype gt = ind.getGenotype();
 		
@@ -214,21 +220,16 @@ public class StandardMutation extends Mutation implements Configurable, Compatib
 			
 			BitStringGenotype bs = (BitStringGenotype) ((BitStringGenotype)gt).clone();
 			
-			while (nextPos != -1) {
-				bs.flip(startindex + nextPos);
-				startindex += nextPos + 1;
-				nextPos = getNextPosition(dimension - startindex - 1);
+			for (int i = 0; i < flips; i++) {
+				bs.flip(sampler.getPosition(i));
 			}
 			return new Individual(graph.getSchedule(), bs, new Individual[] {ind});
 		} else {
 			
 			GeneralStringGenotype geno = (GeneralStringGenotype) ((GeneralStringGenotype)gt).clone();
 			
-			RandomElement re = graph.getSchedule().getRandomElement();
-			while (nextPos != -1) {
-				geno.flip(startindex + nextPos, re);
-				startindex += nextPos + 1;
-				nextPos = getNextPosition(dimension - startindex - 1);
+			for (int i = 0; i < flips; i++) {
+				geno.flip(sampler.getPosition(i), re);
 			}
 			return new Individual(graph.getSchedule(), geno, new Individual[] { ind });
 		}
@@ -23,7 +23,10 @@ import freak.core.population.IndividualList;
 import freak.core.population.Population;
 import freak.module.searchspace.BooleanFunctionGenotype;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * This selection operator first checks whether the newly created individuals is
@@ -31,11 +34,26 @@ import java.util.Iterator;
  * latter case the individual is added to the population and all individuals
  * which are dominated by the new individual are removed from the population.
  * 
+ * The population returned last is kept in a <code>ParetoArchive</code> with
+ * the objective vectors of its members, so as long as the next call receives
+ * this population again only the new individual has to be evaluated. If its
+ * members dominate each other, their objective vectors are kept for the
+ * linear comparison instead.
+ * 
  * @author Heiko
  */
 public class DominationSelection extends Selection implements CompatibleWithDifferentSearchSpaces {
 
 //	public static boolean excludeEqual=false;
+
+	// archive of the population returned last
+	private transient ParetoArchive<Individual> archive;
+	// objective vectors of the population returned last if it is no archive
+	private transient IdentityHashMap<Individual, double[]> vectors;
+	// true if the members in vectors are known to dominate each other
+	private transient boolean dominating;
+	private transient MultiObjectiveFitnessFunction archiveFitness;
+
 	public DominationSelection(OperatorGraph graph) {
 		super(graph);
 		
@@ -53,21 +71,108 @@ public class DominationSelection extends Selection implements CompatibleWithDiff
 	}
 
 	public IndividualList[] process(IndividualList[] input) throws GraphException {
-		boolean excludeEqual=true;
 		IndividualList[] result = new IndividualList[1];
 		if (input[1].size() != 1) {
 			throw new GraphException("The number of individuals sent to inport 2 of "+ name + " must be exactly 1 not "+input[1].size()+".");
 		}
 		
 		MultiObjectiveFitnessFunction ff = (MultiObjectiveFitnessFunction)getOperatorGraph().getSchedule().getFitnessFunction();
-		double[] fitness = ff.evaluate(input[1].getIndividual(0),input[0]);
+		Individual offspring = input[1].getIndividual(0);
+		double[] fitness = ff.evaluate(offspring,input[0]);
+		if (!updateArchive(ff, input[0], fitness.length)) {
+			return processLinear(input, fitness);
+		}
+		
+		ArrayList<Individual> removed = new ArrayList<Individual>();
+		if (!archive.add(offspring, fitness, removed)) {
+			result[0] = input[0];
+			return result;
+		}
+		IdentityHashMap<Individual, Individual> dominated = new IdentityHashMap<Individual, Individual>();
+		for (Individual ind : removed) dominated.put(ind, ind);
+		Population pop = new Population(getOperatorGraph().getSchedule());
+		result[0] = pop;
+		pop.addIndividual(offspring);
+		Iterator it = input[0].iterator();
+		while(it.hasNext()) {
+			Individual ind = (Individual)it.next();
+			if (!dominated.containsKey(ind)) {
+				pop.addIndividual(ind);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Makes <code>archive</code> contain exactly the given population. The
+	 * population is only evaluated if it is not the one returned last, and an
+	 * archive is only built if the population may be mutually non-dominated.
+	 * @return false if the population contains dominated or equal individuals,
+	 * <code>vectors</code> then holds the objective vectors of its members
+	 */
+	private boolean updateArchive(MultiObjectiveFitnessFunction ff, IndividualList population, int objectives) {
+		if (archive != null && archiveFitness == ff && archive.getObjectives() == objectives && archive.size() == population.size()) {
+			boolean same = true;
+			Iterator it = population.iterator();
+			while(same && it.hasNext()) {
+				same = archive.contains((Individual)it.next());
+			}
+			if (same) return true;
+		}
+		if (archive != null || vectors == null || archiveFitness != ff || !isPopulation(population)) {
+			archive = null;
+			archiveFitness = ff;
+			vectors = new IdentityHashMap<Individual, double[]>();
+			Iterator it = population.iterator();
+			while(it.hasNext()) {
+				Individual ind = (Individual)it.next();
+				vectors.put(ind, ff.evaluate(ind,population));
+			}
+			dominating = false;
+		}
+		if (dominating) return false;
+		
+		ParetoArchive<Individual> candidate = ParetoArchive.create(objectives);
+		ArrayList<Individual> removed = new ArrayList<Individual>();
+		for (Map.Entry<Individual, double[]> entry : vectors.entrySet()) {
+			if (!candidate.add(entry.getKey(), entry.getValue(), removed) || !removed.isEmpty()) {
+				dominating = true;
+				return false;
+			}
+		}
+		archive = candidate;
+		vectors = null;
+		return true;
+	}
+	
+	/**
+	 * Returns true if the population consists exactly of the individuals in <code>vectors</code>.
+	 */
+	private boolean isPopulation(IndividualList population) {
+		if (vectors.size() != population.size()) return false;
+		Iterator it = population.iterator();
+		while(it.hasNext()) {
+			if (!vectors.containsKey(it.next())) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Compares the new individual with every member of the population. Used if the
+	 * population is no archive, i.e. if its members dominate each other. The
+	 * objective vectors of the members are taken from <code>vectors</code>,
+	 * which is updated to the returned population.
+	 */
+	private IndividualList[] processLinear(IndividualList[] input, double[] fitness) {
+		boolean excludeEqual=true;
+		IndividualList[] result = new IndividualList[1];
 		int[] comp = new int[input[0].size()];
 		
 		Iterator it = input[0].iterator();
 		int i = 0;
 		while(it.hasNext()) {
 			Individual ind = (Individual)it.next();
-			double[] fitness2 = ff.evaluate(ind,input[0]);
+			double[] fitness2 = vectors.get(ind);
 			comp[i] = AbstractMultiObjectiveFitnessFunction.compare(fitness2,fitness);
 			// Special treatment for Equality
 			// The test for equality is not complete but intended to be fast
@@ -87,12 +192,17 @@ public class DominationSelection extends Selection implements CompatibleWithDiff
 		Population pop = new Population(getOperatorGraph().getSchedule());
 		result[0] = pop;
 		pop.addIndividual(input[1].getIndividual(0)); 
+		vectors.put(input[1].getIndividual(0), fitness);
 		it = input[0].iterator();
 		i = 0;
 		while(it.hasNext()) {
 			Individual ind = (Individual)it.next();
 			if (comp[i] == AbstractMultiObjectiveFitnessFunction.UNCOMPARABLE) {
 				pop.addIndividual(ind);		
+			} else {
+				// removing dominated members may make the population an archive
+				vectors.remove(ind);
+				dominating = false;
 			}
 			i++;		
 		}
@@ -0,0 +1,364 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.selection;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * An archive of mutually non-dominated members together with their cached
+ * objective vectors. All objectives are maximized. Members are compared by
+ * identity, in <code>DominationSelection</code> they are individuals.
+ *
+ * For two objectives the members are kept in a list sorted by the first
+ * objective, so dominance queries are binary searches. For more objectives
+ * the members are kept in an ND-tree whose nodes store the ideal and nadir
+ * point of their subtree, so whole subtrees are skipped or decided at once.
+ */
+public abstract class ParetoArchive<T> {
+
+	// members and their objective vectors
+	private final IdentityHashMap<T, double[]> members = new IdentityHashMap<T, double[]>();
+	private final int objectives;
+
+	ParetoArchive(int objectives) {
+		this.objectives = objectives;
+	}
+
+	/**
+	 * Creates an empty archive.
+	 * @param objectives number of objectives
+	 */
+	public static <T> ParetoArchive<T> create(int objectives) {
+		if (objectives == 2) return new TwoObjectives<T>();
+		return new NDTree<T>(objectives);
+	}
+
+	/**
+	 * Returns true if <code>a</code> is at least as good as <code>b</code> in every objective.
+	 */
+	public static boolean weaklyDominates(double[] a, double[] b) {
+		for (int k = 0; k < a.length; k++) {
+			if (a[k] < b[k]) return false;
+		}
+		return true;
+	}
+
+	public int getObjectives() {
+		return objectives;
+	}
+
+	public int size() {
+		return members.size();
+	}
+
+	public boolean contains(T member) {
+		return members.containsKey(member);
+	}
+
+	/**
+	 * Gives the cached objective vector of a member or null.
+	 */
+	public double[] getFitness(T member) {
+		return members.get(member);
+	}
+
+	/**
+	 * Returns true if a member is at least as good as <code>fitness</code> in every objective.
+	 */
+	public boolean isDominated(double[] fitness) {
+		return size() > 0 && dominated(fitness);
+	}
+
+	/**
+	 * Adds a member unless it is weakly dominated by another member. All members
+	 * dominated by the new one are removed from the archive.
+	 * @param member  the new member
+	 * @param fitness its objective vector
+	 * @param removed receives the removed members
+	 * @return false if the new member was rejected
+	 */
+	public boolean add(T member, double[] fitness, List<T> removed) {
+		if (isDominated(fitness)) return false;
+		int old = removed.size();
+		removeDominatedBy(fitness, removed);
+		for (int i = old; i < removed.size(); i++) members.remove(removed.get(i));
+		insert(new Entry<T>(member, fitness));
+		members.put(member, fitness);
+		return true;
+	}
+
+	abstract boolean dominated(double[] fitness);
+
+	abstract void removeDominatedBy(double[] fitness, List<T> removed);
+
+	abstract void insert(Entry<T> entry);
+
+	static final class Entry<T> {
+		final T member;
+		final double[] fitness;
+
+		Entry(T member, double[] fitness) {
+			this.member = member;
+			this.fitness = fitness;
+		}
+	}
+
+	/**
+	 * Members sorted by descending first objective. As they do not dominate each
+	 * other, the second objective is ascending.
+	 */
+	static final class TwoObjectives<T> extends ParetoArchive<T> {
+
+		private final ArrayList<Entry<T>> list = new ArrayList<Entry<T>>();
+
+		TwoObjectives() {
+			super(2);
+		}
+
+		// first position whose first objective is <= f0
+		private int firstNotAbove(double f0) {
+			int low = 0;
+			int high = list.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (list.get(mid).fitness[0] > f0) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+
+		boolean dominated(double[] fitness) {
+			// the last member with f0 >= fitness[0] has the best second objective among them
+			int pos = firstNotAbove(fitness[0]);
+			if (pos < list.size() && list.get(pos).fitness[0] == fitness[0]) pos++;
+			return pos > 0 && list.get(pos - 1).fitness[1] >= fitness[1];
+		}
+
+		void removeDominatedBy(double[] fitness, List<T> removed) {
+			int from = firstNotAbove(fitness[0]);
+			int to = from;
+			while (to < list.size() && list.get(to).fitness[1] <= fitness[1]) {
+				removed.add(list.get(to).member);
+				to++;
+			}
+			list.subList(from, to).clear();
+		}
+
+		void insert(Entry<T> entry) {
+			list.add(firstNotAbove(entry.fitness[0]), entry);
+		}
+	}
+
+	/**
+	 * ND-tree for three or more objectives. The bounds of a node are only
+	 * widened on insertion and recomputed where members were removed.
+	 */
+	static final class NDTree<T> extends ParetoArchive<T> {
+
+		private static final int MAX_LEAF_SIZE = 20;
+
+		private final int branching;
+		private Node root;
+
+		NDTree(int objectives) {
+			super(objectives);
+			branching = objectives + 1;
+		}
+
+		final class Node {
+			final double[] ideal;
+			final double[] nadir;
+			ArrayList<Entry<T>> entries = new ArrayList<Entry<T>>();
+			ArrayList<Node> children;
+
+			Node(double[] fitness) {
+				ideal = fitness.clone();
+				nadir = fitness.clone();
+			}
+
+			void widen(double[] fitness) {
+				for (int k = 0; k < fitness.length; k++) {
+					if (fitness[k] > ideal[k]) ideal[k] = fitness[k];
+					if (fitness[k] < nadir[k]) nadir[k] = fitness[k];
+				}
+			}
+
+			void recomputeBounds() {
+				boolean first = true;
+				if (children == null) {
+					for (Entry<T> e : entries) {
+						reset(e.fitness, e.fitness, first);
+						first = false;
+					}
+				} else {
+					for (Node child : children) {
+						reset(child.ideal, child.nadir, first);
+						first = false;
+					}
+				}
+			}
+
+			private void reset(double[] high, double[] low, boolean first) {
+				for (int k = 0; k < ideal.length; k++) {
+					if (first || high[k] > ideal[k]) ideal[k] = high[k];
+					if (first || low[k] < nadir[k]) nadir[k] = low[k];
+				}
+			}
+
+			boolean isEmpty() {
+				return children == null ? entries.isEmpty() : children.isEmpty();
+			}
+		}
+
+		boolean dominated(double[] fitness) {
+			return dominated(root, fitness);
+		}
+
+		private boolean dominated(Node node, double[] fitness) {
+			if (!weaklyDominates(node.ideal, fitness)) return false;
+			if (weaklyDominates(node.nadir, fitness)) return true;
+			if (node.children == null) {
+				for (Entry<T> e : node.entries) {
+					if (weaklyDominates(e.fitness, fitness)) return true;
+				}
+				return false;
+			}
+			for (Node child : node.children) {
+				if (dominated(child, fitness)) return true;
+			}
+			return false;
+		}
+
+		void removeDominatedBy(double[] fitness, List<T> removed) {
+			if (root == null) return;
+			removeDominatedBy(root, fitness, removed);
+			if (root.isEmpty()) root = null;
+		}
+
+		// returns true if members of the subtree were removed
+		private boolean removeDominatedBy(Node node, double[] fitness, List<T> removed) {
+			if (!weaklyDominates(fitness, node.nadir)) return false;
+			if (weaklyDominates(fitness, node.ideal)) {
+				collect(node, removed);
+				node.entries = new ArrayList<Entry<T>>();
+				node.children = null;
+				return true;
+			}
+			boolean changed = false;
+			if (node.children == null) {
+				for (int i = node.entries.size() - 1; i >= 0; i--) {
+					Entry<T> e = node.entries.get(i);
+					if (weaklyDominates(fitness, e.fitness)) {
+						removed.add(e.member);
+						node.entries.remove(i);
+						changed = true;
+					}
+				}
+			} else {
+				for (int i = node.children.size() - 1; i >= 0; i--) {
+					Node child = node.children.get(i);
+					if (removeDominatedBy(child, fitness, removed)) {
+						changed = true;
+						if (child.isEmpty()) node.children.remove(i);
+					}
+				}
+			}
+			if (changed && !node.isEmpty()) node.recomputeBounds();
+			return changed;
+		}
+
+		private void collect(Node node, List<T> removed) {
+			if (node.children == null) {
+				for (Entry<T> e : node.entries) removed.add(e.member);
+			} else {
+				for (Node child : node.children) collect(child, removed);
+			}
+		}
+
+		void insert(Entry<T> entry) {
+			if (root == null) root = new Node(entry.fitness);
+			Node node = root;
+			node.widen(entry.fitness);
+			while (node.children != null) {
+				Node best = null;
+				double bestDistance = Double.POSITIVE_INFINITY;
+				for (Node child : node.children) {
+					double d = distanceToMiddle(child, entry.fitness);
+					if (d < bestDistance) {
+						bestDistance = d;
+						best = child;
+					}
+				}
+				node = best;
+				node.widen(entry.fitness);
+			}
+			node.entries.add(entry);
+			if (node.entries.size() > MAX_LEAF_SIZE) split(node);
+		}
+
+		private double distanceToMiddle(Node node, double[] fitness) {
+			double result = 0;
+			for (int k = 0; k < fitness.length; k++) {
+				double d = fitness[k] - (node.ideal[k] + node.nadir[k]) / 2;
+				result += d * d;
+			}
+			return result;
+		}
+
+		private static double distance(double[] a, double[] b) {
+			double result = 0;
+			for (int k = 0; k < a.length; k++) {
+				double d = a[k] - b[k];
+				result += d * d;
+			}
+			return result;
+		}
+
+		// turns a full leaf into an inner node with up to branching leaves
+		private void split(Node leaf) {
+			ArrayList<Entry<T>> entries = leaf.entries;
+			int n = entries.size();
+			// choose seeds far from each other, starting with the one farthest from the middle
+			ArrayList<Entry<T>> seeds = new ArrayList<Entry<T>>();
+			double[] minDistance = new double[n];
+			int first = 0;
+			for (int i = 0; i < n; i++) {
+				minDistance[i] = distanceToMiddle(leaf, entries.get(i).fitness);
+				if (minDistance[i] > minDistance[first]) first = i;
+			}
+			int next = first;
+			while (seeds.size() < branching) {
+				Entry<T> seed = entries.get(next);
+				seeds.add(seed);
+				next = -1;
+				for (int i = 0; i < n; i++) {
+					minDistance[i] = seeds.size() == 1 ? distance(entries.get(i).fitness, seed.fitness)
+							: Math.min(minDistance[i], distance(entries.get(i).fitness, seed.fitness));
+					if (minDistance[i] > 0 && (next < 0 || minDistance[i] > minDistance[next])) next = i;
+				}
+				if (next < 0) break;
+			}
+			ArrayList<Node> children = new ArrayList<Node>();
+			for (Entry<T> seed : seeds) children.add(new Node(seed.fitness));
+			for (Entry<T> e : entries) {
+				int best = 0;
+				for (int s = 1; s < seeds.size(); s++) {
+					if (distance(e.fitness, seeds.get(s).fitness) < distance(e.fitness, seeds.get(best).fitness)) best = s;
+				}
+				children.get(best).entries.add(e);
+				children.get(best).widen(e.fitness);
+			}
+			for (int s = children.size() - 1; s >= 0; s--) {
+				if (children.get(s).entries.isEmpty()) children.remove(s);
+			}
+			leaf.entries = null;
+			leaf.children = children;
+		}
+	}
+}
@@ -96,8 +96,8 @@ public class SumCriteriaSelection extends Selection implements Configurable, Com
 		boolean thisGen[] = new boolean[origin.length];
 				
 		for (int i = 0; i < origin.length; i++) {
-			fValue[i] = ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0])[0];
-			fValue[i] += ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0])[1];
+			double[] values = ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0]);
+			fValue[i] = values[0] + values[1];
 			thisGen[i] = (origin[i].getDateOfBirth() == generation);
 		}
 		
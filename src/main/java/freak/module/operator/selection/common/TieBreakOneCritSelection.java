@@ -99,14 +99,20 @@ public class TieBreakOneCritSelection extends Selection implements Configurable,
 		double fValue[] = new double[origin.length];
 		boolean thisGen[] = new boolean[origin.length];
 		
-		double maximum=Math.abs(((MultiObjectiveFitnessFunction)fitness).evaluate(origin[0],original[0])[ (noOfCriteria + 1) % 2 ]);
+		// evaluate every individual only once
+		double values[][] = new double[origin.length][];
+		for (int i = 0; i < origin.length; i++) {
+			values[i] = ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0]);
+		}
+		
+		double maximum=Math.abs(values[0][ (noOfCriteria + 1) % 2 ]);
 		
 		// Melanie: maximum value of the other criteria is searched for,
 		// fvalue is sum of wished criteria + other criteria divided by maximum.
 		// the effect is that indivuals are sorted by other criteria if a tie comes up.
 		
 		for (int i = 0; i < origin.length; i++){
-			double m = Math.abs(((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0])[ (noOfCriteria + 1) % 2 ]);
+			double m = Math.abs(values[i][ (noOfCriteria + 1) % 2 ]);
 			if (m > maximum) {
 				maximum = m;
 			}
@@ -117,8 +123,8 @@ public class TieBreakOneCritSelection extends Selection implements Configurable,
 		}
 		
 		for (int i = 0; i < origin.length; i++) {
-			fValue[i] = ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0])[noOfCriteria];
-			fValue[i] += ((MultiObjectiveFitnessFunction)fitness).evaluate(origin[i],original[0])[ secondCriteria ]/(maximum+1);
+			fValue[i] = values[i][noOfCriteria];
+			fValue[i] += values[i][ secondCriteria ]/(maximum+1);
 //			System.out.print(fValue[i]+" ");
 			thisGen[i] = (origin[i].getDateOfBirth() == generation);
 		}
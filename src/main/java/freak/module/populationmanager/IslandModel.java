@@ -10,6 +10,7 @@
 
 package freak.module.populationmanager;
 
+import freak.Freak;
 import freak.core.control.Schedule;
 import freak.core.fitness.SingleObjectiveFitnessFunction;
 import freak.core.graph.GraphException;
@@ -45,6 +46,10 @@ public class IslandModel extends AbstractPopulationManager implements Configurab
 	 * @uml.associationEnd  multiplicity="(0 -1)"
 	 */
 	private IndividualList[] populations;
+	
+	// time spent in the operator graph and generations processed per island
+	private long[] islandNanos;
+	private long[] islandGenerations;
 
 	/**
 	 * Constructs a new <code>IslandModel</code>.
@@ -92,6 +97,8 @@ public class IslandModel extends AbstractPopulationManager implements Configurab
 		for (int i = 0; i < subpopulationcount; i++) {
 			populations[i] = new Population(getSchedule());
 		}
+		islandNanos = new long[subpopulationcount];
+		islandGenerations = new long[subpopulationcount];
 
 		if (initialization == null)
 			throw new NullPointerException("Specified initialization operator is null.");
@@ -124,7 +131,16 @@ public class IslandModel extends AbstractPopulationManager implements Configurab
 			throw new NoSuchIndividualException("Population is empty.");
 
 		for (int i = 0; i < subpopulationcount; i++) {
+			long start = System.nanoTime();
 			populations[i] = getSchedule().getOperatorGraph().process(populations[i]);
+			islandNanos[i] += System.nanoTime() - start;
+			islandGenerations[i]++;
+		}
+		
+		if (getSchedule().getCurrentGeneration() % epochLength == epochLength - 1) {
+			for (int i = 0; i < subpopulationcount; i++) {
+				Freak.debug("Island "+i+": "+islandGenerations[i]+" generations, "+getIslandThroughput(i)+" generations/s", 2);
+			}
 		}
 
 		// communication between the islands
@@ -174,6 +190,16 @@ public class IslandModel extends AbstractPopulationManager implements Configurab
 		fireIndividualList(getPopulation());
 	}
 
+	/**
+	 * Returns the number of generations an island processes per second,
+	 * measured by the time its subpopulation spends in the operator graph.
+	 * @param island number of the island
+	 */
+	public double getIslandThroughput(int island) {
+		if (islandNanos == null || islandNanos[island] == 0) return 0;
+		return islandGenerations[island] * 1e9 / islandNanos[island];
+	}
+
 	public String getDescription() {
 		return "Implements multiple subpopulations. Each subpolution has isolated evolution. After an epoch individuals will migrate between the subpolutions.";
 	}
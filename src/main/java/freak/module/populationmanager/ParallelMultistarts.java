@@ -19,6 +19,10 @@ import java.util.Iterator;
 /**
  * Implements parallel multistarts by putting the individuals separately into 
  * the operator graph.
+ * The starts are independent of each other, but they are processed one after
+ * another in the order of the population since all of them share the operator
+ * graph and the <code>RandomElement</code> of the schedule. Thus the result
+ * only depends on the seed of the schedule.
  * 
  * @author Dirk 
  */
@@ -179,6 +179,14 @@ public class GraphEdgeSelection extends AbstractSearchSpace implements Configura
 		 */
 		protected Edge[] edgeLUT;
 		
+		/**
+		 * For speedup purposes. Open addressing hash table from the node pair
+		 * of an edge (smaller node first) to its index in edgeLUT, so the index
+		 * of an edge is found in constant time. Built with edgeLUT.
+		 */
+		protected long[] edgeIndexKeys;
+		protected int[] edgeIndexValues;
+		
 		/**
 		 * The edges of the graph are stored in this array of ArrayLists.<br>
 		 * IMPORTANT: an edge {v,w} is stored as follows:<br>
@@ -236,6 +244,11 @@ public class GraphEdgeSelection extends AbstractSearchSpace implements Configura
 			
 			// create LUT
 			edgeLUT = new Edge[this.getNumberOfEdges()];
+			int capacity = 2;
+			while (capacity < 2 * edgeLUT.length) capacity <<= 1;
+			edgeIndexKeys = new long[capacity];
+			Arrays.fill(edgeIndexKeys, -1);
+			edgeIndexValues = new int[capacity];
 			
 			int count = 0;
 			
@@ -248,18 +261,15 @@ public class GraphEdgeSelection extends AbstractSearchSpace implements Configura
 						// -- edge has correct orientation. update edgeLUT.
 						e.indexInGenotypeArray = count;
 						edgeLUT[count] = e;
+						int slot = edgeIndexSlot(e.startNode, e.endNode);
+						edgeIndexKeys[slot] = edgeIndexKey(e.startNode, e.endNode);
+						edgeIndexValues[slot] = count;
 						count++;
 						
 					} else {
 						// --  edge has wrong orientation. set indexInGenotypeArray though.
-						ArrayList endEdges = edges[e.endNode];
-						for (int k = 0; k < endEdges.size(); k++) {
-							Edge e2 = (Edge) endEdges.get(k);
-							if (e2.endNode == e.startNode) {
-								e.indexInGenotypeArray = e2.indexInGenotypeArray;
-								break;
-							}
-						}
+						// the correctly oriented edge has the smaller start node, so it is indexed already
+						e.indexInGenotypeArray = findEdgeSelectionIndexForEdge(e.endNode, e.startNode);
 					}
 					
 				}
@@ -268,6 +278,20 @@ public class GraphEdgeSelection extends AbstractSearchSpace implements Configura
 			
 		}
 		
+		private long edgeIndexKey(int startNode, int endNode) {
+			return ((long)startNode << 32) | endNode;
+		}
+		
+		// slot of the key in edgeIndexKeys, or the free slot where it belongs
+		private int edgeIndexSlot(int startNode, int endNode) {
+			long key = edgeIndexKey(startNode, endNode);
+			long h = key * 0x9E3779B97F4A7C15L;
+			int mask = edgeIndexKeys.length - 1;
+			int slot = (int)(h >>> 32) & mask;
+			while (edgeIndexKeys[slot] != key && edgeIndexKeys[slot] != -1) slot = (slot + 1) & mask;
+			return slot;
+		}
+		
 		/**
 		 * Returns the Edge associated to the given speedup index.
 		 * This number is the index of the bit representing the edge's
@@ -295,6 +319,12 @@ public class GraphEdgeSelection extends AbstractSearchSpace implements Configura
 				endNode = temp;
 			}
 			
+			if (edgeIndexKeys != null) {
+				int slot = edgeIndexSlot(startNode, endNode);
+				return edgeIndexKeys[slot] == -1 ? -1 : edgeIndexValues[slot];
+			}
+			
+			// -- no index (graph not yet initialized or deserialized from an older version)
 			int j = 0;
 			ArrayList nodeEdges = edges[startNode];
 			// -- search for the edge
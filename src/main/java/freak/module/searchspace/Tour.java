@@ -0,0 +1,130 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace;
+
+/**
+ * A mutable cyclic tour on the cities 1,...,n with constant time lookup of
+ * the position of a city. Positions are indices into the tour as returned
+ * by <code>toArray</code>.
+ * <p>
+ * The cities are stored in an array that is read starting at an offset,
+ * forward or backward, together with the inverse array. A cyclic segment is
+ * reversed by reversing either the segment or its complement, whichever is
+ * shorter. Reversing the complement yields the same cycle read in the
+ * opposite direction, which is made up for by moving the offset and
+ * switching the direction.
+ */
+public class Tour {
+
+	private final int[] cities;
+	// positions[c - 1] is the index of city c in cities
+	private final int[] positions;
+	private final int n;
+	// position i is stored at index offset + i or offset - i, modulo n
+	private int offset;
+	private boolean forward = true;
+
+	/**
+	 * Creates a tour visiting the given cities in the given order. The array
+	 * must be a permutation of 1,...,n and is copied.
+	 */
+	public Tour(int[] tour) {
+		n = tour.length;
+		cities = (int[])tour.clone();
+		positions = new int[n];
+		for (int i = 0; i < n; i++) positions[cities[i] - 1] = i;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns the city at position i.
+	 */
+	public int get(int i) {
+		return cities[index(i)];
+	}
+
+	/**
+	 * Returns the position of the given city.
+	 */
+	public int indexOf(int city) {
+		int index = positions[city - 1];
+		int i = forward ? index - offset : offset - index;
+		return i < 0 ? i + n : i;
+	}
+
+	/**
+	 * Returns the city following the given city on the tour.
+	 */
+	public int next(int city) {
+		int i = indexOf(city) + 1;
+		return get(i == n ? 0 : i);
+	}
+
+	/**
+	 * Returns the city preceding the given city on the tour.
+	 */
+	public int previous(int city) {
+		int i = indexOf(city);
+		return get(i == 0 ? n - 1 : i - 1);
+	}
+
+	/**
+	 * Reverses the cyclic segment from position start to position end, both
+	 * inclusive. If end precedes start, the segment wraps around the end of
+	 * the tour. The cities outside the segment keep their positions.
+	 */
+	public void reverse(int start, int end) {
+		int length = (end - start + n) % n + 1;
+		if (2 * length <= n) {
+			swapSegment(start, length);
+		} else {
+			// reverse the complement, then read the cycle the other way round
+			swapSegment(end + 1, n - length);
+			offset = mod(forward ? offset + start + end : offset - start - end);
+			forward = !forward;
+		}
+	}
+
+	/**
+	 * Returns the cities in the order of their positions.
+	 */
+	public int[] toArray() {
+		int[] result = new int[n];
+		if (forward) {
+			System.arraycopy(cities, offset, result, 0, n - offset);
+			System.arraycopy(cities, 0, result, n - offset, offset);
+		} else {
+			for (int i = 0; i < n; i++) result[i] = cities[index(i)];
+		}
+		return result;
+	}
+
+	// reverses length positions starting at position start
+	private void swapSegment(int start, int length) {
+		for (int k = 0; k < length / 2; k++) {
+			int a = index(start + k);
+			int b = index(start + length - 1 - k);
+			int city = cities[a];
+			cities[a] = cities[b];
+			cities[b] = city;
+			positions[cities[a] - 1] = a;
+			positions[cities[b] - 1] = b;
+		}
+	}
+
+	private int index(int i) {
+		return mod(forward ? offset + i : offset - i);
+	}
+
+	private int mod(int i) {
+		i %= n;
+		return i < 0 ? i + n : i;
+	}
+}
@@ -16,6 +16,11 @@ import java.util.BitSet;
  */
 public class AndNode extends MultipleOperatorNode implements Serializable{	
 	
+	// memoized conjunction of the children, null means it has to be recomputed
+	private transient long[] cached = null;
+	// true if cached is also referenced by a clone and must be copied before it is changed
+	private transient boolean cachedShared = false;
+	
 	/**
 	 * Constructor for andNodes without parameters.
 	 */
@@ -58,14 +63,84 @@ public class AndNode extends MultipleOperatorNode implements Serializable{
 		if (numRows == -1){
 			numRows = Data.getNumRows();
 		}
-		int size = numRows;
-		BitSet rueckgabe = new BitSet(size);
-		rueckgabe.set(0,size); // first number inclusively, second number exclusively
+		return BitSet.valueOf(getCachedValueWords(numRows));
+	}
+	
+	/**
+	 * Writes the rows of the input table fullfilled by this node into <code>dst</code>
+	 * without allocating new BitSets.
+	 * @param dst     packed rows, must have <code>LiteralStore.wordsFor(numRows)</code> words
+	 * @param numRows number of rows in the input table
+	 */
+	void getValueWords(long[] dst, int numRows){
+		LiteralStore.setAll(dst, numRows);
 	    for (int i = 0; i < children.size(); i++){
-	    	rueckgabe.and( (children.get(i)).getValueBitset() );
+	    	OperatorNode child = children.get(i);
+	    	if (child instanceof StaticCompareNode) {
+	    		((StaticCompareNode)child).andInto(dst);
+	    	} else {
+	    		long[] w = child.getValueBitset().toLongArray();
+	    		int n = Math.min(dst.length, w.length);
+	    		LiteralStore.and(dst, w, 0, n);
+	    		for (int k = n; k < dst.length; k++) dst[k] = 0L;
+	    	}
 	    }
-//		System.out.println(this.toString()+" liefert Bitset der L�nge "+rueckgabe.length()+ " mit "+rueckgabe.size() +" Bits (=Datenzeilen?)");
-		return rueckgabe;
+	}
+	
+	/**
+	 * Gives the memoized rows of the input table fullfilled by this node.
+	 * The conjunction is only recomputed after a child was deleted or the data changed,
+	 * added children are and-ed into the memoized words.
+	 * The returned array must not be changed.
+	 * @param numRows number of rows in the input table
+	 */
+	long[] getCachedValueWords(int numRows){
+		int words = LiteralStore.wordsFor(numRows);
+		if (cached == null || cached.length != words) {
+			cached = new long[words];
+			cachedShared = false;
+			getValueWords(cached, numRows);
+		}
+		return cached;
+	}
+	
+	/**
+	 * Adds a given OperatorNode to the children of this AndNode
+	 * and updates the memoized conjunction.
+	 * @param child OperatorNode to be added
+	 */
+	public void addChild(OperatorNode child){
+		super.addChild(child);
+		if (child == null || cached == null) return;
+		if (child instanceof StaticCompareNode) {
+			if (cachedShared) {
+				cached = cached.clone();
+				cachedShared = false;
+			}
+			((StaticCompareNode)child).andInto(cached);
+		} else {
+			cached = null;
+		}
+	}
+	
+	public void deleteChild(OperatorNode child){
+		super.deleteChild(child);
+		cached = null;
+	}
+	
+	public void deleteAllChildren(){
+		super.deleteAllChildren();
+		cached = null;
+	}
+	
+	void addChildrenVector(OperatorNodeVector onv){
+		super.addChildrenVector(onv);
+		cached = null;
+	}
+	
+	void updateBitset(DataContext data){
+		super.updateBitset(data);
+		cached = null;
 	}
 	
 	/**
@@ -146,6 +221,12 @@ public class AndNode extends MultipleOperatorNode implements Serializable{
 			childr.add(newchild);
 		}
 		AndNode mop = new  AndNode(childr);
+		if (cached != null) {
+			// copy on write, see addChild
+			mop.cached = cached;
+			mop.cachedShared = true;
+			cachedShared = true;
+		}
 		return mop;
 	}
 }
@@ -0,0 +1,137 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import freak.Freak;
+
+/**
+ * Updates the count array of a <code>DNFTree</code> when the rows of a monomial
+ * are added or removed. The rows are given packed as in <code>LiteralStore</code>
+ * and only the set bits are visited, so the cost scales with the number of
+ * fulfilled rows and not with the size of the input table.
+ *
+ * This class is the scalar implementation. If the module <code>jdk.incubator.vector</code>
+ * is present and its preferred species of shorts has at most 64 lanes,
+ * <code>getInstance()</code> returns a <code>VectorCountKernel</code>.
+ *
+ * Both update methods return the number of rows whose count changed from or to zero,
+ * split into cases and controls. Use <code>getCases</code> and <code>getControls</code>
+ * to unpack the result.
+ */
+class CountKernel {
+
+	private static final CountKernel instance = create();
+
+	/**
+	 * Gives the fastest kernel available in this JVM.
+	 */
+	static CountKernel getInstance() {
+		return instance;
+	}
+
+	private static CountKernel create() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return (CountKernel)Class.forName("freak.module.searchspace.logictree.VectorCountKernel")
+						.getDeclaredConstructor().newInstance();
+			} catch (Throwable e) {
+				Freak.debug("Vector API not usable, falling back to scalar count updates: "+e, 2);
+			}
+		}
+		return new CountKernel();
+	}
+
+	/**
+	 * Gives the number of cases in a result of <code>add</code> or <code>sub</code>.
+	 */
+	static int getCases(long changed) {
+		return (int)(changed >>> 32);
+	}
+
+	/**
+	 * Gives the number of controls in a result of <code>add</code> or <code>sub</code>.
+	 */
+	static int getControls(long changed) {
+		return (int)changed;
+	}
+
+	static long pack(int cases, int controls) {
+		return ((long)cases << 32) | (controls & 0xffffffffL);
+	}
+
+	/**
+	 * Increments the count of all given rows.
+	 * @param count   count array of the tree
+	 * @param rows    packed rows of the monomial
+	 * @param results packed function values, see <code>Data.getResultWords()</code>
+	 * @return the rows whose count changed from zero to one
+	 */
+	long add(short[] count, long[] rows, long[] results) {
+		int cases = 0;
+		int controls = 0;
+		for (int k = 0; k < rows.length; k++) {
+			if (rows[k] == 0) continue;
+			long changed = add(count, k, rows[k], results[k]);
+			cases += getCases(changed);
+			controls += getControls(changed);
+		}
+		return pack(cases, controls);
+	}
+
+	/**
+	 * Decrements the count of all given rows.
+	 * @param count   count array of the tree
+	 * @param rows    packed rows of the monomial
+	 * @param results packed function values, see <code>Data.getResultWords()</code>
+	 * @return the rows whose count changed from one to zero
+	 */
+	long sub(short[] count, long[] rows, long[] results) {
+		int cases = 0;
+		int controls = 0;
+		for (int k = 0; k < rows.length; k++) {
+			if (rows[k] == 0) continue;
+			long changed = sub(count, k, rows[k], results[k]);
+			cases += getCases(changed);
+			controls += getControls(changed);
+		}
+		return pack(cases, controls);
+	}
+
+	/**
+	 * Increments the count of the rows set in word <code>k</code>, bit by bit.
+	 */
+	final long add(short[] count, int k, long word, long result) {
+		int cases = 0;
+		int controls = 0;
+		while (word != 0) {
+			long bit = word & -word;
+			word ^= bit;
+			int i = (k << 6) + Long.numberOfTrailingZeros(bit);
+			if (count[i]++ == 0) {
+				if ((result & bit) != 0) cases++; else controls++;
+			}
+		}
+		return pack(cases, controls);
+	}
+
+	/**
+	 * Decrements the count of the rows set in word <code>k</code>, bit by bit.
+	 */
+	final long sub(short[] count, int k, long word, long result) {
+		int cases = 0;
+		int controls = 0;
+		while (word != 0) {
+			long bit = word & -word;
+			word ^= bit;
+			int i = (k << 6) + Long.numberOfTrailingZeros(bit);
+			if (--count[i] == 0) {
+				if ((result & bit) != 0) cases++; else controls++;
+			}
+		}
+		return pack(cases, controls);
+	}
+}
@@ -35,6 +35,9 @@ public class DNFTree implements Serializable {
 	
 	private OrNode root;
 	
+	// input table this tree is evaluated on
+	private transient DataContext context;
+	
 	private short[] count; 
 	private short noFulfilledLines=0;
 	private short noFulfilled1Lines=0;
@@ -87,13 +90,14 @@ public class DNFTree implements Serializable {
         	}
       //  	isread = true;        	
         }
+		context = Data.getContext();
 		if (count.length==0){
-			this.count = new short[Data.getNumRows()];
+			this.count = new short[context.getNumRows()];
 			this.noFulfilledLines = 0;
 			this.noFulfilled1Lines = 0;
 			for (int i = 0; i < this.count.length; i++){
 				this.count[i] = 0;				
-				if ((this.count[i]==1) == (Data.getResultOfNr(i))){
+				if ((this.count[i]==1) == (context.getResultOfNr(i))){
 					this.noFulfilledLines++;
 					if (this.count[i]==1) this.noFulfilled1Lines++;
 				}
@@ -115,9 +119,8 @@ public class DNFTree implements Serializable {
 	public int getNumFullfilledCases(int andNode)
 	{
 		AndNode an = (AndNode)root.getChildAt(andNode);
-		BitSet monom=an.getValueBitset();
-		monom.and(Data.lineValues);
-		int numFullfilledCases=monom.cardinality();
+		long[] monom = getMonomialWords(an);
+		int numFullfilledCases=LiteralStore.andCardinality(monom, getDataContext().getResultWords(), monom.length);
 		return numFullfilledCases;
 	}
 
@@ -128,7 +131,7 @@ public class DNFTree implements Serializable {
 	{
 		AndNode an = (AndNode)root.getChildAt(andNode);
 		BitSet monom=an.getValueBitset();
-		BitSet data=(BitSet)Data.lineValues.clone();
+		BitSet data=getDataContext().getResultBitSet();
 
 		data.flip(0, data.length());
 		
@@ -158,7 +161,7 @@ public class DNFTree implements Serializable {
 
 		
 		
-		BitSet dataStatus = (BitSet)Data.getResultBitSet().clone();
+		BitSet dataStatus = getDataContext().getResultBitSet();
 		
 		dataStatus.flip(0, dataStatus.length());
 		result.and(dataStatus);
@@ -191,7 +194,7 @@ public class DNFTree implements Serializable {
 		BitSet testit = (BitSet) root.getValueBitset().clone();
 		//System.out.println(testit);
 		//int debug=testit.cardinality();
-		testit.xor(Data.lineValues);
+		testit.xor(getDataContext().getResultBitSet());
 		testit.flip(0,root.numRows);
 		//int debug2=Data.lineValues.cardinality();
 		//int debug3=testit.cardinality();
@@ -280,10 +283,10 @@ public class DNFTree implements Serializable {
 	 */
 	public BitSet getBitset(){
 		BitSet result = new BitSet(count.length);
-		result = Data.getResultBitSet();
+		result = getDataContext().getResultBitSet();
 		BitSet countSet = getCharacteristicBitSet();		
 		result.xor(countSet);		
-		result.flip(0,Data.getNumRows());
+		result.flip(0,getDataContext().getNumRows());
 		return result;
 	}
 
@@ -295,15 +298,24 @@ public class DNFTree implements Serializable {
      * @return
      */
     public int getOptFitness(){
-    	return Data.getNumRows();
+    	return getDataContext().getNumRows();
     }
     
     public int getNum1Rows(){
-    	return Data.getNum1Rows();
+    	return getDataContext().getNum1Rows();
     }
     
     public int getNum0Rows(){
-    	return Data.getNum0Rows();
+    	return getDataContext().getNum0Rows();
+    }
+    
+    /**
+     * Gives the input table this tree is evaluated on.
+     */
+    public DataContext getDataContext(){
+    	// the context is not serialized, a deserialized tree uses the current one
+    	if (context == null) context = Data.getContext();
+    	return context;
     }
     
 	/**
@@ -391,7 +403,7 @@ public class DNFTree implements Serializable {
 	}
 	
 	private void CompareNodeValidCheck(StaticCompareNode cn){
-		if (!Data.compareNodeValid(cn)) throw new RuntimeException("This StaticCompareNode is not known!");
+		if (!getDataContext().compareNodeValid(cn)) throw new RuntimeException("This StaticCompareNode is not known!");
 	}
 	
     /**
@@ -459,58 +471,38 @@ public class DNFTree implements Serializable {
 		 */
 		public AndNode getNewAndNodeWithCompareNode(){
 			AndNode an = new AndNode();
-			StaticCompareNode cn = Data.getExistingCompareNodeRandomly();
+			StaticCompareNode cn = getExistingCompareNodeRandomly();
 			an.addChild(cn);
 			return an;
 		}
 		
 		/**
-		 * Randomly returns one of the existing <code>StaticCompareNodes</code> from <code>Data</code>.
+		 * Randomly returns a copy of one of the existing <code>StaticCompareNodes</code> from <code>Data</code>.
+		 * The catalogue's node is not returned itself since the context is shared and
+		 * <code>update</code> rebinds the nodes of the tree.
 		 * @return a <code>StaticCompareNode</code> from our <code>StaticCompareNodeList</code>.
 		 */
 		public StaticCompareNode getExistingCompareNodeRandomly(){
-			return Data.getExistingCompareNodeRandomly();
+			DataContext data = getDataContext();
+			if (data.getNumCompareNodes() == 0) return null;
+			return (StaticCompareNode)data.getCompareNode(Data.nextRandInt(data.getNumCompareNodes())).clone();
 		}
 	 
 	 /* **************************** new methods: deleting nodes **************************** */
 	 
-	private void subBitSetFromCount(BitSet bs){
-//		System.out.print("sub");
-		int noOfRows = Data.getNumRows();
-		 // von Melanie
-		for (int i = 0; i < noOfRows; i++){
-			if (bs.get(i)){				
-				count[i]--;
-				if (count[i] == 0){
-					boolean fncValue = Data.getResultOfNr(i); 
-					if (fncValue) {
-						noFulfilledLines--; 
-						noFulfilled1Lines--;
-					} else noFulfilledLines++;
-				}
-			}
-//			System.out.print(count[i]+" ");
-		}
-		 /* von mir
-		for (int i = 0; i < noOfRows; i++){
-			if (bs.get(i)==Data.getResultOfNr(i)){
-				if (bs.get(i)){
-					noFulfilledLines--;
-					noFulfilled1Lines--;
-				} else {
-					noFulfilledLines--;						
-				}
-			}
-		}		
-		*/
-/*		System.out.println();
-		System.out.print("sub");
-		BitSet bsr = root.getValueBitset();
-		for (int i = 0; i < noOfRows; i++){
-			if (bsr.get(i)) System.out.print("1 "); else System.out.print("0 ");
-		}
-		System.out.println();
-		System.out.println();*/
+	/**
+	 * Gives the rows fulfilled by the given monomial as memoized by the <code>AndNode</code>.
+	 * The content is only valid until the monomial is changed.
+	 */
+	private long[] getMonomialWords(AndNode an){
+		return an.getCachedValueWords(getDataContext().getNumRows());
+	}
+	
+	private void subWordsFromCount(long[] bs){
+		long changed = CountKernel.getInstance().sub(count, bs, getDataContext().getResultWords());
+		// rows that are no longer fulfilled: cases become wrong, controls become right
+		noFulfilledLines += CountKernel.getControls(changed) - CountKernel.getCases(changed);
+		noFulfilled1Lines -= CountKernel.getCases(changed);
 	}
 		
 	/**
@@ -521,8 +513,7 @@ public class DNFTree implements Serializable {
 	public void deleteAnd(AndNode an){
 		AndNodeCheck(an);
 		if (!emptyTreeForbidden || root.getNumberOfChildren() > 1) {
-			BitSet bs = an.getValueBitset();
-			subBitSetFromCount(bs);
+			subWordsFromCount(getMonomialWords(an));
 			root.deleteChild(an);
 		}
 	}
@@ -536,11 +527,9 @@ public class DNFTree implements Serializable {
 	public void deleteCompare(AndNode an, StaticCompareNode cn){
 		AndPlusCompareNodeCheck(an,cn);
 		if (!emptyAndsForbidden || an.getNumberOfChildren() > 1) {
-			BitSet bs = an.getValueBitset();
-			subBitSetFromCount(bs);
+			subWordsFromCount(getMonomialWords(an));
 			an.deleteChild(cn);
-			bs = an.getValueBitset();
-			addBitSetToCount(bs);
+			addWordsToCount(getMonomialWords(an));
 		}
 	}
 
@@ -553,48 +542,11 @@ public class DNFTree implements Serializable {
 	
 	 /* **************************** new methods: inserting nodes **************************** */	
 	
-	private void addBitSetToCount(BitSet bs){
-		int noOfRows = Data.getNumRows();
-//		short[] countcopy = new short[count.length];
-		 // von Melanie
-		for (int i = 0; i < noOfRows; i++){
-//			countcopy[i] = count[i];
-			if (bs.get(i)){
-				if (count[i]==0) {
-					boolean fncValue = Data.getResultOfNr(i);
-					if (fncValue) {
-						noFulfilledLines++;
-						noFulfilled1Lines++;
-					} else {
-						noFulfilledLines--;						
-					}
-				}
-				count[i]++;
-			}
-//			System.out.print(count[i]+" ");
-		}
-		/* von mir
-		for (int i = 0; i < noOfRows; i++){
-			if (bs.get(i)==Data.getResultOfNr(i)){
-				if (bs.get(i)){
-					noFulfilledLines++;
-					noFulfilled1Lines++;
-				} else {
-					noFulfilledLines++;						
-				}
-			}
-		}
-		*/
-//		System.out.println();		
-//		BitSet bsr = root.getValueBitset();
-//		for (int i = 0; i < noOfRows; i++){
-//			if (bsr.get(i)) System.out.print("1 "); else System.out.print("0 ");
-//			if ( (bsr.get(i)) && (count[i] == 0)){
-//				System.out.println("Panik");
-//			}
-//		}
-//		System.out.println();
-//		System.out.println();
+	private void addWordsToCount(long[] bs){
+		long changed = CountKernel.getInstance().add(count, bs, getDataContext().getResultWords());
+		// rows that are newly fulfilled: cases become right, controls become wrong
+		noFulfilledLines += CountKernel.getCases(changed) - CountKernel.getControls(changed);
+		noFulfilled1Lines += CountKernel.getCases(changed);
 	}
 	
 	private AndNode convertONtoAN(OperatorNode on){
@@ -612,8 +564,7 @@ public class DNFTree implements Serializable {
 		if (an == null) throw new RuntimeException("You are trying to insert an AndNode that is null.");
 		if (!emptyAndsForbidden || an.getNumberOfChildren() != 0){
 			root.addChild(an);
-			BitSet bs = an.getValueBitset();
-			addBitSetToCount(bs);
+			addWordsToCount(getMonomialWords(an));
 		}
 	}
 
@@ -639,11 +590,9 @@ public class DNFTree implements Serializable {
 	 */
 	public void insertCompare(AndNode an, StaticCompareNode cn){
 		AndNodeCheck(an);
-		BitSet bs = an.getValueBitset();
-		subBitSetFromCount(bs);
+		subWordsFromCount(getMonomialWords(an));
 		insertCompareNoAndInTreeCheck(an,cn);
-		bs = an.getValueBitset();
-		addBitSetToCount(bs);
+		addWordsToCount(getMonomialWords(an));
 	}
 	
 	public void insertCompare(int index, StaticCompareNode cn){
@@ -949,6 +898,7 @@ public class DNFTree implements Serializable {
 		OrNode or = (OrNode)root.clone();
 		DNFTree tree = new DNFTree(count, noFulfilledLines, noFulfilled1Lines, or, xyRange, maxPercent, //opDelValue, andORCompare, 
 				emptyAndsForbidden, emptyTreeForbidden, inputFilePath, schedule, population,false);
+		tree.context = getDataContext();
         return tree;		
 	}
 	
@@ -956,20 +906,28 @@ public class DNFTree implements Serializable {
 	 * Updates the values in case of new Data
 	 */
 	public void update() {
-		root.updateBitset();
-		this.count = new short[Data.getNumRows()];
+		update(Data.getContext());
+	}
+	
+	/*
+	 * Updates the values for the given input table, the tree is evaluated on it afterwards
+	 */
+	public void update(DataContext data) {
+		context = data;
+		root.updateBitset(data);
+		this.count = new short[data.getNumRows()];
 		this.noFulfilledLines = 0;
 		this.noFulfilled1Lines = 0;
 		for (int i = 0; i < this.count.length; i++){
 			this.count[i] = 0;				
-			if ((this.count[i]==1) == (Data.getResultOfNr(i))){
+			if ((this.count[i]==1) == (data.getResultOfNr(i))){
 				this.noFulfilledLines++;
 				if (this.count[i]==1) this.noFulfilled1Lines++;
 			}
 		}
 		OperatorNodeVector onv= this.getAllUsedAndNodes();
 		Iterator it=onv.iterator();
-		while (it.hasNext()) this.addBitSetToCount(((OperatorNode)it.next()).getValueBitset());
+		while (it.hasNext()) this.addWordsToCount(getMonomialWords(convertONtoAN((OperatorNode)it.next())));
 	}
 
 	public void setEmptyAndsForbidden(boolean emptyAndsForbidden) {
@@ -11,14 +11,25 @@ import edu.cornell.lassp.houle.RngPack.RandomElement;
 import freak.Freak;
 import freak.core.control.ScheduleInterface;
 
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
+ * Gives access to the input table that is currently in use.
+ * The table itself is held by an immutable <code>DataContext</code>,
+ * the static methods of this class delegate to the current context.
+ * Contexts that were read before are kept, so switching back and forth
+ * between e.g. training and test data does not read the tables again.
  * @author  Melanie
  */
 public class Data implements Serializable{
@@ -43,27 +54,18 @@ public class Data implements Serializable{
 	private static String path;
 	private static String lastPath;	
 	private static boolean valid = false;
-	private static boolean read = false;
 	
-	// Number of variables and rows
-	private static int numVars;
-    private static int numRows;	
-    private static int num1Rows;
+	// the input table that is currently in use, null if no data is present
+	private static volatile DataContext context;
     
-	// Array f�r Eingabedaten
-	private static byte[][] values;
-	private static byte[][] cvalues;
-	// Array f�r Ergebnisspalte
-	private static boolean[] results;  // boolsche werte
-	private static BitSet resultsBS;
-	// Array of variable names
-	private static String[] names;
-	// Arrays: range of variables
-	private static byte[] minValue;
-	private static byte[] maxValue;
-	
-	// OperatorNodeVector with all possible compareNode-subtrees
-	private static OperatorNodeVector compareSubtrees;
+	// number of contexts kept for reuse, enough for training and test data of a few folds
+	private static final int MAX_CONTEXTS = 4;
+	// contexts that were already read, by source and compare node set
+	private static final Map<List<Object>, DataContext> contexts = new LinkedHashMap<List<Object>, DataContext>(16, 0.75f, true) {
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, DataContext> eldest) {
+			return size() > MAX_CONTEXTS;
+		}
+	};
 	
 	// Determine if the second in the range of variables is to be excluded 
 	private static boolean exclude=true;
@@ -77,18 +79,41 @@ public class Data implements Serializable{
 		csvDisable = false;		
 		testData=null;
 		trainingData=null;		
+		synchronized (contexts) {
+			contexts.clear();
+		}
 	}
 	public static void setRandomElement(ScheduleInterface se){
 		schedule = se;
 		randGen = schedule.getRandomElement();
 	}
 	
+	/**
+	 * Gives the context holding the input table that is currently in use.
+	 * Returns null if no data is present.
+	 */
+	public static DataContext getContext(){
+		return context;
+	}
+
+	/**
+	 * Makes the given context the one that is currently in use.
+	 * @param data context holding the input table
+	 */
+	public static void setContext(DataContext data){
+		context = data;
+		lineValues = data.getResultBitSet();
+		Freak.debug("0-Rows: "+data.getNum0Rows()+", 1-Rows: "+data.getNum1Rows(),2);
+		if (debug) printTable();
+	}
+
 	/**
 	 * Gives the number of variables in the read inputdata.
 	 * Returns -1 if no data is present.
 	 */
 	public static int getNumVar(){
-		if (read) return numVars; else return -1;
+		DataContext data = context;
+		if (data != null) return data.getNumVar(); else return -1;
 	}
 	
 	/**
@@ -96,7 +121,8 @@ public class Data implements Serializable{
 	 * @uml.property  name="numRows"
 	 */
 	public static int getNumRows(){
-		if (read) return numRows; else return -1;
+		DataContext data = context;
+		if (data != null) return data.getNumRows(); else return -1;
 	}
 	
 	/**
@@ -104,7 +130,8 @@ public class Data implements Serializable{
 	 * @uml.property  name="num1Rows"
 	 */
 	public static int getNum1Rows(){
-		if (read) return num1Rows; else return -1;		
+		DataContext data = context;
+		if (data != null) return data.getNum1Rows(); else return -1;
 	}
 	
 	/**
@@ -112,7 +139,8 @@ public class Data implements Serializable{
 	 * Returns -1 if no data is present.
 	 */
 	public static int getNum0Rows(){
-		if (read) return (numRows - num1Rows); else return -1;		
+		DataContext data = context;
+		if (data != null) return data.getNum0Rows(); else return -1;
 	}
 	
 	/**
@@ -121,7 +149,8 @@ public class Data implements Serializable{
 	 * @param nr number of needed row, numbering starting with 0
 	 */
 	public static byte[] getRowByNumber(int nr){
-		if (read) return values[nr]; else return null;
+		DataContext data = context;
+		if (data != null) return data.getValues()[nr]; else return null;
 	}
 
 	/**
@@ -130,7 +159,8 @@ public class Data implements Serializable{
 	 * @param nr of the row which result is needed, numbering starting with 0
 	 */
 	public static boolean getResultOfNr(int nr){
-		if (read) return results[nr]; else return false;
+		DataContext data = context;
+		if (data != null) return data.getResultOfNr(nr); else return false;
 	}
 	
 	/**
@@ -138,7 +168,27 @@ public class Data implements Serializable{
 	 * Returns null if no data is present.
 	 */
 	public static BitSet getResultBitSet(){
-		return (BitSet)resultsBS.clone();
+		DataContext data = context;
+		if (data != null) return data.getResultBitSet(); else return null;
+	}
+	
+	/**
+	 * Gives the function values of the input table packed into words as in <code>LiteralStore</code>.
+	 * The array is shared and must not be changed.
+	 * Returns null if no data is present.
+	 */
+	public static long[] getResultWords(){
+		DataContext data = context;
+		if (data != null) return data.getResultWords(); else return null;
+	}
+	
+	/**
+	 * Gives the packed store with the fulfilled rows of all compare subtrees.
+	 * Returns null if no data is present.
+	 */
+	public static LiteralStore getLiteralStore(){
+		DataContext data = context;
+		if (data != null) return data.getLiteralStore(); else return null;
 	}
 	
 	/**
@@ -147,8 +197,9 @@ public class Data implements Serializable{
 	 * @var number of input variable
 	 */
 	public static int getMaxValue(int var){		
-		if (read && var < numVars){
-			return maxValue[var];
+		DataContext data = context;
+		if (data != null && var < data.getNumVar()){
+			return data.getMaxValue(var);
 		} else return -1;
 	}
 
@@ -158,8 +209,9 @@ public class Data implements Serializable{
 	 * @var number of input variable
 	 */
 	public static int getMinValue(int var){		
-		if (read && var < numVars){
-			return minValue[var];
+		DataContext data = context;
+		if (data != null && var < data.getNumVar()){
+			return data.getMinValue(var);
 		} else return -1;
 	}
 	
@@ -168,7 +220,7 @@ public class Data implements Serializable{
 	 * @param var number of the input variable
 	 */
 	public static String getVarName(int var){
-		return names[var];
+		return context.getVarName(var);
 	}
 
 	public static String getDataLocation(){
@@ -203,75 +255,13 @@ public class Data implements Serializable{
 		return change;
 	}
 
-	private static void setMaxAsThree(){
-		maxValue = new byte[numVars];
-		for (int i = 0; i < numVars; i++){
-			maxValue[i] = 3;
-		}
-	}
-	
-	private static void constructCompares(){
+	/**
+	 * Gives whether the second value in the range of variables is to be excluded
+	 * when the compare nodes are constructed.
+	 */
+	private static boolean excludeSecond(){
 		if (compareNodeSet!=1) exclude=false;
-		 compareSubtrees = new OperatorNodeVector();
-		 int index=0;
-		 for (int i = 0; i < numVars; i++){
-			 int minI = getMinValue(i);
-			 int maxI = getMaxValue(i);
-			 
-			 // >= min entspricht <= max entspricht 1,
-			 // >= min+1 entspricht != min
-			 // <= min entspricht = min
-			 // <= max-1 entspricht != max
-			 // >= max entspricht = max
-			 
-			// switch (compareNodeSet)			 
-			 for (int j = minI; j <= maxI ; j++){
-				 if ((!exclude) || (j!=minI+1)) {
-					 //=					 
-					 StaticConstantNode cn1 = new StaticConstantNode(j);
-					 StaticInputNode in1 = new StaticInputNode(i);
-					 StaticCompareNode com1 = new StaticCompareNode(cn1,in1,false,true,false,numRows,values);
-					 com1.setIndex(index++);
-					 Freak.debug(com1.toString(),4);
-					 compareSubtrees.add(com1);
-					 /*System.out.println(com1.getIndex()+": "+ com1.toString());
-					 System.out.println("Assigned Index"+compareSubtrees.indexOf(com1));
-					 System.out.println("Equal? "+compareSubtrees.get(com1.getIndex()).toString());*/
-
-
-					 //!=
-					 StaticConstantNode cn3 = new StaticConstantNode(j);
-					 StaticInputNode in3 = new StaticInputNode(i);
-					 StaticCompareNode com3 = new StaticCompareNode(cn3,in3,true, false, true,numRows,values);
-					 com3.setIndex(index++);
-					 Freak.debug(com3.toString(),4);
-					 compareSubtrees.add(com3);
-					 /*System.out.println(com3.getIndex()+": "+ com3.toString());
-					 System.out.println("Assigned Index"+compareSubtrees.indexOf(com3));
-					 System.out.println("Equal? "+compareSubtrees.get(com3.getIndex()).toString());*/
-
-					 //>=
-					 if (j != minI && j != minI+1 && j!=maxI && compareNodeSet<3){
-						 StaticConstantNode cn2 = new StaticConstantNode(j);
-						 StaticInputNode in2 = new StaticInputNode(i);
-						 StaticCompareNode com2 = new StaticCompareNode(cn2,in2,false, true, true,numRows,values);
-						 com2.setIndex(index++);
-						 Freak.debug(com2.toString(),4);
-						 compareSubtrees.add(com2);
-					 }
-					 					 
-					 //<=
-					 if (j != minI && j!= maxI-1 && j != maxI && compareNodeSet<3){
-						 StaticConstantNode cn4 = new StaticConstantNode(j);
-						 StaticInputNode in4 = new StaticInputNode(i);
-						 StaticCompareNode com4 = new StaticCompareNode(cn4,in4,true, true, false,numRows,values);
-						 com4.setIndex(index++);
-						 Freak.debug(com4.toString(),4);
-						 compareSubtrees.add(com4);
-					 }
-				 }
-			 }
-		 }
+		return exclude;
 	}
 	
 	/**
@@ -301,17 +291,18 @@ public class Data implements Serializable{
 	 * @uml.property  name="compareSubtrees"
 	 */
 	public static OperatorNodeVector getCompareSubtrees(){
-		if (read) return compareSubtrees; else return null;
+		DataContext data = context;
+		if (data != null) return data.getCompareSubtrees(); else return null;
 	}
 	
 	public static boolean compareNodeValid(StaticCompareNode cn){
-		return compareSubtrees.contains(cn);
+		return context.compareNodeValid(cn);
 	}
 
 	public static int getIndexOfCompareNode(StaticCompareNode cn){
 		// Has to be implemented manually because equals in StaticCompareNode is ambigous
 		int index=-1;
-		Iterator it=compareSubtrees.iterator();
+		Iterator it=context.getCompareSubtrees().iterator();
 		while(it.hasNext()) {
 			index++;
 			if (((StaticCompareNode)it.next()).toString().equals(cn.toString())) return index;
@@ -320,19 +311,20 @@ public class Data implements Serializable{
 	}
 	
 	public static StaticCompareNode getCompareNode(int i){
-		return (StaticCompareNode)compareSubtrees.get(i);
+		return context.getCompareNode(i);
 	}
 
 	public static int getNumCompareNodes(){
-		return compareSubtrees.size();
+		return context.getNumCompareNodes();
 	}
 
 	public static StaticCompareNode getExistingCompareNodeRandomly(){
-		if (read) {
-			if (compareSubtrees.size() == 0)
+		DataContext data = context;
+		if (data != null) {
+			if (data.getNumCompareNodes() == 0)
 				return null;
-			int nr = nextRandInt(compareSubtrees.size());
-			return (StaticCompareNode) compareSubtrees.get(nr);
+			int nr = nextRandInt(data.getNumCompareNodes());
+			return (StaticCompareNode) data.getCompareNode(nr).clone();
 		} else
 			return null;
 	}
@@ -345,7 +337,7 @@ public class Data implements Serializable{
 	 * @param obj string that comes from the first column of the input table 
 	 * @return an integer
 	 */
-	private static int convertObjToInt(String obj){
+	static int convertObjToInt(String obj){
 		int result=0;
 		if (obj.equals("true")
 			    || obj.equals("case")
@@ -364,6 +356,64 @@ public class Data implements Serializable{
 		return result;
 	}
 	
+	private static List<Object> keyOf(Object source){
+		boolean excl = excludeSecond();
+		if (source instanceof String) {
+			// a datasheet that was changed on disk has to be read again
+			long modified = new File((String)source).lastModified();
+			return Arrays.<Object>asList(source, Long.valueOf(modified), Integer.valueOf(compareNodeSet), Boolean.valueOf(excl));
+		}
+		return Arrays.<Object>asList(source, Integer.valueOf(compareNodeSet), Boolean.valueOf(excl));
+	}
+
+	private static DataContext getCached(List<Object> key){
+		synchronized (contexts) {
+			return contexts.get(key);
+		}
+	}
+
+	private static void putCached(List<Object> key, DataContext data){
+		synchronized (contexts) {
+			contexts.put(key, data);
+		}
+	}
+
+	/**
+	 * Gives the context for the datasheet at the given path without making it
+	 * the current one. The datasheet is only read if it was not read before.
+	 * CSV datasheets and the binary format of <code>DataFile</code> are supported.
+	 * @param pathV path of the datasheet
+	 */
+	public static DataContext getContext(String pathV) throws IOException{
+		List<Object> key = keyOf(pathV);
+		DataContext data = getCached(key);
+		if (data == null) {
+			if (DataFile.isDataFile(pathV)) {
+				data = DataContext.open(pathV, compareNodeSet, excludeSecond());
+				Freak.debug("Tabular has "+data.getNumRows()+" rows and "+data.getNumVar()+" variables.",2);
+			} else {
+				data = readCSV(pathV);
+			}
+			Freak.debug("Compares are finished.",2);
+			putCached(key, data);
+		}
+		return data;
+	}
+
+	/**
+	 * Gives the context for a table delivered by R without making it the current one.
+	 * The table is only converted if it was not converted before.
+	 * @param rData table, the first column is the function value
+	 */
+	public static DataContext getContext(RData rData){
+		List<Object> key = keyOf(rData);
+		DataContext data = getCached(key);
+		if (data == null) {
+			data = convertRData(rData.getValues(), rData.getDim(), rData.getNames());
+			putCached(key, data);
+		}
+		return data;
+	}
 	
 	/**
 	 * Reads a datasheet from the current path if it is valid.
@@ -375,133 +425,80 @@ public class Data implements Serializable{
 			//do not read anything because Data has already been delivered by R
 		}else{ //normal execution of this method
 			if (!path.equals(lastPath)) {
-				byte[][] intValues;
-				FileReader in;
-				byte[] iresults;
-
-				// Try to open the datasheet
-				if (valid) {
-					try {
-						in = new FileReader(path);
-					} catch (IOException e) {
-						throw new IOException("Path to datasheet is no longer valid! ("+path+")");
-					}
-				} else {
+				if (!valid) {
 					throw new IOException("Before reading data, a valid path must be set! ("+path+")");
 				}
+				setContext(getContext(path));
+				lastPath=path;
+				Freak.viewFilenameInTitle(path);
+			}    
+		}
+	}
+		
+	/**
+	 * Reads a CSV datasheet, seperated by semicolon.
+	 * @param pathV path of the datasheet
+	 */
+	private static DataContext readCSV(String pathV) throws IOException{
+		FileReader in;
 
-				// File could be opened => read Data
-				// Read datasheet, seperated by semicolon
-	
-				CSVParser parser = new CSVParser(in, ';');		
-				ArrayList<byte[]> v = new ArrayList<byte[]>();
-				String[] line;
-				byte[] intLine;
-	
-				//	The first row only contains names of variables
-				if ((line = parser.getLine()) != null) {
-					numVars = line.length-1;
-			        names = new String[numVars];		
-			        for (int i = 1; i <= numVars; i++) {
-			        	names[i-1] = line[i];
-			        }			
-				}
-				
-				//	Reading rows
-	
-				int count=0; 
-				while((line = parser.getLine()) != null){
-					intLine=new byte[line.length];
-					intLine[0]=(byte) convertObjToInt(line[0]);
-					for (int i=1;i<line.length;i++) intLine[i]= (new Byte(line[i])).byteValue();
-					v.add(intLine);
-				 	Freak.debug("Line "+ ++count +" FK "+line[0]+" Value "+line[1],3);
-				}
-				intValues = new byte[v.size()][];
-				v.toArray(intValues);
-			
-				// Reading rows, saving result column to extra array               
-	
-				// Size of tabular
-				
-				numRows = intValues.length;
-				num1Rows = 0;
-				
-	
-				// read data must be converted to integer,
-				// the first column gives the result of the function
-				
-				values = new byte[numRows][];
-				cvalues = new byte[numVars][];
-				iresults = new byte[numRows];
-				results = new boolean[numRows];
-				maxValue = new byte[numVars];
-				minValue = new byte[numVars];
-				        
-				Freak.debug("Tabular has "+numRows+" rows and "+numVars+" variables.",2);
+		// Try to open the datasheet
+		try {
+			in = new FileReader(pathV);
+		} catch (IOException e) {
+			throw new IOException("Path to datasheet is no longer valid! ("+pathV+")");
+		}
 
-			
-				// Eingelesene Daten in ints umwandeln
-				// und dabei die Beschriftungszeile entfernen
-				// sowie die ergebnisspalte abspalten
-		        
-				for (int i = 0; i < numVars; i++){
-					cvalues[i] = new byte[numRows];
-				}
-				lineValues=new BitSet(numRows);		
-		        for (int i = 0; i < numRows; i++){
-		        	values[i] = new byte[numVars];
-		        	iresults[i] = intValues[i][0];
-		        	results[i] = (iresults[i]==1);
-		           	lineValues.set(i,results[i]);        	
-		        	if (results[i]) num1Rows++;
-		        		        	
-		        	for (int j=1; j <= numVars; j++){
-		        		values[i][j-1] = intValues[i][j];
-		        		cvalues[j-1][i] = intValues[i][j];
-		        	}
-		        	
-		        }
-			
-		        for (int j = 0; j < numVars; j++){
-		            if (numRows == 0){
-		            	maxValue[j] = -1;
-		            	minValue[j] = -1;
-		            } else {
-		            	maxValue[j] = cvalues[j][0];
-		            	minValue[j] = cvalues[j][0];
-		            }
-		            for (int i = 0; i < numRows; i++){
-		            	if (cvalues[j][i] > maxValue[j]) maxValue[j] = cvalues[j][i];
-		            	if (cvalues[j][i] < minValue[j]) minValue[j] = cvalues[j][i];            	
-		            }
-		        }
-	        
-	       
-	  //      setMaxAsThree();
-		        read = true;
-		        lastPath=path;		        
-		        Freak.debug("0-Rows: "+getNum0Rows()+", 1-Rows: "+getNum1Rows(),2);
-		        constructCompares();
-		        Freak.debug("Compares are finished.",2);
-		        // construct a BitSet that contains the resultarray
-		        
-		        Freak.viewFilenameInTitle(path);
-		        
-		        resultsBS = new BitSet(results.length);
-		        for (int i = 0; i < results.length; i++){
-		        	if (results[i]) resultsBS.set(i);
-		        	else resultsBS.clear(i);
-		        }
+		// File could be opened => read Data
+		// Read datasheet, seperated by semicolon
 
-			}    
-	        
-	        
+		CSVParser parser = new CSVParser(in, ';');
+		ArrayList<byte[]> v = new ArrayList<byte[]>();
+		String[] line;
+		byte[] intLine;
+		int numVars = 0;
+		String[] names = new String[0];
+
+		//	The first row only contains names of variables
+		if ((line = parser.getLine()) != null) {
+			numVars = line.length-1;
+	        names = new String[numVars];
+	        for (int i = 1; i <= numVars; i++) {
+	        	names[i-1] = line[i];
+	        }
 		}
-			
 
-			
-			
+		//	Reading rows
+
+		int count=0;
+		while((line = parser.getLine()) != null){
+			intLine=new byte[line.length];
+			intLine[0]=(byte) convertObjToInt(line[0]);
+			for (int i=1;i<line.length;i++) intLine[i]= Byte.parseByte(line[i]);
+			v.add(intLine);
+		 	Freak.debug("Line "+ ++count +" FK "+line[0]+" Value "+line[1],3);
+		}
+		in.close();
+
+		// Size of tabular
+
+		int numRows = v.size();
+		Freak.debug("Tabular has "+numRows+" rows and "+numVars+" variables.",2);
+
+		// Eingelesene Daten in ints umwandeln
+		// und dabei die Beschriftungszeile entfernen
+		// sowie die ergebnisspalte abspalten
+
+		byte[][] cvalues = new byte[numVars][numRows];
+		boolean[] results = new boolean[numRows];
+        for (int i = 0; i < numRows; i++){
+        	intLine = v.get(i);
+        	results[i] = (intLine[0]==1);
+        	for (int j=1; j <= numVars; j++){
+        		cvalues[j-1][i] = intLine[j];
+        	}
+        }
+        return DataContext.create(names, results, cvalues, compareNodeSet, excludeSecond());
 	}
 		
 	/**
@@ -517,7 +514,6 @@ public class Data implements Serializable{
 
 		String[][] svalues;
 		FileReader in;
-		int[] iresults;
 		
 		// Try to open the datasheet
 		if (valid) {
@@ -546,159 +542,52 @@ public class Data implements Serializable{
 		svalues = new String[v.size()][];
 		v.toArray(svalues);
 
-		
-		// File could be opened => read Data
-		// Read datasheet, seperated by semicolon
-/*		svalues = CSVParser.parse(
-			    in, ';'
-			);*/
-		
-		
-		/*
-		//Debug: table output
-		for(int i = 0; i<=svalues.length-1; i++){
-			for(int j = 0; j<=svalues[0].length-1; j++){
-				System.out.print(" " + svalues[i][j]);				
-			}
-			System.out.println("\n");
+		setContext(convertTable(svalues));
+        Freak.viewFilenameInTitle(path);
 		}
-		*/
 		
+	}
 		
+	/**
+	 * Converts a table of Strings into a context. The first row only contains
+	 * the names of the variables, the first column gives the result of the function.
+	 */
+	private static DataContext convertTable(String[][] svalues){
 		// Size of tabular
 		
-		numRows = svalues.length-1;
-		num1Rows = 0;
-		numVars = svalues[0].length-1;
-		
+		int numRows = svalues.length-1;
+		int numVars = svalues[0].length-1;
 
 		// read data must be converted to integer,
 		// the first column gives the result of the function
 		
-		values = new byte[numRows][];
-		cvalues = new byte[numVars][];
-		iresults = new int[numRows];
-		results = new boolean[numRows];
-		maxValue = new byte[numVars];
-		minValue = new byte[numVars];
+		byte[][] cvalues = new byte[numVars][numRows];
+		boolean[] results = new boolean[numRows];
 		
 		// The first row only contains names of variables
-        names = new String[numVars];		
+        String[] names = new String[numVars];
         for (int i = 1; i <= numVars; i++) {
         	names[i-1] = svalues[0][i];
         }
         
         Freak.debug("Tabular has "+numRows+" rows and "+numVars+" variables.",2);
-//        System.out.println("-------------------");
-		if (debug){
-			System.out.print("       ");
-			for (int i = 0; i < numVars; i++){
-				System.out.print(names[i].charAt(names[i].length()-2));
-				System.out.print(names[i].charAt(names[i].length()-1)+" ");
-			}
-			System.out.println();
-		}
-		
-        // Reading rows, saving result column to extra array               
         
 		// Eingelesene Daten in ints umwandeln
 		// und dabei die Beschriftungszeile entfernen
 		// sowie die ergebnisspalte abspalten
         
-		for (int i = 1; i <= numVars; i++){
-			cvalues[i-1] = new byte[numRows];
-		}
-		lineValues=new BitSet(numRows);		
         for (int i = 1; i <= numRows; i++){
-//        	System.out.println("Row"+i+" -------------------");
-        	values[i-1] = new byte[numVars];
-//        	iresults[i-1] = (new Integer(svalues[i][0])).intValue();
-        	iresults[i-1] = convertObjToInt(svalues[i][0]);
-        	results[i-1] = (iresults[i-1]==1);
-           	lineValues.set(i-1,results[i-1]);        	
-        	if (results[i-1]) num1Rows++;
-        	
-        	if (debug) {
-        		System.out.print("Row "+i+": ");
-        	}
-        	
+        	results[i-1] = (convertObjToInt(svalues[i][0])==1);
         	for (int j=1; j <= numVars; j++){
-        		values[i-1][j-1] = (new Byte(svalues[i][j])).byteValue();
-        		cvalues[j-1][i-1] = (new Byte(svalues[i][j])).byteValue();
-        		if (debug) {
-        			System.out.print(" "+values[i-1][j-1]+" ");        			
-        		}
-        	}
-        	
-        	if (debug){
-        		System.out.println(results[i-1]);
-        	}
-        }
-
-        
-        for (int j = 0; j < numVars; j++){
-            if (numRows == 0){
-            	maxValue[j] = -1;
-            	minValue[j] = -1;
-            } else {
-            	maxValue[j] = cvalues[j][0];
-            	minValue[j] = cvalues[j][0];
-            }
-            for (int i = 0; i < numRows; i++){
-            	if (cvalues[j][i] > maxValue[j]) maxValue[j] = cvalues[j][i];
-            	if (cvalues[j][i] < minValue[j]) minValue[j] = cvalues[j][i];            	
-            }
-        }
-        
-        if (debug) {
-        	for (int j = 0; j < numVars; j++){
-    			System.out.print(names[j].charAt(names[j].length()-2));
-    			System.out.print(names[j].charAt(names[j].length()-1)+" ");			
+        		cvalues[j-1][i-1] = Byte.parseByte(svalues[i][j]);
         	}
-        	System.out.println();
-            for (int i = 0; i < numRows; i++) {
-            	System.out.print("Row "+i+":  ");
-            	for (int j = 0; j < numVars; j++){
-            		System.out.print(cvalues[j][i]+"  ");
-            	}
-            	System.out.println(results[i]);
-            }
-            for (int j = 0; j < numVars; j++){
-            	System.out.print("---");
-            }
-            System.out.println("-------------");
-            System.out.print("max     ");
-            for (int j = 0; j < numVars; j++){
-            	System.out.print(maxValue[j]+"  ");
-            }
-            System.out.println();
-            System.out.print("min     ");
-            for (int j = 0; j < numVars; j++){
-            	System.out.print(minValue[j]+"  ");
-            }
-            System.out.println();
-        }
-       
-  //      setMaxAsThree();
-        read = true;
-        Freak.debug("0-Rows: "+getNum0Rows()+", 1-Rows: "+getNum1Rows(),2);
-        constructCompares();
-        
-        // construct a BitSet that contains the resultarray
-        
-        Freak.viewFilenameInTitle(path);
-        
-        resultsBS = new BitSet(results.length);
-        for (int i = 0; i < results.length; i++){
-        	if (results[i]) resultsBS.set(i);
-        	else resultsBS.clear(i);
         }
-		}
-
+        return DataContext.create(names, results, cvalues, compareNodeSet, excludeSecond());
 	}
 		
 	public static void setRData(RData data){
-		Data.rReadData(data.getValues(),data.getDim(),data.getNames());
+		setContext(getContext(data));
+		Freak.viewFilenameInTitle(path);
 	}
 	
 	
@@ -707,11 +596,15 @@ public class Data implements Serializable{
 	 * 
 	 */
 	public static void rReadData(int[] rValues, int[] rDim, String[] rNames){
+		setContext(convertRData(rValues, rDim, rNames));
+		Freak.viewFilenameInTitle(path);
+	}
+
+	private static DataContext convertRData(int[] rValues, int[] rDim, String[] rNames){
 		
 		//debug
 		 Freak.debug("\nrValues[0]: " + rValues[0] + "\nrDim[0] " + rDim[0] + "\nrDim[1] " + rDim[1] + "\nrNames[0] " + rNames[0],2);
 
-		int[] iresults;
 		String[][] svalues = new String[rDim[0]+1][rDim[1]];
 		//in svalues the first index designates the row and the second the column
 		//rDim[0] contains the number of rows in the input and rDim[1] contains the number of columns
@@ -739,147 +632,7 @@ public class Data implements Serializable{
 			}
 		}
 				
-		
-		
-		//Debug: table output
-	/*	for(int i = 0; i<=svalues.length-1; i++){
-			for(int j = 0; j<=svalues[0].length-1; j++){
-				System.out.print(" " + svalues[i][j]);				
-			}
-			System.out.println("\n");
-		}
-		System.out.println("Table output can be disabled in Data.java, method rReadData(...)");*/
-
-		
-
-		
-		// Size of tabular
-		
-		numRows = svalues.length-1;
-		num1Rows = 0;
-		numVars = svalues[0].length-1;
-		
-		// read data must be converted to integer,
-		// the first column gives the result of the function
-		
-		values = new byte[numRows][];
-		cvalues = new byte[numVars][];
-		iresults = new int[numRows];
-		results = new boolean[numRows];
-		maxValue = new byte[numVars];
-		minValue = new byte[numVars];
-		
-		// The first row only contains names of variables
-        names = new String[numVars];		
-        for (int i = 1; i <= numVars; i++) {
-        	names[i-1] = svalues[0][i];
-        }
-        
-		 Freak.debug("Tabular has "+numRows+" rows and "+numVars+" variables.",2);
-		if (debug){
-			System.out.print("       ");
-			for (int i = 0; i < numVars; i++){
-				System.out.print(names[i].charAt(names[i].length()-2));
-				System.out.print(names[i].charAt(names[i].length()-1)+" ");
-			}
-			System.out.println();
-		}
-		
-        // Reading rows, saving result column to extra array               
-        
-		// Eingelesene Daten in ints umwandeln
-		// und dabei die Beschriftungszeile entfernen
-		// sowie die ergebnisspalte abspalten
-        
-		for (int i = 1; i <= numVars; i++){
-			cvalues[i-1] = new byte[numRows];
-		}
-		lineValues=new BitSet(numRows);		
-        for (int i = 1; i <= numRows; i++){
-        	values[i-1] = new byte[numVars];
-//        	iresults[i-1] = (new Integer(svalues[i][0])).intValue();
-        	iresults[i-1] = convertObjToInt(svalues[i][0]);
-        	results[i-1] = (iresults[i-1]==1);
-           	lineValues.set(i-1,results[i-1]);        	
-        	if (results[i-1]) num1Rows++;
-        	
-        	if (debug) {
-        		System.out.print("Row "+i+": ");
-        	}
-        	
-        	for (int j=1; j <= numVars; j++){
-        		values[i-1][j-1] = (new Byte(svalues[i][j])).byteValue();
-        		cvalues[j-1][i-1] = (new Byte(svalues[i][j])).byteValue();
-        		if (debug) {
-        			System.out.print(" "+values[i-1][j-1]+" ");        			
-        		}
-        	}
-        	
-        	if (debug){
-        		System.out.println(results[i-1]);
-        	}
-        }
-        
-        for (int j = 0; j < numVars; j++){
-            if (numRows == 0){
-            	maxValue[j] = -1;
-            	minValue[j] = -1;
-            } else {
-            	maxValue[j] = cvalues[j][0];
-            	minValue[j] = cvalues[j][0];
-            }
-            for (int i = 0; i < numRows; i++){
-            	if (cvalues[j][i] > maxValue[j]) maxValue[j] = cvalues[j][i];
-            	if (cvalues[j][i] < minValue[j]) minValue[j] = cvalues[j][i];            	
-            }
-        }
-        
-        if (debug) {
-        	for (int j = 0; j < numVars; j++){
-//        		System.out.print(names[j]);
-    			System.out.print(names[j].charAt(names[j].length()-2));
-    			System.out.print(names[j].charAt(names[j].length()-1)+" ");			
-        	}
-        	System.out.println();
-            for (int i = 0; i < numRows; i++) {
-            	System.out.print("Row "+i+":  ");
-            	for (int j = 0; j < numVars; j++){
-            		System.out.print(cvalues[j][i]+"  ");
-            	}
-            	System.out.println(results[i]);
-            }
-            for (int j = 0; j < numVars; j++){
-            	System.out.print("---");
-            }
-            System.out.println("-------------");
-            System.out.print("max     ");
-            for (int j = 0; j < numVars; j++){
-            	System.out.print(maxValue[j]+"  ");
-            }
-            System.out.println();
-            System.out.print("min     ");
-            for (int j = 0; j < numVars; j++){
-            	System.out.print(minValue[j]+"  ");
-            }
-            System.out.println();
-        }
-        
-  //      setMaxAsThree();
-        read = true;
-		Freak.debug("0-Rows: "+getNum0Rows()+", 1-Rows: "+getNum1Rows(),2);
-        constructCompares();
-        
-        // construct a BitSet that contains the resultarray
-        
-        Freak.viewFilenameInTitle(path);
-        
-        resultsBS = new BitSet(results.length);
-        for (int i = 0; i < results.length; i++){
-        	if (results[i]) resultsBS.set(i);
-        	else resultsBS.clear(i);
-        }
-	
-		
+		return convertTable(svalues);
 	}
 	
 	public static void setRMode(){
@@ -893,10 +646,23 @@ public class Data implements Serializable{
 	}
 
 	/**
+	 * Gives the input table row by row. The rows are built from the columns
+	 * on the first call, so prefer <code>getColumn</code> for large tables.
 	 * @return the values
 	 */
 	public static byte[][] getValues() {
-		return values;
+		DataContext data = context;
+		if (data != null) return data.getValues(); else return null;
+	}
+	
+	/**
+	 * Gives the values of one input variable, one byte per row.
+	 * Returns null if no data is present.
+	 * @param var number of input variable
+	 */
+	public static ByteBuffer getColumn(int var) {
+		DataContext data = context;
+		if (data != null) return data.getColumn(var); else return null;
 	}
 
 	/**
@@ -914,17 +680,20 @@ public class Data implements Serializable{
 	}
 
 	public static void printTable() {
+		DataContext data = context;
+		int numVars = data.getNumVar();
     	for (int j = 0; j < numVars; j++){
-			System.out.print(names[j].charAt(names[j].length()-2));
-			System.out.print(names[j].charAt(names[j].length()-1)+" ");			
+    		String name = data.getVarName(j);
+			System.out.print(name.charAt(name.length()-2));
+			System.out.print(name.charAt(name.length()-1)+" ");
     	}
     	System.out.println();
-        for (int i = 0; i < numRows; i++) {
+        for (int i = 0; i < data.getNumRows(); i++) {
         	System.out.print("Row "+i+":  ");
         	for (int j = 0; j < numVars; j++){
-        		System.out.print(cvalues[j][i]+"  ");
+        		System.out.print(data.getColumn(j).get(i)+"  ");
         	}
-        	System.out.println(results[i]);
+        	System.out.println(data.getResultOfNr(i));
         }
         for (int j = 0; j < numVars; j++){
         	System.out.print("---");
@@ -932,17 +701,16 @@ public class Data implements Serializable{
         System.out.println("-------------");
         System.out.print("max     ");
         for (int j = 0; j < numVars; j++){
-        	System.out.print(maxValue[j]+"  ");
+        	System.out.print(data.getMaxValue(j)+"  ");
         }
         System.out.println();
         System.out.print("min     ");
         for (int j = 0; j < numVars; j++){
-        	System.out.print(minValue[j]+"  ");
+        	System.out.print(data.getMinValue(j)+"  ");
         }
         System.out.println();		
 	}
 	public static void setCompareNodeSet(int compareNodeSet) {
 		Data.compareNodeSet = compareNodeSet;
 	}
-
-}
\ No newline at end of file
+}
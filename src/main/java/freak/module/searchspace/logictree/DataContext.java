@@ -0,0 +1,300 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import freak.Freak;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * One input table together with the compare nodes constructed for it and
+ * the <code>LiteralStore</code> holding their fulfilled rows.
+ * A context is never changed after construction, so it may be shared by
+ * several schedules or threads. <code>Data</code> keeps the context that
+ * is currently in use, a <code>DNFTree</code> stays bound to the context
+ * it was created or last updated with.
+ */
+public class DataContext {
+
+	private final int numVars;
+	private final int numRows;
+	private final int num1Rows;
+
+	// one column per variable, either on the heap or mapped from a DataFile
+	private final ByteBuffer[] columns;
+	private final BitSet resultsBS;
+	// packed copy of resultsBS for the word kernels
+	private final long[] resultWords;
+	private final String[] names;
+	private final byte[] minValue;
+	private final byte[] maxValue;
+
+	private final int compareNodeSet;
+	// OperatorNodeVector with all possible compareNode-subtrees
+	private final OperatorNodeVector compareSubtrees;
+	// packed fulfilled rows of all compareNode-subtrees
+	private final LiteralStore literals;
+
+	// row-major copy, only built on demand by getValues()
+	private volatile byte[][] values;
+
+	private DataContext(String[] names, long[] resultWords, ByteBuffer[] columns,
+			byte[] minValue, byte[] maxValue, int numRows, int compareNodeSet, boolean exclude) {
+		this.names = names;
+		this.resultWords = resultWords;
+		this.columns = columns;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+		this.numRows = numRows;
+		this.numVars = names.length;
+		this.resultsBS = BitSet.valueOf(resultWords);
+		this.num1Rows = resultsBS.cardinality();
+		this.compareNodeSet = compareNodeSet;
+		this.compareSubtrees = constructCompares(exclude);
+		this.literals = new LiteralStore(compareSubtrees, numRows, columns);
+	}
+
+	/**
+	 * Creates a context for a table on the heap.
+	 * @param names          names of the variables
+	 * @param results        function value of each row
+	 * @param cvalues        values of the variables, one column per variable
+	 * @param compareNodeSet set of compare nodes to construct, see <code>Data.compareNodeSet</code>
+	 * @param exclude        if true, <code>x &gt;= min+1</code> and its negation are left out
+	 */
+	static DataContext create(String[] names, boolean[] results, byte[][] cvalues, int compareNodeSet, boolean exclude) {
+		int numRows = results.length;
+		int numVars = names.length;
+		byte[] maxValue = new byte[numVars];
+		byte[] minValue = new byte[numVars];
+		for (int j = 0; j < numVars; j++){
+			if (numRows == 0){
+				maxValue[j] = -1;
+				minValue[j] = -1;
+			} else {
+				maxValue[j] = cvalues[j][0];
+				minValue[j] = cvalues[j][0];
+			}
+			for (int i = 0; i < numRows; i++){
+				if (cvalues[j][i] > maxValue[j]) maxValue[j] = cvalues[j][i];
+				if (cvalues[j][i] < minValue[j]) minValue[j] = cvalues[j][i];
+			}
+		}
+		long[] resultWords = new long[LiteralStore.wordsFor(numRows)];
+		for (int i = 0; i < numRows; i++){
+			if (results[i]) resultWords[i >>> 6] |= 1L << i;
+		}
+		return new DataContext(names, resultWords, DataFile.wrap(cvalues), minValue, maxValue, numRows, compareNodeSet, exclude);
+	}
+
+	/**
+	 * Creates a context for a table in the binary format of <code>DataFile</code>.
+	 * Only the header and the function values are copied, the columns stay mapped
+	 * and the rows of the compare nodes are built when they are first used.
+	 * @param path           path of the binary datasheet
+	 * @param compareNodeSet set of compare nodes to construct, see <code>Data.compareNodeSet</code>
+	 * @param exclude        if true, <code>x &gt;= min+1</code> and its negation are left out
+	 */
+	static DataContext open(String path, int compareNodeSet, boolean exclude) throws IOException {
+		DataFile file = DataFile.open(path);
+		int numVars = file.getNumVars();
+		String[] names = new String[numVars];
+		byte[] minValue = new byte[numVars];
+		byte[] maxValue = new byte[numVars];
+		ByteBuffer[] columns = new ByteBuffer[numVars];
+		for (int j = 0; j < numVars; j++){
+			names[j] = file.getName(j);
+			minValue[j] = file.getMinValue(j);
+			maxValue[j] = file.getMaxValue(j);
+			columns[j] = file.getColumn(j);
+		}
+		return new DataContext(names, file.getResultWords(), columns, minValue, maxValue, file.getNumRows(), compareNodeSet, exclude);
+	}
+
+	private OperatorNodeVector constructCompares(boolean exclude){
+		 OperatorNodeVector compares = new OperatorNodeVector();
+		 int index=0;
+		 for (int i = 0; i < numVars; i++){
+			 int minI = minValue[i];
+			 int maxI = maxValue[i];
+
+			 // >= min entspricht <= max entspricht 1,
+			 // >= min+1 entspricht != min
+			 // <= min entspricht = min
+			 // <= max-1 entspricht != max
+			 // >= max entspricht = max
+
+			 for (int j = minI; j <= maxI ; j++){
+				 if ((!exclude) || (j!=minI+1)) {
+					 //=
+					 StaticCompareNode com1 = new StaticCompareNode(new StaticConstantNode(j),new StaticInputNode(i,names[i]),false,true,false);
+					 com1.setIndex(index++);
+					 Freak.debug(com1.toString(),4);
+					 compares.add(com1);
+
+					 //!=
+					 StaticCompareNode com3 = new StaticCompareNode(new StaticConstantNode(j),new StaticInputNode(i,names[i]),true, false, true);
+					 com3.setIndex(index++);
+					 Freak.debug(com3.toString(),4);
+					 compares.add(com3);
+
+					 //>=
+					 if (j != minI && j != minI+1 && j!=maxI && compareNodeSet<3){
+						 StaticCompareNode com2 = new StaticCompareNode(new StaticConstantNode(j),new StaticInputNode(i,names[i]),false, true, true);
+						 com2.setIndex(index++);
+						 Freak.debug(com2.toString(),4);
+						 compares.add(com2);
+					 }
+
+					 //<=
+					 if (j != minI && j!= maxI-1 && j != maxI && compareNodeSet<3){
+						 StaticCompareNode com4 = new StaticCompareNode(new StaticConstantNode(j),new StaticInputNode(i,names[i]),true, true, false);
+						 com4.setIndex(index++);
+						 Freak.debug(com4.toString(),4);
+						 compares.add(com4);
+					 }
+				 }
+			 }
+		 }
+		 return compares;
+	}
+
+	/**
+	 * Gives the number of variables in the input table.
+	 */
+	public int getNumVar(){
+		return numVars;
+	}
+
+	/**
+	 * Gives the number of rows in the input table.
+	 */
+	public int getNumRows(){
+		return numRows;
+	}
+
+	/**
+	 * Gives the number of rows in the input table where function value is 1.
+	 */
+	public int getNum1Rows(){
+		return num1Rows;
+	}
+
+	/**
+	 * Gives the number of rows in the input table where function value is 0.
+	 */
+	public int getNum0Rows(){
+		return numRows - num1Rows;
+	}
+
+	/**
+	 * Gives the result of row nr.
+	 * @param nr of the row which result is needed, numbering starting with 0
+	 */
+	public boolean getResultOfNr(int nr){
+		return resultsBS.get(nr);
+	}
+
+	/**
+	 * Gives a BitSet containing all function values of the input table.
+	 */
+	public BitSet getResultBitSet(){
+		return (BitSet)resultsBS.clone();
+	}
+
+	/**
+	 * Gives the function values of the input table packed into words as in <code>LiteralStore</code>.
+	 * The array is shared and must not be changed.
+	 */
+	public long[] getResultWords(){
+		return resultWords;
+	}
+
+	/**
+	 * Gives the packed store with the fulfilled rows of all compare subtrees.
+	 */
+	public LiteralStore getLiteralStore(){
+		return literals;
+	}
+
+	/**
+	 * Gives the maximum value of an input variable.
+	 * @param var number of input variable
+	 */
+	public int getMaxValue(int var){
+		return maxValue[var];
+	}
+
+	/**
+	 * Gives the minimum value of an input variable.
+	 * @param var number of input variable
+	 */
+	public int getMinValue(int var){
+		return minValue[var];
+	}
+
+	/**
+	 * Returns the name of the variable.
+	 * @param var number of the input variable
+	 */
+	public String getVarName(int var){
+		return names[var];
+	}
+
+	/**
+	 * Gives the set of compare nodes this context was constructed with.
+	 */
+	public int getCompareNodeSet(){
+		return compareNodeSet;
+	}
+
+	/**
+	 * Gives a OperatorNodeVector with all possible compare-Subtrees of this table.
+	 * The vector must not be changed.
+	 */
+	public OperatorNodeVector getCompareSubtrees(){
+		return compareSubtrees;
+	}
+
+	public boolean compareNodeValid(StaticCompareNode cn){
+		return compareSubtrees.contains(cn);
+	}
+
+	public StaticCompareNode getCompareNode(int i){
+		return (StaticCompareNode)compareSubtrees.get(i);
+	}
+
+	public int getNumCompareNodes(){
+		return compareSubtrees.size();
+	}
+
+	/**
+	 * Gives the values of one input variable, one byte per row.
+	 * @param var number of input variable
+	 */
+	public ByteBuffer getColumn(int var){
+		return columns[var];
+	}
+
+	/**
+	 * Gives the input table row by row. The rows are built from the columns
+	 * on the first call, so prefer <code>getColumn</code> for large tables.
+	 */
+	public byte[][] getValues(){
+		byte[][] rows = values;
+		if (rows == null) {
+			rows = new byte[numRows][numVars];
+			for (int j = 0; j < numVars; j++) {
+				for (int i = 0; i < numRows; i++) rows[i][j] = columns[j].get(i);
+			}
+			values = rows;
+		}
+		return rows;
+	}
+}
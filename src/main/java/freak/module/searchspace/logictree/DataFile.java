@@ -0,0 +1,295 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import com.Ostermiller.util.CSVParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Compact binary columnar format for the input tables of <code>Data</code>.
+ * A file is opened through a read-only <code>MappedByteBuffer</code>, so
+ * (re-)loading a table does not parse anything and the columns are only
+ * paged in when they are used.
+ *
+ * Layout (big endian):
+ * <pre>
+ * int    magic "FDAT"
+ * int    version
+ * int    number of rows
+ * int    number of variables
+ * per variable: int length, UTF-8 name, byte min, byte max
+ * padding to a multiple of 8
+ * long[] function values, one bit per row as in <code>LiteralStore</code>
+ * byte[] one column of <code>rows</code> bytes per variable
+ * </pre>
+ *
+ * The file is not mapped as a whole, since a single mapping is limited to
+ * <code>Integer.MAX_VALUE</code> bytes. The columns are mapped in windows of
+ * as many whole columns as fit into this limit, so a column never spans two
+ * mappings and all file offsets are computed as <code>long</code>.
+ *
+ * Use <code>main</code>, <code>convert</code> or <code>write</code> to create
+ * such a file from a CSV datasheet or from <code>RData</code>.
+ */
+public class DataFile {
+
+	static final int MAGIC = 0x46444154;
+	static final int VERSION = 1;
+
+	private final int numRows;
+	private final int numVars;
+	private final String[] names;
+	private final byte[] minValue;
+	private final byte[] maxValue;
+	private final MappedByteBuffer results;
+	// number of columns per window and the windows of the columns
+	private final int columnsPerWindow;
+	private final MappedByteBuffer[] windows;
+
+	private DataFile(FileChannel channel) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+		if (in.readInt() != MAGIC) throw new IOException("Not a binary datasheet.");
+		int version = in.readInt();
+		if (version != VERSION) throw new IOException("Unknown datasheet version "+version+".");
+		numRows = in.readInt();
+		numVars = in.readInt();
+		if (numRows < 0 || numVars < 0) throw new IOException("Binary datasheet has a corrupt header.");
+		names = new String[numVars];
+		minValue = new byte[numVars];
+		maxValue = new byte[numVars];
+		long pos = 16;
+		for (int j = 0; j < numVars; j++) {
+			int length = in.readInt();
+			byte[] name = new byte[length];
+			in.readFully(name);
+			names[j] = new String(name, StandardCharsets.UTF_8);
+			minValue[j] = in.readByte();
+			maxValue[j] = in.readByte();
+			pos += 4 + length + 2;
+		}
+		long resultOffset = align(pos);
+		long columnOffset = resultOffset + 8L * LiteralStore.wordsFor(numRows);
+		if (columnOffset + (long)numRows * numVars > channel.size()) {
+			throw new IOException("Binary datasheet is truncated.");
+		}
+		results = map(channel, resultOffset, columnOffset - resultOffset);
+		columnsPerWindow = numRows == 0 ? Math.max(numVars, 1) : Integer.MAX_VALUE / numRows;
+		windows = new MappedByteBuffer[(numVars + columnsPerWindow - 1) / columnsPerWindow];
+		for (int k = 0; k < windows.length; k++) {
+			int columns = Math.min(columnsPerWindow, numVars - k * columnsPerWindow);
+			windows[k] = map(channel, columnOffset + (long)k * columnsPerWindow * numRows, (long)columns * numRows);
+		}
+	}
+
+	private static long align(long pos) {
+		return (pos + 7) & ~7L;
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Cannot map "+size+" bytes of a binary datasheet at once, the limit is "+Integer.MAX_VALUE+".");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+	}
+
+	/**
+	 * Returns whether the given file starts with the magic number of this format.
+	 * @param path path of the file
+	 */
+	public static boolean isDataFile(String path) {
+		try {
+			DataInputStream in = new DataInputStream(new FileInputStream(path));
+			try {
+				return in.readInt() == MAGIC;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Maps the given file into memory.
+	 * @param path path of a file in this format
+	 */
+	public static DataFile open(String path) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			// the mappings stay valid after the channel is closed
+			return new DataFile(file.getChannel());
+		} finally {
+			file.close();
+		}
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumVars() {
+		return numVars;
+	}
+
+	public String getName(int var) {
+		return names[var];
+	}
+
+	public byte getMinValue(int var) {
+		return minValue[var];
+	}
+
+	public byte getMaxValue(int var) {
+		return maxValue[var];
+	}
+
+	/**
+	 * Gives the function values packed into words as in <code>LiteralStore</code>.
+	 */
+	public long[] getResultWords() {
+		long[] result = new long[LiteralStore.wordsFor(numRows)];
+		results.duplicate().asLongBuffer().get(result);
+		return result;
+	}
+
+	/**
+	 * Gives a read-only view of the values of a variable, one byte per row.
+	 * @param var number of the variable
+	 */
+	public ByteBuffer getColumn(int var) {
+		int first = (var % columnsPerWindow) * numRows;
+		return windows[var / columnsPerWindow].slice(first, numRows).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes a table in this format.
+	 * @param path    target file
+	 * @param names   names of the variables
+	 * @param results function value of each row
+	 * @param columns values of each variable, one column per variable
+	 */
+	public static void write(String path, String[] names, boolean[] results, ByteBuffer[] columns) throws IOException {
+		int numRows = results.length;
+		int numVars = names.length;
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(numRows);
+			out.writeInt(numVars);
+			long pos = 16;
+			for (int j = 0; j < numVars; j++) {
+				byte[] name = names[j].getBytes(StandardCharsets.UTF_8);
+				byte min = 0;
+				byte max = 0;
+				for (int i = 0; i < numRows; i++) {
+					byte b = columns[j].get(i);
+					if (i == 0 || b < min) min = b;
+					if (i == 0 || b > max) max = b;
+				}
+				out.writeInt(name.length);
+				out.write(name);
+				out.writeByte(min);
+				out.writeByte(max);
+				pos += 4 + name.length + 2;
+			}
+			for (; pos < align(pos); pos++) out.writeByte(0);
+			long[] words = new long[LiteralStore.wordsFor(numRows)];
+			for (int i = 0; i < numRows; i++) {
+				if (results[i]) words[i >>> 6] |= 1L << i;
+			}
+			for (int k = 0; k < words.length; k++) out.writeLong(words[k]);
+			for (int j = 0; j < numVars; j++) {
+				for (int i = 0; i < numRows; i++) out.writeByte(columns[j].get(i));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Converts a CSV datasheet as read by <code>Data.readData()</code> into this format.
+	 * @param csvPath datasheet separated by semicolons, first column is the function value
+	 * @param path    target file
+	 */
+	public static void convert(String csvPath, String path) throws IOException {
+		FileReader in = new FileReader(csvPath);
+		try {
+			CSVParser parser = new CSVParser(in, ';');
+			String[] line = parser.getLine();
+			if (line == null) throw new IOException("Datasheet "+csvPath+" is empty.");
+			String[] names = new String[line.length - 1];
+			System.arraycopy(line, 1, names, 0, names.length);
+			ArrayList<String[]> rows = new ArrayList<String[]>();
+			while ((line = parser.getLine()) != null) rows.add(line);
+			boolean[] results = new boolean[rows.size()];
+			byte[][] columns = new byte[names.length][rows.size()];
+			for (int i = 0; i < results.length; i++) {
+				line = rows.get(i);
+				results[i] = Data.convertObjToInt(line[0]) == 1;
+				for (int j = 0; j < names.length; j++) columns[j][i] = Byte.parseByte(line[j + 1]);
+			}
+			write(path, names, results, wrap(columns));
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Converts a table delivered by R into this format.
+	 * @param data table, the first column is the function value
+	 * @param path target file
+	 */
+	public static void convert(RData data, String path) throws IOException {
+		int[] values = data.getValues();
+		int numRows = data.getDim()[0];
+		int numVars = data.getDim()[1] - 1;
+		String[] names = new String[numVars];
+		System.arraycopy(data.getNames(), 1, names, 0, numVars);
+		boolean[] results = new boolean[numRows];
+		byte[][] columns = new byte[numVars][numRows];
+		// the values are stored columnwise
+		for (int i = 0; i < numRows; i++) results[i] = values[i] == 1;
+		for (int j = 0; j < numVars; j++) {
+			for (int i = 0; i < numRows; i++) columns[j][i] = (byte)values[(j + 1) * numRows + i];
+		}
+		write(path, names, results, wrap(columns));
+	}
+
+	static ByteBuffer[] wrap(byte[][] columns) {
+		ByteBuffer[] result = new ByteBuffer[columns.length];
+		for (int j = 0; j < columns.length; j++) result[j] = ByteBuffer.wrap(columns[j]);
+		return result;
+	}
+
+	/**
+	 * Converts a CSV datasheet into the binary format.
+	 * Usage: <code>DataFile &lt;datasheet.csv&gt; &lt;datasheet.fdat&gt;</code>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: DataFile <datasheet.csv> <datasheet.fdat>");
+			return;
+		}
+		convert(args[0], args[1]);
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Packed store for the rows fulfilled by all compare nodes constructed in
+ * <code>Data</code>. Every literal occupies <code>words</code> consecutive
+ * longs of one primitive slab, bit <code>i</code> of a literal is set if
+ * row <code>i</code> of the input table fulfils the literal.
+ *
+ * The static methods are the kernels used by <code>AndNode</code>,
+ * <code>OrNode</code> and <code>DNFTree</code> to evaluate monomials
+ * in reusable word arrays instead of allocating new BitSets.
+ * The slab is never changed after construction, so it may be shared
+ * by all clones of a compare node.
+ */
+public class LiteralStore {
+
+	private final long[] slab;
+	private final int words;
+	private final int numRows;
+	private final int numLiterals;
+	
+	private final StaticCompareNode[] nodes;
+	private final ByteBuffer[] columns;
+	// 1 if the rows of a literal are already in the slab
+	private final AtomicIntegerArray built;
+
+	/**
+	 * Creates the store for the given compare nodes and binds every node
+	 * to its row of the slab. The position in the slab is the index of the
+	 * node in <code>compares</code>. The rows of a literal are computed from
+	 * the column of its input variable when they are first needed.
+	 * @param compares all compare nodes, must only contain <code>StaticCompareNode</code>s
+	 * @param numRows number of rows in the input table
+	 * @param columns values of the input variables, one column per variable
+	 */
+	LiteralStore(OperatorNodeVector compares, int numRows, ByteBuffer[] columns) {
+		this.numRows = numRows;
+		this.numLiterals = compares.size();
+		this.words = wordsFor(numRows);
+		this.slab = new long[numLiterals * words];
+		this.columns = columns;
+		this.built = new AtomicIntegerArray(numLiterals);
+		this.nodes = new StaticCompareNode[numLiterals];
+		for (int l = 0; l < numLiterals; l++) {
+			nodes[l] = (StaticCompareNode)compares.get(l);
+			nodes[l].bindStore(this, l);
+		}
+	}
+	
+	/**
+	 * Makes sure the rows of the given literal are contained in the slab.
+	 * @param literal position of the literal in this store
+	 */
+	void ensure(int literal) {
+		if (built.get(literal) == 0) build(literal);
+	}
+	
+	private synchronized void build(int literal) {
+		if (built.get(literal) != 0) return;
+		StaticCompareNode cn = nodes[literal];
+		boolean[] table = cn.getValueTable();
+		ByteBuffer column = columns[cn.getInputChild().getInputNumber()];
+		int offset = literal * words;
+		long word = 0;
+		for (int i = 0; i < numRows; i++) {
+			if (table[column.get(i) & 0xff]) word |= 1L << i;
+			if ((i & 63) == 63) {
+				slab[offset + (i >>> 6)] = word;
+				word = 0;
+			}
+		}
+		if ((numRows & 63) != 0) slab[offset + (numRows >>> 6)] = word;
+		built.set(literal, 1);
+	}
+
+	/**
+	 * Gives the slab containing the rows of all literals.
+	 * The rows of a literal are only valid after <code>ensure</code>.
+	 */
+	long[] getSlab() {
+		return slab;
+	}
+
+	/**
+	 * Gives the number of longs needed to store one bit per row.
+	 * @param numRows number of rows
+	 */
+	public static int wordsFor(int numRows) {
+		return (numRows + 63) >>> 6;
+	}
+
+	/**
+	 * Gives the number of longs used per literal.
+	 */
+	public int getWords() {
+		return words;
+	}
+
+	/**
+	 * Gives the number of rows this store was built for.
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/**
+	 * Gives the number of literals in this store.
+	 */
+	public int getNumLiterals() {
+		return numLiterals;
+	}
+
+	/**
+	 * Copies the rows of a BitSet into a new word array of the given length.
+	 * @param bs    BitSet to convert
+	 * @param words length of the resulting array
+	 */
+	public static long[] toWords(BitSet bs, int words) {
+		long[] result = new long[words];
+		long[] raw = bs.toLongArray();
+		System.arraycopy(raw, 0, result, 0, Math.min(raw.length, words));
+		return result;
+	}
+
+	/**
+	 * Creates a BitSet containing the given range of words.
+	 * @param src    array containing the words
+	 * @param offset first word
+	 * @param words  number of words
+	 */
+	public static BitSet toBitSet(long[] src, int offset, int words) {
+		return BitSet.valueOf(LongBuffer.wrap(src, offset, words));
+	}
+
+	/**
+	 * Sets the first <code>numRows</code> bits of <code>dst</code> and clears all others.
+	 * @param dst     target array
+	 * @param numRows number of bits to set
+	 */
+	public static void setAll(long[] dst, int numRows) {
+		int full = numRows >>> 6;
+		for (int k = 0; k < full; k++) dst[k] = -1L;
+		for (int k = full; k < dst.length; k++) dst[k] = 0L;
+		if ((numRows & 63) != 0) dst[full] = -1L >>> (64 - (numRows & 63));
+	}
+
+	/**
+	 * Clears all bits of <code>dst</code>.
+	 */
+	public static void clear(long[] dst) {
+		for (int k = 0; k < dst.length; k++) dst[k] = 0L;
+	}
+
+	/**
+	 * Computes <code>dst &amp;= src[srcOffset .. srcOffset+words-1]</code>.
+	 */
+	public static void and(long[] dst, long[] src, int srcOffset, int words) {
+		for (int k = 0; k < words; k++) dst[k] &= src[srcOffset + k];
+	}
+
+	/**
+	 * Computes <code>dst |= src[srcOffset .. srcOffset+words-1]</code>.
+	 */
+	public static void or(long[] dst, long[] src, int srcOffset, int words) {
+		for (int k = 0; k < words; k++) dst[k] |= src[srcOffset + k];
+	}
+
+	/**
+	 * Counts the set bits in the given range of words.
+	 */
+	public static int cardinality(long[] src, int offset, int words) {
+		int result = 0;
+		for (int k = 0; k < words; k++) result += Long.bitCount(src[offset + k]);
+		return result;
+	}
+
+	/**
+	 * Counts the set bits of <code>a &amp; b</code> in the first <code>words</code> words
+	 * without materializing the conjunction.
+	 */
+	public static int andCardinality(long[] a, long[] b, int words) {
+		int result = 0;
+		for (int k = 0; k < words; k++) result += Long.bitCount(a[k] & b[k]);
+		return result;
+	}
+}
@@ -179,10 +179,25 @@ public abstract class MultipleOperatorNode implements OperatorNode, Serializable
 	}
 	
 	public void updateBitset(){
-		this.numRows=Data.getNumRows();
+		updateBitset(Data.getContext());
+	}
+	
+	/**
+	 * Recomputes the fulfilled rows of this subtree for the given input table.
+	 * @param data context holding the input table
+	 */
+	void updateBitset(DataContext data){
+		this.numRows=data.getNumRows();
 		int size = children.size();
 	    for (int i = 0; i < size; i++){
-	    	(children.get(i)).updateBitset();
+	    	OperatorNode child = children.get(i);
+	    	if (child instanceof MultipleOperatorNode) {
+	    		((MultipleOperatorNode)child).updateBitset(data);
+	    	} else if (child instanceof StaticCompareNode) {
+	    		((StaticCompareNode)child).updateBitset(data);
+	    	} else {
+	    		child.updateBitset();
+	    	}
 	    }		
 	}
 	
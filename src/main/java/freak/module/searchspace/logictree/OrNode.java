@@ -58,14 +58,33 @@ public class OrNode extends MultipleOperatorNode implements Serializable{
 		if (numRows == -1){
 			numRows = Data.getNumRows();
 		}
-		int size = numRows;
-		BitSet rueckgabe = new BitSet(size);
-		rueckgabe.clear();
+		int words = LiteralStore.wordsFor(numRows);
+		long[] rueckgabe = new long[words];
+		long[] scratch = new long[words];
+		getValueWords(rueckgabe, scratch, numRows);
+//		System.out.println(this.toString()+" liefert Bitset der L�nge "+rueckgabe.length()+ " mit "+rueckgabe.size() +" Bits (=Datenzeilen?)");	    
+		return BitSet.valueOf(rueckgabe);
+	}
+	
+	/**
+	 * Writes the rows of the input table fullfilled by this node into <code>dst</code>
+	 * without allocating new BitSets.
+	 * @param dst     packed rows, must have <code>LiteralStore.wordsFor(numRows)</code> words
+	 * @param scratch buffer of the same length used for the monomials
+	 * @param numRows number of rows in the input table
+	 */
+	void getValueWords(long[] dst, long[] scratch, int numRows){
+		LiteralStore.clear(dst);
 	    for (int i = 0; i < children.size(); i++){
-	    	rueckgabe.or( (children.get(i)).getValueBitset() );
+	    	OperatorNode child = children.get(i);
+	    	if (child instanceof AndNode) {
+	    		((AndNode)child).getValueWords(scratch, numRows);
+	    		LiteralStore.or(dst, scratch, 0, dst.length);
+	    	} else {
+	    		long[] w = child.getValueBitset().toLongArray();
+	    		LiteralStore.or(dst, w, 0, Math.min(dst.length, w.length));
+	    	}
 	    }
-//		System.out.println(this.toString()+" liefert Bitset der L�nge "+rueckgabe.length()+ " mit "+rueckgabe.size() +" Bits (=Datenzeilen?)");	    
-		return rueckgabe;
 	}
 
 	 /**
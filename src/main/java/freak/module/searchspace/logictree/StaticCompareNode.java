@@ -12,7 +12,10 @@ package freak.module.searchspace.logictree;
 
 import freak.rinterface.control.RFlags;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.BitSet;
 
 // this class does not support allowed operators. 
@@ -33,6 +36,15 @@ public class StaticCompareNode implements OperatorNode, Serializable {
 	private boolean greater;
 	
 	private BitSet fulfilling = null;
+	
+	// rows of the LiteralStore slab (or a private copy) holding the fulfilled rows,
+	// the BitSet above is only materialized on demand
+	private transient long[] words = null;
+	private transient int wordOffset = 0;
+	private transient int wordCount = 0;
+	// store that still has to build the words, null if they are complete
+	private transient LiteralStore store = null;
+	private transient int literal;
 
 	/**
 	 * Creates a new compareNode with given children. The last three parameters
@@ -56,6 +68,26 @@ public class StaticCompareNode implements OperatorNode, Serializable {
 		createBitset(numRows,rows);
 	}	
 	
+	/**
+	 * Creates a new compareNode with given children. The last three parameters
+	 * specify the operator combination. 
+	 * The fulfilled rows are not computed, the node has to be bound to a
+	 * <code>LiteralStore</code> afterwards.
+	 * @param cn      constant child of this compareNode
+	 * @param in      input child of this compareNode
+	 * @param less    if true, this compare Node interprets in < cn as true
+	 * @param equal   if true, this compare Node interprets in = cn as true
+	 * @param greater if true, this compare Node interprets in > cn as true
+	 */
+	StaticCompareNode(StaticConstantNode cn, StaticInputNode in, boolean less,
+			boolean equal, boolean greater) {
+		constant = cn;
+		input = in;
+		this.less = less;
+		this.equal = equal;
+		this.greater = greater;
+	}	
+	
 	/**
 	 * Creates a new compareNode with given children. The last three parameters
 	 * specify the operator combination. 
@@ -107,6 +139,90 @@ public class StaticCompareNode implements OperatorNode, Serializable {
 		for (int i = 0; i < numRows; i++) {
 			fulfilling.set(i, getValue(rows[i]));
 		}
+		words = null;
+		store = null;
+	}
+	
+	/**
+	 * Creates a BitSet that contains whether this compareNode fullfilles the rows of the input table.
+	 * @param numRows number of rows in the input table
+	 * @param column  values of the input variable of this node
+	 */
+	private void createBitset(int numRows, ByteBuffer column) {
+		boolean[] table = getValueTable();
+		fulfilling = new BitSet(numRows);
+		for (int i = 0; i < numRows; i++) {
+			if (table[column.get(i) & 0xff]) fulfilling.set(i);
+		}
+		words = null;
+		store = null;
+	}
+	
+	/**
+	 * Gives for every byte value whether this compareNode is fulfilled if its
+	 * input variable has this value. The array is indexed by <code>value &amp; 0xff</code>.
+	 */
+	boolean[] getValueTable() {
+		int var = Math.max(input.getInputNumber(), 0);
+		byte[] row = new byte[var + 1];
+		boolean[] table = new boolean[256];
+		for (int v = Byte.MIN_VALUE; v <= Byte.MAX_VALUE; v++) {
+			row[var] = (byte)v;
+			table[v & 0xff] = getValue(row);
+		}
+		return table;
+	}
+	
+	/**
+	 * Binds this compareNode to its row of the slab of a <code>LiteralStore</code>.
+	 * The slab is only read, so it may be shared with other nodes.
+	 * @param store   store containing the fulfilled rows
+	 * @param literal position of this node in the store
+	 */
+	void bindStore(LiteralStore store, int literal) {
+		this.store = store;
+		this.literal = literal;
+		words = store.getSlab();
+		wordCount = store.getWords();
+		wordOffset = literal * wordCount;
+		fulfilling = null;
+	}
+	
+	/**
+	 * Gives the word array containing the rows fulfilled by this compareNode.
+	 * The rows start at <code>getWordOffset()</code>. The array must not be changed.
+	 */
+	long[] getWords() {
+		if (store != null) {
+			// the store builds the rows of a literal when they are first needed
+			store.ensure(literal);
+			store = null;
+		}
+		if (words == null) {
+			wordCount = LiteralStore.wordsFor(Data.getNumRows());
+			words = LiteralStore.toWords(fulfilling, wordCount);
+			wordOffset = 0;
+		}
+		return words;
+	}
+	
+	/**
+	 * Gives the first word of this compareNode in <code>getWords()</code>.
+	 */
+	int getWordOffset() {
+		getWords();
+		return wordOffset;
+	}
+	
+	/**
+	 * Clears all rows in <code>dst</code> that are not fulfilled by this compareNode.
+	 * @param dst packed rows, see <code>LiteralStore</code>
+	 */
+	void andInto(long[] dst) {
+		long[] w = getWords();
+		int n = Math.min(dst.length, wordCount);
+		LiteralStore.and(dst, w, wordOffset, n);
+		for (int k = n; k < dst.length; k++) dst[k] = 0L;
 	}
 	
 	/**
@@ -116,6 +232,9 @@ public class StaticCompareNode implements OperatorNode, Serializable {
 	 */
 	public BitSet getValueBitset(){
 //		System.out.println(this.toString()+" liefert Bitset der L�nge "+fulfilling.length()+ " mit "+fulfilling.size() +" Bits (=Datenzeilen?)");
+		if (fulfilling == null && words != null) {
+			fulfilling = LiteralStore.toBitSet(getWords(), wordOffset, wordCount);
+		}
 		return fulfilling;
 	}
 	
@@ -192,14 +311,43 @@ public class StaticCompareNode implements OperatorNode, Serializable {
 	public Object clone(){
 	 StaticConstantNode cn = (StaticConstantNode)constant.clone();
 	 StaticInputNode in = (StaticInputNode)input.clone();
-	 // cloning bitsets creates a real copy according to java api
-	 StaticCompareNode com = new StaticCompareNode(cn,in,less, equal, greater, (BitSet)fulfilling.clone());
+	 // words and bitset are never changed but replaced on updateBitset,
+	 // so the clone can share them instead of copying
+	 StaticCompareNode com = new StaticCompareNode(cn,in,less, equal, greater, fulfilling);
+	 com.words = words;
+	 com.wordOffset = wordOffset;
+	 com.wordCount = wordCount;
+	 com.store = store;
+	 com.literal = literal;
 	 com.setIndex(this.index);
 	 return com;
 	}
+	
+	/**
+	 * Materializes the BitSet before serialization since the word array is transient.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getValueBitset();
+		out.defaultWriteObject();
+	}
 
 	public void updateBitset() {
-		createBitset(Data.getNumRows(),Data.getValues());
+		updateBitset(Data.getContext());
+	}
+
+	/**
+	 * Recomputes the fulfilled rows for the given input table. If the table has the
+	 * same compare node at the index of this node, the rows of its
+	 * <code>LiteralStore</code> are shared instead.
+	 * @param data context holding the input table
+	 */
+	void updateBitset(DataContext data) {
+		if (index >= 0 && index < data.getNumCompareNodes()
+				&& data.getCompareNode(index).toString().equals(toString())) {
+			bindStore(data.getLiteralStore(), index);
+		} else {
+			createBitset(data.getNumRows(),data.getColumn(input.getInputNumber()));
+		}
 	}
 
 	public int getIndex() {
@@ -31,6 +31,17 @@ public class StaticInputNode implements AtomicNode, Serializable {
 			} else inputNumber = -1;
 	}	
 	
+	/**
+	 * Creates a new inputNode with the given variable number and name.
+	 * Used while the compare nodes of a <code>DataContext</code> are constructed.
+	 * @param num  number of input variable, must be >= 0
+	 * @param name name of the input variable
+	 */
+	StaticInputNode(int num, String name){
+		inputNumber = num;
+		this.name = name;
+	}
+	
 	/**
 	 * Returns the value of the corresponding input variable in the given row.
 	 * Returns -1 if the variable number is out of range of the row.
@@ -78,7 +89,7 @@ public class StaticInputNode implements AtomicNode, Serializable {
 	 * Clones this inputNode.
 	 */
 	public Object clone(){
-		StaticInputNode in = new StaticInputNode(inputNumber);
+		StaticInputNode in = new StaticInputNode(inputNumber, name);
 		return in;
 	}
 		
@@ -0,0 +1,93 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <code>CountKernel</code> using the incubating Vector API. Dense words are
+ * processed in chunks of <code>SPECIES.length()</code> rows with a masked
+ * add, sparse words are left to the scalar loop of the super class.
+ *
+ * This class must only be loaded if the module <code>jdk.incubator.vector</code>
+ * is present, see <code>CountKernel.getInstance()</code>. A chunk must not be
+ * larger than a word, so the constructor fails for species of more than 64 lanes.
+ */
+class VectorCountKernel extends CountKernel {
+
+	private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	private static final long LANE_MASK = (LANES == 64) ? -1L : (1L << LANES) - 1;
+
+	// words with fewer set bits are cheaper to update bit by bit
+	private static final int DENSE = 8;
+
+	VectorCountKernel() {
+		if (LANES > 64) {
+			throw new UnsupportedOperationException(SPECIES + " has more lanes than a word has bits");
+		}
+	}
+
+	long add(short[] count, long[] rows, long[] results) {
+		int cases = 0;
+		int controls = 0;
+		for (int k = 0; k < rows.length; k++) {
+			long word = rows[k];
+			if (word == 0) continue;
+			if (Long.bitCount(word) < DENSE || (k << 6) + 64 > count.length) {
+				long changed = super.add(count, k, word, results[k]);
+				cases += getCases(changed);
+				controls += getControls(changed);
+				continue;
+			}
+			for (int off = 0; off < 64; off += LANES) {
+				long bits = (word >>> off) & LANE_MASK;
+				if (bits == 0) continue;
+				int i = (k << 6) + off;
+				VectorMask<Short> m = VectorMask.fromLong(SPECIES, bits);
+				ShortVector c = ShortVector.fromArray(SPECIES, count, i);
+				long fresh = c.compare(VectorOperators.EQ, (short)0, m).toLong();
+				c.add((short)1, m).intoArray(count, i);
+				long res = results[k] >>> off;
+				cases += Long.bitCount(fresh & res);
+				controls += Long.bitCount(fresh & ~res);
+			}
+		}
+		return pack(cases, controls);
+	}
+
+	long sub(short[] count, long[] rows, long[] results) {
+		int cases = 0;
+		int controls = 0;
+		for (int k = 0; k < rows.length; k++) {
+			long word = rows[k];
+			if (word == 0) continue;
+			if (Long.bitCount(word) < DENSE || (k << 6) + 64 > count.length) {
+				long changed = super.sub(count, k, word, results[k]);
+				cases += getCases(changed);
+				controls += getControls(changed);
+				continue;
+			}
+			for (int off = 0; off < 64; off += LANES) {
+				long bits = (word >>> off) & LANE_MASK;
+				if (bits == 0) continue;
+				int i = (k << 6) + off;
+				VectorMask<Short> m = VectorMask.fromLong(SPECIES, bits);
+				ShortVector c = ShortVector.fromArray(SPECIES, count, i);
+				long fresh = c.compare(VectorOperators.EQ, (short)1, m).toLong();
+				c.sub((short)1, m).intoArray(count, i);
+				long res = results[k] >>> off;
+				cases += Long.bitCount(fresh & res);
+				controls += Long.bitCount(fresh & ~res);
+			}
+		}
+		return pack(cases, controls);
+	}
+}
@@ -11,6 +11,8 @@
 package freak.module.view;
 
 import freak.core.control.*;
+import freak.core.event.RunEvent;
+import freak.core.event.RunEventListener;
 import freak.core.modulesupport.*;
 import freak.core.modulesupport.inspector.*;
 import freak.core.view.swingsupport.*;
@@ -18,18 +20,29 @@ import freak.core.view.swingsupport.*;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 
 /**
  * An extension of <code>StdView</code> that writes the displayed data into a file.
+ * The data is written through a buffer, which is flushed at most every 
+ * <code>FLUSH_INTERVAL</code> milliseconds and at the end of every run.
  * @author  Dirk, Stefan
  */
-public class FileWriter extends StdView implements Configurable, CustomInspectable {
+public class FileWriter extends StdView implements Configurable, CustomInspectable, RunEventListener {
 	// a counter used to generate unique default file names
 	private static int fileNameCounter = 0;
 
+	// milliseconds between two flushes of the buffer
+	private static final long FLUSH_INTERVAL = 1000;
+	private static final int BUFFER_SIZE = 65536;
+
 	private File file;
 	private long writePosition;
-	private transient RandomAccessFile out;
+	private transient FileChannel channel;
+	private transient Writer out;
+	private transient long lastFlush;
 
 	private FreakTitledBorderModel borderModel = new FreakTitledBorderModel();
 
@@ -54,25 +67,22 @@ public class FileWriter extends StdView implements Configurable, CustomInspectab
 		return "File Writer";
 	}
 
-	public void update(Object o) {
-		super.update(o);
-
+	/**
+	 * Writes the text into the file and displays the last line only.
+	 */
+	protected synchronized void display(String newText) {
 		if (recreate) {
 			recreate = false;
-			
-			try {
-				out = new RandomAccessFile(file, "rw");
-				out.seek(writePosition);
-			} catch (IOException exc) {
-				out = null;
-			}
+			openFile();
 		}
 
 		if (out != null) {
-			String newText = extractTextFromObject(o);
 			try {
-				out.write(encode(newText + "\n"));
-				writePosition = out.getFilePointer();
+				out.write(newText);
+				out.write('\n');
+				if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL) {
+					flushFile();
+				}
 				setText(newText);
 			} catch (IOException exc) {
 				out = null;
@@ -83,6 +93,62 @@ public class FileWriter extends StdView implements Configurable, CustomInspectab
 		}
 	}
 
+	public void runFinalize(RunEvent evt) {
+		synchronized (this) {
+			if (out != null) {
+				try {
+					flushFile();
+				} catch (IOException exc) {
+					out = null;
+				}
+			}
+		}
+	}
+
+	public void createEvents() {
+		super.createEvents();
+		schedule.getEventController().addEvent(this, RunEvent.class, schedule);
+	}
+
+	/**
+	 * Opens the file and continues writing at <code>writePosition</code>.
+	 */
+	private void openFile() {
+		closeFile();
+		try {
+			channel = new RandomAccessFile(file, "rw").getChannel();
+			channel.position(writePosition);
+			out = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset().name()), BUFFER_SIZE);
+			lastFlush = System.currentTimeMillis();
+		} catch (IOException exc) {
+			out = null;
+		}
+	}
+
+	/**
+	 * Writes the buffered data into the file.
+	 */
+	private void flushFile() throws IOException {
+		out.flush();
+		writePosition = channel.position();
+		lastFlush = System.currentTimeMillis();
+	}
+
+	/**
+	 * Writes the buffered data into the file and closes it.
+	 */
+	private synchronized void closeFile() {
+		if (out != null) {
+			try {
+				flushFile();
+				out.close();
+			} catch (IOException exc) {
+			}
+			out = null;
+		}
+		channel = null;
+	}
+
 	public JPanel createPanel() {
 		// TODO Stefan may be headless
 		recreate = true;
@@ -103,6 +169,8 @@ public class FileWriter extends StdView implements Configurable, CustomInspectab
 		if (newFile.equals(file))
 			return;
 
+		// the data written so far belongs to the old file
+		closeFile();
 		file = newFile;
 		if (file.getName().equals("")) {
 			file = createNewFile();
@@ -133,8 +201,7 @@ public class FileWriter extends StdView implements Configurable, CustomInspectab
 
 	public void finalize() throws Throwable {
 		super.finalize();
-		if (out != null)
-			out.close();
+		closeFile();
 	}
 
 	public Inspector getInspector() {
@@ -158,16 +225,4 @@ public class FileWriter extends StdView implements Configurable, CustomInspectab
 
 		return result;
 	}
-
-	private static byte[] encode(String data) {
-		try {
-			ByteArrayOutputStream sink = new ByteArrayOutputStream();
-			OutputStreamWriter push = new OutputStreamWriter(sink);
-			push.write(data);
-			push.close();
-			return sink.toByteArray();
-		} catch (IOException exc) {
-			throw new RuntimeException(exc);
-		}
-	}
 }
@@ -14,7 +14,6 @@ import freak.core.control.ScheduleInterface;
 import freak.core.view.HistoryView;
 import freak.core.view.swingsupport.FreakScrollBarAdjustmentListener;
 import freak.core.view.swingsupport.FreakTextAreaModel;
-import freak.core.view.swingsupport.SlidingWindow;
 import freak.core.view.swingsupport.UpdateManager;
 import freak.module.observer.ResultObserver;
 
@@ -24,18 +23,22 @@ import java.lang.reflect.Array;
 
 public class StdView extends HistoryView {
 	
-	private FreakTextAreaModel model;
+	/**
+	 * The maximal number of lines displayed if all values are to be
+	 * displayed. A note at the top tells how many lines were dropped. The
+	 * output of a <code>ResultObserver</code> is never cut.
+	 */
+	public static final int MAX_DISPLAYED_LINES = 10000;
 	
-	private SlidingWindow stringLengths;
+	private FreakTextAreaModel model;
 	
-	private StringBuffer stringBuffer;
+	private TextWindow window;
 
 	public StdView(ScheduleInterface schedule) {
 		super(schedule);
 		
 		model = new FreakTextAreaModel();
-		stringLengths = new SlidingWindow();
-		stringBuffer = new StringBuffer();
+		window = new TextWindow();
 		numberOfDisplayedValues = 1;
 	}
 
@@ -121,21 +124,32 @@ public class StdView extends HistoryView {
 	public void update(Object o) {
 		super.update(o);
 
-		String newText = extractTextFromObject(o) + "\n";
+		display(extractTextFromObject(o));
+	}
 
-		// add new string
-		stringLengths.add(new Integer(newText.length()));
-		stringBuffer.append(newText);
-		
-		if ((numberOfDisplayedValues != 0)&&(!(getObserver() instanceof ResultObserver))) {
-			// remove first strings if necessary
-			while (stringLengths.size() > numberOfDisplayedValues) {
-				int length = ((Integer)stringLengths.get(0)).intValue();
-				stringBuffer.delete(0, length);
-				stringLengths.removeFirst();
-			}
+	/**
+	 * Displays the text extracted from a received object below the text
+	 * received before. Only the last lines are kept, so the cost does not 
+	 * grow with the number of objects received. The results of a 
+	 * <code>ResultObserver</code> are all kept.
+	 * 
+	 * @param newText the text extracted from the object.
+	 */
+	protected void display(String newText) {
+		int limit;
+		if (getObserver() instanceof ResultObserver) {
+			limit = Integer.MAX_VALUE;
+		} else if (numberOfDisplayedValues == 0) {
+			limit = MAX_DISPLAYED_LINES;
+		} else {
+			limit = numberOfDisplayedValues;
 		}
+		window.add(newText, limit);
 		
-		setText(stringBuffer.toString());
+		if (limit == MAX_DISPLAYED_LINES && window.getDropped() > 0) {
+			setText("(" + window.getDropped() + " earlier lines not displayed)\n" + window.toString());
+		} else {
+			setText(window.toString());
+		}
 	}
 }
\ No newline at end of file
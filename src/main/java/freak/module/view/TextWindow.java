@@ -0,0 +1,80 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.view;
+
+import java.io.Serializable;
+
+/**
+ * The last lines of text received by a view, kept in a ring. Adding a line
+ * takes time proportional to its length, independent of the number of lines
+ * received before. The text is only assembled in <code>toString</code>.
+ */
+class TextWindow implements Serializable {
+
+	private String[] lines = new String[16];
+	// ring index of the oldest line and number of lines
+	private int first;
+	private int count;
+	// number of characters of the text including line breaks
+	private int length;
+	// number of lines removed to keep the limit
+	private long dropped;
+
+	/**
+	 * Appends a line and removes the oldest lines, so that at most
+	 * <code>limit</code> lines remain.
+	 */
+	public void add(String line, int limit) {
+		while (count > 0 && count >= limit) {
+			removeFirst();
+		}
+		if (count == lines.length) {
+			String[] newLines = new String[2 * lines.length];
+			for (int i = 0; i < count; i++) {
+				newLines[i] = lines[(first + i) % lines.length];
+			}
+			lines = newLines;
+			first = 0;
+		}
+		lines[(first + count) % lines.length] = line;
+		count++;
+		length += line.length() + 1;
+	}
+
+	/**
+	 * Returns the number of lines.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of lines removed so far to keep the limits.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Returns the lines, each one terminated by a line break.
+	 */
+	public String toString() {
+		StringBuffer text = new StringBuffer(length);
+		for (int i = 0; i < count; i++) {
+			text.append(lines[(first + i) % lines.length]).append('\n');
+		}
+		return text.toString();
+	}
+
+	private void removeFirst() {
+		length -= lines[first].length() + 1;
+		lines[first] = null;
+		first = (first + 1) % lines.length;
+		count--;
+		dropped++;
+	}
+}
@@ -12,6 +12,7 @@ package freak.module.view.plotter;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * An abstract super class for the plotter's panels.
@@ -47,7 +48,6 @@ public abstract class AbstractPlotterPanel extends JPanel {
 	public void paint(Graphics g) {
 		synchronized (view) {
 			super.paint(g);
-			view.xValues.synchronizeViews();
 		}
 	}
 
@@ -241,6 +241,10 @@ public abstract class AbstractPlotterPanel extends JPanel {
 
 		transient int pointSize;
 
+		// extrema of the rows left out between two drawn rows, one entry per point index
+		transient double[] lows;
+		transient double[] highs;
+
 		private Rectangle bounds;
 
 		transient Graphics graphics;
@@ -264,7 +268,10 @@ public abstract class AbstractPlotterPanel extends JPanel {
 			computeVisibleBounds();
 
 			drawGrid();
-			drawPoints();
+			// the plot area may be repainted without the panel holding the lock
+			synchronized (view) {
+				drawPoints();
+			}
 		}
 
 		void computeVisibleBounds() {
@@ -284,35 +291,76 @@ public abstract class AbstractPlotterPanel extends JPanel {
 			// draw at most 10 point lists between neighbored grid lines
 			int pointXStepWidth = Math.max(1, xAxis.xGenStepWidth / 10);
 
-			PointList oldList = null;
+			PlotSeries series = view.series;
+			if (series == null) return;
+
+			int oldRow = -1;
+			int oldXpos = 0;
 			int xStart = minVisibleX - (minVisibleX % xAxis.xGenStepWidth);
 			
 			for (int i = xStart; i <= maxVisibleX; i += pointXStepWidth) {
-				PointList list = null;
-				try {
-					list = (PointList)view.xValues.get(i - minVisibleX);
-				} catch (RuntimeException ex) {
+				// the rows from row to end are drawn as one
+				int row = series.indexOfX(i);
+				int end = series.indexOfX(Math.min(i + pointXStepWidth, maxVisibleX + 1));
+				if (row == end) continue;
+
+				int length = series.getLength(row);
+				int xpos = computeDisplayXCoordinate(series.getX(row));
+				if (end - row > 1) {
+					drawExtrema(series, row, end, xpos);
 				}
-				if (list != null) {
-					for (int j = 0; j < list.data.length; j++) {
-						drawPoint(list.data[j]);
-						if (view.showLines && (oldList != null) && (j < oldList.data.length)) {
-							graphics.setColor(getColorForPointIndex(j, list.data.length));
-							graphics.drawLine(oldList.data[j].xpos, oldList.data[j].ypos, list.data[j].xpos, list.data[j].ypos);
-							graphics.setColor(view.pointColor);
-						}
+				for (int j = 0; j < length; j++) {
+					int ypos = computeDisplayYCoordinate(series.getValue(row, j));
+					drawPoint(xpos, ypos);
+					if (view.showLines && (oldRow != -1) && (j < series.getLength(oldRow))) {
+						graphics.setColor(getColorForPointIndex(j, length));
+						graphics.drawLine(oldXpos, computeDisplayYCoordinate(series.getValue(oldRow, j)), xpos, ypos);
+						graphics.setColor(view.pointColor);
 					}
-					oldList = list;
 				}
+				oldRow = row;
+				oldXpos = xpos;
 			}
 		}
 
-		void drawPoint(Point point) {
-			point.xpos = computeDisplayXCoordinate((int)point.x);
-			point.ypos = computeDisplayYCoordinate(point.y);
+		/**
+		 * Draws a vertical bar from the minimum to the maximum of every point
+		 * index over the rows from <code>row</code> (included) to 
+		 * <code>end</code> (excluded), so extreme values of rows that are 
+		 * not drawn remain visible.
+		 */
+		void drawExtrema(PlotSeries series, int row, int end, int xpos) {
+			int length = 0;
+			for (int r = row; r < end; r++) {
+				length = Math.max(length, series.getLength(r));
+			}
+			if (lows == null || lows.length < length) {
+				lows = new double[length];
+				highs = new double[length];
+			}
+			Arrays.fill(lows, 0, length, Double.POSITIVE_INFINITY);
+			Arrays.fill(highs, 0, length, Double.NEGATIVE_INFINITY);
+			for (int r = row; r < end; r++) {
+				for (int j = 0; j < series.getLength(r); j++) {
+					double value = series.getValue(r, j);
+					if (value < lows[j]) lows[j] = value;
+					if (value > highs[j]) highs[j] = value;
+				}
+			}
+			for (int j = 0; j < length; j++) {
+				if (lows[j] < highs[j]) {
+					if (view.showLines) {
+						graphics.setColor(getColorForPointIndex(j, length));
+					}
+					graphics.drawLine(xpos, computeDisplayYCoordinate(highs[j]), xpos, computeDisplayYCoordinate(lows[j]));
+				}
+			}
+			graphics.setColor(view.pointColor);
+		}
 
-			graphics.drawLine(point.xpos - pointSize, point.ypos - pointSize, point.xpos + pointSize, point.ypos + pointSize);
-			graphics.drawLine(point.xpos - pointSize, point.ypos + pointSize, point.xpos + pointSize, point.ypos - pointSize);
+		void drawPoint(int xpos, int ypos) {
+			graphics.drawLine(xpos - pointSize, ypos - pointSize, xpos + pointSize, ypos + pointSize);
+			graphics.drawLine(xpos - pointSize, ypos + pointSize, xpos + pointSize, ypos - pointSize);
 		}
 
 		void drawGrid() {
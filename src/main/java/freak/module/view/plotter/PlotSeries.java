@@ -0,0 +1,222 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.view.plotter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The points displayed by the plotter. All values received at the same x
+ * value form a row. The rows are kept in ring buffers of primitive values in
+ * the order they were added, so the x values are nondecreasing.
+ * <p>
+ * A segment tree over the rows holds the minimum and maximum of every row,
+ * so adding or removing a row with k values costs O(k + log n) and the
+ * extrema of all values are available in constant time.
+ */
+class PlotSeries implements Serializable {
+
+	// x value, index of the first value in values and number of values of the rows
+	private int[] rowX;
+	private int[] rowStart;
+	private int[] rowLength;
+	// ring index of the oldest row and number of rows
+	private int firstRow;
+	private int rows;
+
+	// ring of the values of all rows, in the order of the rows
+	private double[] values;
+	private int firstValue;
+	private int valueCount;
+
+	// segment tree over the row slots, the leaf of slot s is at index rowX.length + s
+	private double[] min;
+	private double[] max;
+
+	public PlotSeries() {
+		rowX = new int[16];
+		rowStart = new int[16];
+		rowLength = new int[16];
+		values = new double[64];
+		buildTree();
+	}
+
+	/**
+	 * Appends a row. The x value must not be smaller than the x value of the
+	 * last row.
+	 */
+	public void add(int x, double[] data) {
+		if (rows == rowX.length) growRows();
+		if (valueCount + data.length > values.length) growValues(valueCount + data.length);
+
+		int slot = (firstRow + rows) % rowX.length;
+		int start = (firstValue + valueCount) % values.length;
+		double low = Double.POSITIVE_INFINITY;
+		double high = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < data.length; i++) {
+			values[(start + i) % values.length] = data[i];
+			low = Math.min(low, data[i]);
+			high = Math.max(high, data[i]);
+		}
+		rowX[slot] = x;
+		rowStart[slot] = start;
+		rowLength[slot] = data.length;
+		rows++;
+		valueCount += data.length;
+		setLeaf(slot, low, high);
+	}
+
+	/**
+	 * Removes the oldest row.
+	 */
+	public void removeFirst() {
+		if (rows == 0) return;
+		firstValue = (firstValue + rowLength[firstRow]) % values.length;
+		valueCount -= rowLength[firstRow];
+		setLeaf(firstRow, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+		firstRow = (firstRow + 1) % rowX.length;
+		rows--;
+	}
+
+	/**
+	 * Removes all rows with an x value smaller than the specified one.
+	 */
+	public void removeBefore(int x) {
+		while (rows > 0 && rowX[firstRow] < x) {
+			removeFirst();
+		}
+	}
+
+	/**
+	 * Returns the number of rows.
+	 */
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * Returns the x value of the specified row. Row 0 is the oldest one.
+	 */
+	public int getX(int row) {
+		return rowX[slot(row)];
+	}
+
+	/**
+	 * Returns the number of values in the specified row.
+	 */
+	public int getLength(int row) {
+		return rowLength[slot(row)];
+	}
+
+	/**
+	 * Returns the i-th value of the specified row.
+	 */
+	public double getValue(int row, int i) {
+		return values[(rowStart[slot(row)] + i) % values.length];
+	}
+
+	/**
+	 * Returns the index of the first row with an x value not smaller than
+	 * the specified one or <code>size()</code> if there is none.
+	 */
+	public int indexOfX(int x) {
+		int low = 0;
+		int high = rows;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getX(mid) < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the smallest value of all rows, or positive infinity if there
+	 * are no values.
+	 */
+	public double getMin() {
+		return min[1];
+	}
+
+	/**
+	 * Returns the largest value of all rows, or negative infinity if there
+	 * are no values.
+	 */
+	public double getMax() {
+		return max[1];
+	}
+
+	private int slot(int row) {
+		return (firstRow + row) % rowX.length;
+	}
+
+	private void setLeaf(int slot, double low, double high) {
+		int node = rowX.length + slot;
+		min[node] = low;
+		max[node] = high;
+		for (node >>= 1; node > 0; node >>= 1) {
+			min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+			max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+		}
+	}
+
+	// builds the tree from the rows, which start at slot 0
+	private void buildTree() {
+		int capacity = rowX.length;
+		min = new double[2 * capacity];
+		max = new double[2 * capacity];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		for (int slot = 0; slot < rows; slot++) {
+			for (int i = 0; i < rowLength[slot]; i++) {
+				double value = values[(rowStart[slot] + i) % values.length];
+				min[capacity + slot] = Math.min(min[capacity + slot], value);
+				max[capacity + slot] = Math.max(max[capacity + slot], value);
+			}
+		}
+		for (int node = capacity - 1; node > 0; node--) {
+			min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+			max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+		}
+	}
+
+	// doubles the number of row slots and moves the oldest row to slot 0
+	private void growRows() {
+		int capacity = 2 * rowX.length;
+		int[] newX = new int[capacity];
+		int[] newStart = new int[capacity];
+		int[] newLength = new int[capacity];
+		for (int row = 0; row < rows; row++) {
+			int slot = slot(row);
+			newX[row] = rowX[slot];
+			newStart[row] = rowStart[slot];
+			newLength[row] = rowLength[slot];
+		}
+		rowX = newX;
+		rowStart = newStart;
+		rowLength = newLength;
+		firstRow = 0;
+		buildTree();
+	}
+
+	// enlarges the value ring to hold at least the specified number of values
+	private void growValues(int needed) {
+		double[] newValues = new double[Math.max(needed, 2 * values.length)];
+		for (int i = 0; i < valueCount; i++) {
+			newValues[i] = values[(firstValue + i) % values.length];
+		}
+		for (int row = 0; row < rows; row++) {
+			int slot = slot(row);
+			rowStart[slot] = (rowStart[slot] - firstValue + values.length) % values.length;
+		}
+		values = newValues;
+		firstValue = 0;
+	}
+}
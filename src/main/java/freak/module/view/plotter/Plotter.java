@@ -19,13 +19,11 @@ import freak.core.observer.Observer;
 import freak.core.view.HistoryView;
 import freak.core.view.ObserverUnknownException;
 import freak.core.view.swingsupport.FreakSwingModel;
-import freak.core.view.swingsupport.SlidingWindow;
 import freak.core.view.swingsupport.UpdateManager;
 
 import javax.swing.*;
 import java.awt.*;
 import java.lang.reflect.Array;
-import java.util.TreeSet;
 
 /**
  * A Plotter displaying the received numbers over time. The y-axis shows the values of the numbers received and the x-axis shows the current time scale. Thus, the x values are supposed to be nondecreasing; else, an <code>DecreasingXValuesException</code> is thrown.
@@ -48,14 +46,9 @@ public class Plotter extends HistoryView implements FreakSwingModel, BatchEventL
 	Color pointColor;
 
 	/**
-	 * Contains the currently displayed points mapped by their x values.
+	 * Contains the currently displayed points in rows of equal x values.
 	 */
-	SlidingWindow xValues;
-
-	/**
-	 * Contains the currently displayed points sorted by their y values.
-	 */
-	TreeSet yValues;
+	PlotSeries series;
 
 	/**
 	 * Specifies if the y axis is to be shrunk automatically.
@@ -256,44 +249,23 @@ public class Plotter extends HistoryView implements FreakSwingModel, BatchEventL
 	 * b (excluded).
 	 */
 	private void removePointsInInterval(int a, int b) {
-		if (a < b && xValues != null && yValues != null) {
+		if (a < b && series != null) {
 			// remove points from data structures
-			while (xValues.size() > 0 && ((PointList)xValues.get(0)).x < b) {
-				PointList oldPoints = (PointList) xValues.get(0);
-
-				xValues.removeFirst();
-
-				for (int i = 0; i < oldPoints.data.length; i++) {
-					yValues.remove(oldPoints.data[i]);
-				}
-			}
+			series.removeBefore(b);
 			
 			// re-adjust y axis if shrinkYAxis is set
-			if (shrinkYAxis && yValues.size() > 0) {
-				adjustYAxis(
-					((Point) yValues.first()).y,
-					((Point) yValues.last()).y);
+			if (shrinkYAxis && series.getMin() <= series.getMax()) {
+				adjustYAxis(series.getMin(), series.getMax());
 			}
 		}
 	}
 
 	private void addPoints(int x, double[] data) {
-		// create Points
-		Point[] points = new Point[data.length];
-		for (int i = 0; i < data.length; i++) {
-			points[i] = new Point(x, data[i]);
-			addPoint(points[i]);
-		}
-		// create PointList and add it to xValues
-		PointList list = new PointList(x, points);
-		xValues.add(list);
-	}
-
-	private void addPoint(Point point) {
-		yValues.add(point);
+		series.add(x, data);
+		if (data.length == 0) return;
 
-		double lowestValue = ((Point) yValues.first()).y;
-		double highestValue = ((Point) yValues.last()).y;
+		double lowestValue = series.getMin();
+		double highestValue = series.getMax();
 
 		if (shrinkYAxis) {
 			adjustYAxis(lowestValue, highestValue);
@@ -308,8 +280,7 @@ public class Plotter extends HistoryView implements FreakSwingModel, BatchEventL
 	 * Clears and resets the plotter.
 	 */
 	public void clearData() {
-		xValues = new SlidingWindow();
-		yValues = new TreeSet();
+		series = new PlotSeries();
 	}
 	
 	public void initAxes() throws ObserverUnknownException, NullPointerException {
@@ -0,0 +1,265 @@
+package org.jgraph.layout;
+
+/**
+ * Quadtree over the positions of the vertices for the Barnes-Hut
+ * approximation of repulsive forces.<br>
+ *
+ * Every vertex has mass 1. A square of the tree is replaced by its center
+ * of mass, if its side length divided by the distance to the center of
+ * mass is less than theta. The tree is built in O(n log n) for evenly
+ * spread vertices, a force query takes O(log n). Theta 0 gives the exact
+ * sum over all vertices.<br>
+ *
+ * The tree is a snapshot: it does not follow later changes of the
+ * positions.
+ */
+public class BarnesHutTree {
+
+	/** Squares are not split below this depth. The vertices in a
+	 *  square of maximal depth are chained.
+	 */
+	private static final int MAX_DEPTH = 32;
+
+	/** positions of the vertices */
+	private final double[] x;
+	private final double[] y;
+
+	/** next vertex in the same leaf or -1 */
+	private final int[] next;
+
+	/** first child of each node (four in a row) or -1 for a leaf */
+	private int[] firstChild;
+
+	/** first vertex of a leaf or -1 */
+	private int[] first;
+
+	/** lower left corner and side length of each square */
+	private double[] minX;
+	private double[] minY;
+	private double[] size;
+
+	/** number of vertices and center of mass of each square */
+	private int[] mass;
+	private double[] centerX;
+	private double[] centerY;
+
+	private int nodes;
+
+	/**
+	 * Builds the tree for the given positions. The arrays are copied.
+	 */
+	public BarnesHutTree(double[] x, double[] y) {
+		int n = x.length;
+		this.x = (double[]) x.clone();
+		this.y = (double[]) y.clone();
+		next = new int[n];
+
+		int capacity = Math.max(16, 2 * n);
+		firstChild = new int[capacity];
+		first = new int[capacity];
+		minX = new double[capacity];
+		minY = new double[capacity];
+		size = new double[capacity];
+
+		// the bounding square of all positions
+		double left = Double.POSITIVE_INFINITY;
+		double bottom = Double.POSITIVE_INFINITY;
+		double right = Double.NEGATIVE_INFINITY;
+		double top = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			left = Math.min(left, x[i]);
+			right = Math.max(right, x[i]);
+			bottom = Math.min(bottom, y[i]);
+			top = Math.max(top, y[i]);
+		}
+		if (n == 0) {
+			left = bottom = right = top = 0;
+		}
+		// slightly larger, so the upper bounds are inside
+		double side = Math.max(Math.max(right - left, top - bottom), 1.0) * 1.0001;
+		newNode(left, bottom, side);
+
+		for (int i = 0; i < n; i++)
+			insert(i);
+
+		mass = new int[nodes];
+		centerX = new double[nodes];
+		centerY = new double[nodes];
+		computeCenters(0);
+	}
+
+	private int newNode(double left, double bottom, double side) {
+		if (nodes == firstChild.length) {
+			int capacity = 2 * nodes;
+			firstChild = grow(firstChild, capacity);
+			first = grow(first, capacity);
+			minX = grow(minX, capacity);
+			minY = grow(minY, capacity);
+			size = grow(size, capacity);
+		}
+		firstChild[nodes] = -1;
+		first[nodes] = -1;
+		minX[nodes] = left;
+		minY[nodes] = bottom;
+		size[nodes] = side;
+		return nodes++;
+	}
+
+	private void insert(int vertex) {
+		int node = 0;
+		for (int depth = 0;; depth++) {
+			if (firstChild[node] == -1) {
+				int other = first[node];
+				if (other == -1
+					|| depth == MAX_DEPTH
+					|| (x[other] == x[vertex] && y[other] == y[vertex])) {
+					next[vertex] = other;
+					first[node] = vertex;
+					return;
+				}
+				// split the leaf and move its vertex down
+				double half = size[node] / 2;
+				int child = newNode(minX[node], minY[node], half);
+				newNode(minX[node] + half, minY[node], half);
+				newNode(minX[node], minY[node] + half, half);
+				newNode(minX[node] + half, minY[node] + half, half);
+				firstChild[node] = child;
+				first[node] = -1;
+				int quadrant = child + quadrant(node, other);
+				first[quadrant] = other;
+			}
+			node = firstChild[node] + quadrant(node, vertex);
+		}
+	}
+
+	private int quadrant(int node, int vertex) {
+		double half = size[node] / 2;
+		int quadrant = 0;
+		if (x[vertex] >= minX[node] + half)
+			quadrant += 1;
+		if (y[vertex] >= minY[node] + half)
+			quadrant += 2;
+		return quadrant;
+	}
+
+	private void computeCenters(int node) {
+		double sumX = 0;
+		double sumY = 0;
+		int count = 0;
+		if (firstChild[node] == -1) {
+			for (int v = first[node]; v != -1; v = next[v]) {
+				sumX += x[v];
+				sumY += y[v];
+				count++;
+			}
+		} else {
+			for (int c = firstChild[node]; c < firstChild[node] + 4; c++) {
+				computeCenters(c);
+				sumX += centerX[c] * mass[c];
+				sumY += centerY[c] * mass[c];
+				count += mass[c];
+			}
+		}
+		mass[node] = count;
+		if (count > 0) {
+			centerX[node] = sumX / count;
+			centerY[node] = sumY / count;
+		}
+	}
+
+	/**
+	 * Returns the number of vertices.
+	 */
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * Returns the x coordinate of the barycenter of all vertices.
+	 */
+	public double getBarycenterX() {
+		return centerX[0];
+	}
+
+	/**
+	 * Returns the y coordinate of the barycenter of all vertices.
+	 */
+	public double getBarycenterY() {
+		return centerY[0];
+	}
+
+	/**
+	 * Sums (p - q) / |p - q|^2 over the positions q of all vertices
+	 * except <code>self</code>, where p is the given point. Vertices closer
+	 * than <code>minDistance</code> to p are left out. The sum is
+	 * approximated as described above.
+	 *
+	 * @param self index of the vertex at p or -1
+	 * @param result receives the x and y component of the sum
+	 */
+	public void repulsion(
+		double px,
+		double py,
+		int self,
+		double theta,
+		double minDistance,
+		double[] result) {
+
+		double sumX = 0;
+		double sumY = 0;
+		double min2 = minDistance * minDistance;
+		double theta2 = theta * theta;
+		int[] stack = new int[4 * MAX_DEPTH + 4];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (mass[node] == 0)
+				continue;
+			if (firstChild[node] == -1) {
+				for (int v = first[node]; v != -1; v = next[v]) {
+					if (v == self)
+						continue;
+					double dx = px - x[v];
+					double dy = py - y[v];
+					double d2 = dx * dx + dy * dy;
+					if (d2 > min2) {
+						sumX += dx / d2;
+						sumY += dy / d2;
+					}
+				}
+				continue;
+			}
+			double dx = px - centerX[node];
+			double dy = py - centerY[node];
+			double d2 = dx * dx + dy * dy;
+			boolean inside =
+				px >= minX[node]
+					&& px <= minX[node] + size[node]
+					&& py >= minY[node]
+					&& py <= minY[node] + size[node];
+			if (!inside && d2 > min2 && size[node] * size[node] < theta2 * d2) {
+				// far away, the square acts as one heavy vertex
+				sumX += mass[node] * dx / d2;
+				sumY += mass[node] * dy / d2;
+			} else {
+				for (int c = firstChild[node]; c < firstChild[node] + 4; c++)
+					stack[top++] = c;
+			}
+		}
+		result[0] = sumX;
+		result[1] = sumY;
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int[] result = new int[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+	private static double[] grow(double[] array, int capacity) {
+		double[] result = new double[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
@@ -6,11 +6,14 @@ import java.awt.Frame;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 
+import javax.swing.SwingUtilities;
+
 import org.jgraph.JGraph;
 import org.jgraph.event.GraphModelEvent;
 import org.jgraph.event.GraphModelListener;
@@ -400,6 +403,42 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
     private double perimeterSizeInc;
     
     private boolean isDebugging = false;
+
+    /**
+     * Milliseconds between two intermediate layouts shown while the algorithm
+     * runs outside the event dispatch thread.
+     */
+    protected static final long UPDATE_INTERVAL = 250;
+
+    /**
+     * Barnes-Hut theta for the repulsive forces. 0.0 computes the forces
+     * between all pairs of cells.
+     */
+    private double theta;
+
+    /**
+     * Quadtree over the positions of the cells in {@link #cellList} at the
+     * start of the current round of {@link #calculate()}. <b>null</b>, if the
+     * repulsive forces are computed exactly.
+     */
+    private BarnesHutTree tree;
+
+    /**
+     * Index of every cell of {@link #cellList} in {@link #tree}.
+     */
+    private Hashtable treeIndex;
+
+    /**
+     * The cells of {@link #cellList} while {@link #tree} is used.
+     */
+    private HashSet cellSet;
+
+    /**
+     * Sum of the positions of the cells in {@link #cellList} while 
+     * {@link #tree} is used. Kept up to date in 
+     * {@link #updatePosAndTemp(CellView)}.
+     */
+    private double sumX, sumY;
         
 /******************************************************************************/
 /**
@@ -460,6 +499,8 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
         //sets the calculated data into cellView's bounds if not canceled
         if( !isCanceled ) 
             isCanceled = setNewCoordinates(jgraph);
+        else if( !SwingUtilities.isEventDispatchThread() )
+            restoreViews();
                     
         //removes the temporary data, stored by the algorithm, from the nodes
         removeTemporaryLayoutDataFromCells();
@@ -495,6 +536,10 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
                                   
         layoutUpdateMethod = (String) 
                        config.get(GEMLayoutController.KEY_LAYOUT_UPDATE_METHOD);
+
+        //configurations without theta get the default value
+        String thetaValue = (String) config.get(GEMLayoutController.KEY_THETA);
+        theta = thetaValue == null ? 0.5 : Double.parseDouble(thetaValue);
             
         if( valueID == VALUES_PUR ){
         
@@ -737,12 +782,20 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
             for( int i = 0; i < length; i++ )
                 sequence[i] = i;
         
+        //intermediate layouts are shown, if the event dispatch thread is free
+        boolean isProgressive = !SwingUtilities.isEventDispatchThread();
+        long lastUpdate = System.currentTimeMillis();
+        
         while( !isFrozen() && countRounds <= maxRounds && (!isCanceled) ){
 
             //case permutation is desired, it's calculated every round
             if( shouldComputePermutation ) 
                 sequence = createPermutation(length);
 
+            //the repulsive forces of this round are approximated
+            if( theta > 0.0 )
+                buildTree();
+
             //loop over all nodes (order is in sequence)
             for( int i = 0; i < sequence.length; i++ ){
                 CellView view = (CellView) applyCellList.get(sequence[i]);
@@ -752,13 +805,52 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
                 
                 if( updateProgressDialog(PHASE_CALCULATION,
                                          (countRounds*sequence.length)+i,
-                                         maxRounds*sequence.length ) )
-                    return true;
+                                         maxRounds*sequence.length ) ){
+                    isCanceled = true;
+                    break;
+                }
             }
             countRounds++;
+            
+            if( isProgressive && !isCanceled &&
+                System.currentTimeMillis() - lastUpdate >= UPDATE_INTERVAL ){
+                showIntermediateLayout();
+                lastUpdate = System.currentTimeMillis();
+            }
+        }
+        tree      = null;
+        treeIndex = null;
+        cellSet   = null;
+        return isCanceled;
+    }
+
+/******************************************************************************/
+/**
+ * Builds {@link #tree} over the current positions of the cells in 
+ * {@link #cellList}. The tree is used for the repulsive forces until the next
+ * call, so the cells moved during a round are seen at their old positions.
+ */
+    private void buildTree(){
+        
+        int length = cellList.size();
+        double[] x = new double[length];
+        double[] y = new double[length];
+        treeIndex = new Hashtable();
+        cellSet   = new HashSet(cellList);
+        sumX = 0.0;
+        sumY = 0.0;
         
+        for( int i = 0; i < length; i++ ){
+            CellView view = (CellView) cellList.get(i);
+            initPosition(view);
+            Point2D.Double pos = getPosition(view);
+            x[i] = pos.x;
+            y[i] = pos.y;
+            sumX += pos.x;
+            sumY += pos.y;
+            treeIndex.put(view, new Integer(i));
         }
-        return false;
+        tree = new BarnesHutTree(x, y);
     }
 /******************************************************************************/
 /**
@@ -839,7 +931,12 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
         double massIndex = getNodeWeight(view);
             
         //gets the barycenter of all cells
-        Point2D.Double barycenter = computeBarycenter(cellList);
+        Point2D.Double barycenter;
+        if( tree != null )
+            barycenter = new Point2D.Double(sumX/((double)cellList.size()),
+                                            sumY/((double)cellList.size()));
+        else
+            barycenter = computeBarycenter(cellList);
         
         //attracting force from the barycenter to every cell
         Point2D.Double gravitationForce = new Point2D.Double(
@@ -852,6 +949,18 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
         //repulsive Forces
         //from all nodes
         ArrayList repulsiveForce = new ArrayList();
+        if( tree != null ){
+            //Barnes-Hut approximation of the sum over all nodes
+            Integer index = (Integer) treeIndex.get(view);
+            double[] force = new double[2];
+            tree.repulsion(pos.getX(), pos.getY(), 
+                           index == null ? -1 : index.intValue(),
+                           theta, equalsNull, force);
+            repulsiveForce.add(new Point2D.Double(
+                force[0] * prefEdgeLength * prefEdgeLength,
+                force[1] * prefEdgeLength * prefEdgeLength));
+        }
+        else
         for( int i = 0 ; i < cellList.size(); i++ ) 
             if( cellList.get(i) != view ){//all cells except the actual view
 //                CellView uView = (CellView) cellList.get(i);
@@ -1057,6 +1166,10 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
             }
                                  
             view.getAttributes().put(KEY_CURRENT_IMPULSE,impulse);
+            if( tree != null && cellSet.contains(view) ){
+                sumX += impulse.getX();
+                sumY += impulse.getY();
+            }
             position.setLocation(position.getX()+impulse.getX(),
                                  position.getY()+impulse.getY());
             view.getAttributes().put(KEY_POSITION,position);
@@ -1130,8 +1243,10 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
     private ArrayList getRelativesFrom(ArrayList list, CellView view){
         ArrayList relatives = getRelatives(view);
         ArrayList result    = new ArrayList();
+        boolean useSet = cellSet != null && list == cellList;
         for( int i = 0; i < relatives.size(); i++ )
-            if( list.contains(relatives.get(i)) )
+            if( useSet ? cellSet.contains(relatives.get(i)) 
+                       : list.contains(relatives.get(i)) )
                 result.add(relatives.get(i));
         return result;
     }
@@ -1269,7 +1384,7 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
         for( int i = 0; i < cellList.size(); i++ ){
             
             Point2D.Double pos  = getPosition(i,cellList);
-            Rectangle r = ((CellView)cellList.get(i)).getBounds();
+            Rectangle r = new Rectangle(((CellView)cellList.get(i)).getBounds());
 
             r.x = (int) (pos.getX() - ((double)r.width /2.0));
             r.y = (int) (pos.getY() - ((double)r.height/2.0));
@@ -1287,12 +1402,93 @@ public class GEMLayoutAlgorithm implements LayoutAlgorithm, GraphModelListener {
 //                return true;
         }
         
-        jgraph.getGraphLayoutCache().edit(viewMap,null,null,null);
+        edit(viewMap);
         
         
         return false;
     }
 
+/******************************************************************************/
+/**
+ * Applies the given attributes to the graph in the event dispatch thread.
+ * Edits posted from another thread are applied in their order.
+ */
+    private void edit(final Map viewMap){
+        
+        final JGraph graph = jgraph;
+        if( SwingUtilities.isEventDispatchThread() )
+            graph.getGraphLayoutCache().edit(viewMap,null,null,null);
+        else
+            SwingUtilities.invokeLater(new Runnable(){
+                public void run(){
+                    graph.getGraphLayoutCache().edit(viewMap,null,null,null);
+                }
+            });
+    }
+
+/******************************************************************************/
+/**
+ * Shows the current positions, moved to the upper left corner, in the event
+ * dispatch thread. Only the views are changed, so the model and its undo
+ * history keep the layout until {@link #setNewCoordinates(JGraph)}.
+ */
+    private void showIntermediateLayout(){
+        
+        Rectangle boundingBox = getBoundingBox();
+        final CellView[] views = new CellView[cellList.size()];
+        final Rectangle[] bounds = new Rectangle[cellList.size()];
+        for( int i = 0; i < cellList.size(); i++ ){
+            
+            Point2D.Double pos = getPosition(i,cellList);
+            views[i] = (CellView) cellList.get(i);
+            Rectangle r = new Rectangle(views[i].getBounds());
+            
+            r.x = (int) (pos.getX() - boundingBox.getX() - ((double)r.width /2.0));
+            r.y = (int) (pos.getY() - boundingBox.getY() - ((double)r.height/2.0));
+            bounds[i] = r;
+        }
+        final CellView[] edges = (CellView[]) 
+                                 edgeList.toArray(new CellView[edgeList.size()]);
+        final JGraph graph = jgraph;
+        
+        SwingUtilities.invokeLater(new Runnable(){
+            public void run(){
+                for( int i = 0; i < views.length; i++ )
+                    if( views[i] instanceof VertexView ){
+                        ((VertexView) views[i]).setCachedBounds(bounds[i]);
+                        views[i].childUpdated();
+                    }
+                for( int i = 0; i < edges.length; i++ )
+                    edges[i].update();
+                graph.repaint();
+            }
+        });
+    }
+
+/******************************************************************************/
+/**
+ * Resets the views to the bounds of the model after a canceled run, that has
+ * shown intermediate layouts.
+ */
+    private void restoreViews(){
+        
+        final CellView[] views = (CellView[]) 
+                                 cellList.toArray(new CellView[cellList.size()]);
+        final CellView[] edges = (CellView[]) 
+                                 edgeList.toArray(new CellView[edgeList.size()]);
+        final JGraph graph = jgraph;
+        
+        SwingUtilities.invokeLater(new Runnable(){
+            public void run(){
+                for( int i = 0; i < views.length; i++ )
+                    views[i].update();
+                for( int i = 0; i < edges.length; i++ )
+                    edges[i].update();
+                graph.repaint();
+            }
+        });
+    }
+
 /******************************************************************************/
 /**
  * Clears the temporary data from the cells in {@link #cellList} (all cells).
@@ -45,6 +45,7 @@ public class GEMLayoutController implements LayoutController {
     public final static String KEY_SIGMA_ROT                   = "sigma rotation";
     public final static String KEY_OPTIMIZE_ALGORITHM_ENABLED  = "optimization algorithm enabled";
     public final static String KEY_OPTIMIZE_ALGORITHM_CONFIG   = "optimization algorithm configuration";
+    public final static String KEY_THETA                       = "Barnes-Hut theta";
 
     public final static String KEY_LAYOUT_UPDATE_INIT_TEMPERATURE            = "Layout Update init temperature";
     public final static String KEY_LAYOUT_UPDATE_MIN_TEMPERATURE             = "Layout Update min temperature";
@@ -130,6 +131,7 @@ public class GEMLayoutController implements LayoutController {
         configs[0].put(KEY_SIGMA_ROT             ,String.valueOf(1.0/2.0)); //as smaller this value is, the smaller the temperature alteration
         configs[0].put(KEY_OPTIMIZE_ALGORITHM_ENABLED,"false");
         configs[0].put(KEY_OPTIMIZE_ALGORITHM_CONFIG,optimizeConfig.clone());
+        configs[0].put(KEY_THETA                 , "0.5"   ); //0.0 computes the repulsive forces exactly
         
         configs[0].put(KEY_LAYOUT_UPDATE_INIT_TEMPERATURE      ,"10.0");
         configs[0].put(KEY_LAYOUT_UPDATE_MIN_TEMPERATURE       ,"3.0");
@@ -176,6 +178,7 @@ public class GEMLayoutController implements LayoutController {
         configs[1].put(KEY_SIGMA_ROT             ,String.valueOf(1.0/5.0));
         configs[1].put(KEY_OPTIMIZE_ALGORITHM_ENABLED,"false");
         configs[1].put(KEY_OPTIMIZE_ALGORITHM_CONFIG,optimizeConfig.clone());
+        configs[1].put(KEY_THETA                 , "0.5"   );
         
         configs[1].put(KEY_LAYOUT_UPDATE_INIT_TEMPERATURE      ,"100.0");
         configs[1].put(KEY_LAYOUT_UPDATE_MIN_TEMPERATURE       ,"2.0");
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 
+import javax.swing.SwingUtilities;
+
 import org.jgraph.JGraph;
 import org.jgraph.graph.CellMapper;
 import org.jgraph.graph.CellView;
@@ -40,7 +42,13 @@ import org.jgraph.graph.VertexView;
 /**
  * Arranges the nodes with the Spring Embedded Layout Algorithm.<br>
  *
- * The algorithm takes O(|V|^2 * |E|) time.
+ * The algorithm takes O(|V|^2 * |E|) time. With the Barnes-Hut
+ * approximation of the repulsive forces (see {@link #KEY_THETA}) an
+ * iteration takes O(|V| log |V| + |E|) time.
+ *
+ * If the algorithm is performed outside the event dispatch thread,
+ * the intermediate layout is shown from time to time and the graph is
+ * only changed in the event dispatch thread.
  *
  *
  *<br>
@@ -61,6 +69,20 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 	 */
 	public static final String SPRING_EMBEDDED_POS = "SpringEmbeddedPos";
 
+	/** Key for the configuration. The value is the theta of the
+	 *  Barnes-Hut approximation of the repulsive forces as a String.
+	 *  "0" computes the exact forces between all pairs of vertices.
+	 */
+	public static final String KEY_THETA = "Barnes-Hut theta";
+
+	/** Default value for {@link #KEY_THETA}
+	 */
+	public static final String DEFAULT_THETA = "0.5";
+
+	/** Milliseconds between two intermediate layouts shown
+	 */
+	protected static final long UPDATE_INTERVAL = 250;
+
 	/** Progressbar is shown while the algorithm is running
 	 */
 	protected ProgressDialog dlgProgress =
@@ -188,6 +210,14 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 		// calculate the field length for the area
 		double k = Math.sqrt((area) / ((double) V.size()));
 
+		double theta =
+			Double.parseDouble(
+				configuration == null
+					? DEFAULT_THETA
+					: configuration.getProperty(KEY_THETA, DEFAULT_THETA));
+		boolean isProgressive = !SwingUtilities.isEventDispatchThread();
+		long lastUpdate = System.currentTimeMillis();
+
 		int iterations = 100;
 		for (int i = 0; i < iterations; i++) {
 			dlgProgress.setValue(i);
@@ -201,6 +231,8 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 				}
 
 				dlgProgress.setVisible(false);
+				if (isProgressive)
+					restore(jgraph, V, E);
 				return;
 			}
 
@@ -209,7 +241,9 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 			//---------------------------------------------------------------------------
 
 			// calculate the repulsive forces
-			for (int vCount = 0; vCount < V.size(); vCount++) {
+			if (theta > 0)
+				calculateRepulsiveForces(V, k, theta);
+			else for (int vCount = 0; vCount < V.size(); vCount++) {
 				VertexView v = (VertexView) V.get(vCount);
 				Rectangle vPos =
 					(Rectangle) v.getAttributes().get(SPRING_EMBEDDED_POS);
@@ -343,11 +377,64 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 
 			}
 
+			// show the intermediate layout
+			if (isProgressive
+				&& System.currentTimeMillis() - lastUpdate >= UPDATE_INTERVAL) {
+				preview(jgraph, createViewMap(V, selectionFrame, false), V, E);
+				lastUpdate = System.currentTimeMillis();
+			}
+
 		}
 
 		// sets the progress dialog unvisible
 		dlgProgress.setVisible(false);
 
+		//---------------------------------------------------------------------------
+		// draw the graph
+		//---------------------------------------------------------------------------
+		Map viewMap = createViewMap(V, selectionFrame, true);
+		for (int i = 0; i < E.size(); i++) {
+			((CellView) E.get(i)).update();
+		}
+		edit(jgraph, viewMap);
+	}
+
+	/** Calculates the repulsive forces with the Barnes-Hut
+	 *  approximation and stores them as displacements.
+	 */
+	protected void calculateRepulsiveForces(List V, double k, double theta) {
+		double[] x = new double[V.size()];
+		double[] y = new double[V.size()];
+		for (int vCount = 0; vCount < V.size(); vCount++) {
+			VertexView v = (VertexView) V.get(vCount);
+			Rectangle vPos =
+				(Rectangle) v.getAttributes().get(SPRING_EMBEDDED_POS);
+			x[vCount] = vPos.x;
+			y[vCount] = vPos.y;
+		}
+		BarnesHutTree tree = new BarnesHutTree(x, y);
+		double[] force = new double[2];
+		for (int vCount = 0; vCount < V.size(); vCount++) {
+			VertexView v = (VertexView) V.get(vCount);
+			// fr(d, k) * delta / d = k * k * delta / d^2
+			tree.repulsion(x[vCount], y[vCount], vCount, theta, 0, force);
+			Rectangle vDisp = new Rectangle(0, 0);
+			vDisp.x = (int) (force[0] * k * k);
+			vDisp.y = (int) (force[1] * k * k);
+			v.getAttributes().put(SPRING_EMBEDDED_DISP, vDisp);
+		}
+	}
+
+	/** Creates the map with the new bounds of the vertices. The
+	 *  calculated positions are fitted into the selected frame.
+	 *
+	 *  @param finish if true, the temporary attributes are removed
+	 */
+	protected Map createViewMap(
+		List V,
+		Rectangle selectionFrame,
+		boolean finish) {
+
 		// find the new positions for the
 		// calculated frame
 		Rectangle calculatedFrame = new Rectangle();
@@ -379,37 +466,87 @@ public class SpringEmbeddedLayoutAlgorithm implements LayoutAlgorithm {
 		int movementX = selectionFrame.x - calculatedFrame.x;
 		int movementY = selectionFrame.y - calculatedFrame.y;
 
-		//---------------------------------------------------------------------------
-		// draw the graph
-		//---------------------------------------------------------------------------
 		Map viewMap = new Hashtable();
-		for (int i = 0; i < selectionCells.length; i++) {
-			CellView cellView = mapper.getMapping(selectionCells[i], false);
-			if (cellView instanceof VertexView) {
-				// get the current view object
-				VertexView view = (VertexView) cellView;
+		for (int vCount = 0; vCount < V.size(); vCount++) {
+			VertexView view = (VertexView) V.get(vCount);
 
+			Rectangle newCoord =
+				new Rectangle(
+					(Rectangle) view.getAttributes().get(SPRING_EMBEDDED_POS));
+			if (finish) {
 				// remove the temp objects
-				Rectangle newCoord =
-					(Rectangle) view.getAttributes().remove(
-						SPRING_EMBEDDED_POS);
+				view.getAttributes().remove(SPRING_EMBEDDED_POS);
 				view.getAttributes().remove(SPRING_EMBEDDED_DISP);
+			}
 
-				// update the location to get the correct
-				newCoord.x = (int)((newCoord.x + movementX) * streachX);
-				newCoord.y = (int)((newCoord.y + movementY) * streachY);
+			// update the location to get the correct
+			newCoord.x = (int)((newCoord.x + movementX) * streachX);
+			newCoord.y = (int)((newCoord.y + movementY) * streachY);
 
-				// update the view
-				Map map = GraphConstants.createMap() ;
-				GraphConstants.setBounds(map, newCoord);
-				viewMap.put(selectionCells[i], map);
+			// update the view
+			Map map = GraphConstants.createMap() ;
+			GraphConstants.setBounds(map, newCoord);
+			viewMap.put(view.getCell(), map);
+		}
+		return viewMap;
+	}
 
+	/** Shows the intermediate bounds in the event dispatch thread. Only
+	 *  the views are changed, so the model and its undo history keep
+	 *  the layout until the final edit.
+	 */
+	protected void preview(
+		final JGraph jgraph,
+		final Map viewMap,
+		final List V,
+		final List E) {
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				for (int i = 0; i < V.size(); i++) {
+					VertexView view = (VertexView) V.get(i);
+					Rectangle bounds =
+						GraphConstants.getBounds((Map) viewMap.get(view.getCell()));
+					view.setCachedBounds(bounds);
+					view.childUpdated();
+				}
+				for (int i = 0; i < E.size(); i++) {
+					((CellView) E.get(i)).update();
+				}
+				jgraph.repaint();
 			}
-			if (cellView instanceof EdgeView) {
-				cellView.update();
+		});
+	}
+
+	/** Resets the views to the bounds of the model after a canceled
+	 *  layout.
+	 */
+	protected void restore(final JGraph jgraph, final List V, final List E) {
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				for (int i = 0; i < V.size(); i++) {
+					((CellView) V.get(i)).update();
+				}
+				for (int i = 0; i < E.size(); i++) {
+					((CellView) E.get(i)).update();
+				}
+				jgraph.repaint();
 			}
+		});
+	}
+
+	/** Applies the new bounds to the graph in the event dispatch thread.
+	 *  Edits posted from another thread are applied in their order.
+	 */
+	protected void edit(final JGraph jgraph, final Map viewMap) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			jgraph.getGraphLayoutCache().edit(viewMap, null, null, null);
+		} else {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					jgraph.getGraphLayoutCache().edit(viewMap, null, null, null);
+				}
+			});
 		}
-		jgraph.getGraphLayoutCache().edit(viewMap, null, null, null);
 	}
 
 	/** calculates the attractive forces
@@ -0,0 +1,177 @@
+package edu.ucsb.cs.jicos.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes checkpoints to a CheckpointStore, reopens it as a restarted
+ * TaskServer would, and compares the recovered task map with the expected one.
+ */
+public class CheckpointStoreTest {
+
+    private static final String NAME = "TaskServer-test";
+
+    /** A task with state of its own, to see which version was recovered. */
+    static final class CounterTask extends Task {
+        int count;
+
+        public Object execute(Environment environment) {
+            return Integer.valueOf(count);
+        }
+    }
+
+    private File directory;
+    private CounterTask root;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoint").toFile();
+        root = new CounterTask();
+        root.init(5, (short) 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            files[i].delete();
+        }
+        directory.delete();
+    }
+
+    private CounterTask child(int count) {
+        CounterTask task = new CounterTask();
+        task.count = count;
+        root.compute(task);
+        return task;
+    }
+
+    private static void assertTasks(Map<TaskId, Task> expected, Map<TaskId, Task> actual) {
+        Assertions.assertEquals(expected.keySet(), actual.keySet());
+        for (TaskId taskId : expected.keySet()) {
+            Assertions.assertEquals(((CounterTask) expected.get(taskId)).count,
+                                    ((CounterTask) actual.get(taskId)).count, taskId.toString());
+            Assertions.assertEquals(taskId, actual.get(taskId).getTaskId());
+        }
+    }
+
+    @Test
+    public void testTasksSurviveReopen() throws Exception {
+        CheckpointStore store = new CheckpointStore(directory, NAME);
+        Map<TaskId, Task> expected = new HashMap<TaskId, Task>();
+        CheckpointStore.Batch snapshot = new CheckpointStore.Batch();
+        snapshot.clear();
+        SessionInfo sessionInfo = new SessionInfo();
+        sessionInfo.setSessionId(5);
+        snapshot.sessionInfo(sessionInfo);
+        for (int i = 0; i < 10; i++) {
+            CounterTask task = child(i);
+            snapshot.put(task);
+            expected.put(task.getTaskId(), task);
+        }
+        store.compact(snapshot);
+
+        // 2 incremental checkpoints: a new task, a removed one and a changed one
+        CounterTask added = child(100);
+        CheckpointStore.Batch batch = new CheckpointStore.Batch();
+        batch.put(added);
+        expected.put(added.getTaskId(), added);
+        TaskId removed = expected.keySet().iterator().next();
+        batch.remove(removed);
+        expected.remove(removed);
+        store.append(batch);
+
+        CounterTask changed = (CounterTask) expected.values().iterator().next();
+        changed.count = -1;
+        batch = new CheckpointStore.Batch();
+        batch.put(changed);
+        store.append(batch);
+
+        // restart: a new store object for the same files
+        CheckpointStore reopened = new CheckpointStore(directory, NAME);
+        assertTasks(expected, reopened.recover());
+        Assertions.assertEquals(5, reopened.getRecoveredSessionInfo().getSessionId());
+    }
+
+    @Test
+    public void testCompactBeforeRecoverKeepsFiles() throws Exception {
+        CheckpointStore store = new CheckpointStore(directory, NAME);
+        Map<TaskId, Task> expected = new HashMap<TaskId, Task>();
+        CheckpointStore.Batch snapshot = new CheckpointStore.Batch();
+        snapshot.clear();
+        for (int i = 0; i < 3; i++) {
+            CounterTask task = child(i);
+            snapshot.put(task);
+            expected.put(task.getTaskId(), task);
+        }
+        store.compact(snapshot);
+
+        // a restarted TaskServer whose Session is still empty
+        final CheckpointStore reopened = new CheckpointStore(directory, NAME);
+        final CheckpointStore.Batch empty = new CheckpointStore.Batch();
+        empty.clear();
+        Assertions.assertThrows(IOException.class, () -> reopened.compact(empty));
+        assertTasks(expected, new CheckpointStore(directory, NAME).recover());
+
+        // once recovered, a snapshot replaces the old state
+        assertTasks(expected, reopened.recover());
+        CheckpointStore.Batch replacement = new CheckpointStore.Batch();
+        replacement.clear();
+        CounterTask task = child(7);
+        replacement.put(task);
+        reopened.compact(replacement);
+        expected.clear();
+        expected.put(task.getTaskId(), task);
+        assertTasks(expected, new CheckpointStore(directory, NAME).recover());
+    }
+
+    @Test
+    public void testNewStoreMayCompact() throws Exception {
+        CheckpointStore store = new CheckpointStore(directory, NAME);
+        CheckpointStore.Batch snapshot = new CheckpointStore.Batch();
+        snapshot.clear();
+        store.compact(snapshot);
+        Assertions.assertTrue(new CheckpointStore(directory, NAME).recover().isEmpty());
+    }
+
+    @Test
+    public void testTornBatchIsDropped() throws Exception {
+        CheckpointStore store = new CheckpointStore(directory, NAME);
+        Map<TaskId, Task> expected = new HashMap<TaskId, Task>();
+        CheckpointStore.Batch batch = new CheckpointStore.Batch();
+        CounterTask first = child(1);
+        batch.put(first);
+        expected.put(first.getTaskId(), first);
+        store.append(batch);
+        batch = new CheckpointStore.Batch();
+        batch.put(child(2));
+        store.append(batch);
+
+        // corrupt the last byte of the second batch
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(".log"));
+        Assertions.assertEquals(1, logs.length);
+        RandomAccessFile file = new RandomAccessFile(logs[0], "rw");
+        try {
+            int firstLength = file.readInt();
+            file.seek(8 + firstLength);
+            int secondLength = file.readInt();
+            long last = 8 + firstLength + 8 + secondLength - 1;
+            file.seek(last);
+            int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xff);
+        } finally {
+            file.close();
+        }
+        assertTasks(expected, new CheckpointStore(directory, NAME).recover());
+    }
+}
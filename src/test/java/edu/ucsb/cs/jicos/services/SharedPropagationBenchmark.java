@@ -0,0 +1,269 @@
+/**
+ * Microbenchmark of LatticeShared propagation: many Hosts & TaskServers in
+ * 1 JVM, simulated as discrete events, so that the run is deterministic & 
+ * needs no RMI. Each Host finds improving upper bounds at random times. 
+ * The TaskServers form a binary spanning tree and propagate with the real
+ * SharedPropagator, either immediately (epoch 0: 1 multicast per 
+ * improvement, as for Shared objects that are not LatticeShared, including
+ * the echo of each update by each Host) or once per epoch.
+ *
+ * Usage: SharedPropagationBenchmark [taskServers [hostsPerTaskServer 
+ * [improvementsPerHost [epochMs [latencyMs]]]]]
+ *
+ * @version 1
+ */
+
+package edu.ucsb.cs.jicos.services;
+
+import edu.ucsb.cs.jicos.services.shared.IntUpperBound;
+import java.util.*;
+
+
+final class SharedPropagationBenchmark 
+{
+    private static final long DURATION = 1000; // ms in which the Hosts find improvements
+    
+    private PriorityQueue<Event> events = new PriorityQueue<Event>();
+    private long now;
+    private long $events;
+    private long latency;
+    private boolean immediate;
+    private long $hostMessages;
+    
+    private SharedPropagationBenchmark( long latency, boolean immediate )
+    {
+        this.latency = latency;
+        this.immediate = immediate;
+    }
+    
+    private final class Event implements Comparable<Event>
+    {
+        long time;
+        long sequence = $events++;
+        Runnable action;
+        
+        Event( long time, Runnable action ) { this.time = time; this.action = action; }
+        
+        public int compareTo( Event event )
+        {
+            if ( time != event.time )
+            {
+                return time < event.time ? -1 : 1;
+            }
+            return sequence < event.sequence ? -1 : ( sequence == event.sequence ? 0 : 1 );
+        }
+    }
+    
+    private void schedule( long time, Runnable action ) { events.add( new Event( time, action ) ); }
+    
+    private final class SimulatedTaskServer extends SharedPropagator
+    {
+        LatticeShared shared;
+        SimulatedTaskServer parent;
+        List<SimulatedTaskServer> children = new ArrayList<SimulatedTaskServer>();
+        List<SimulatedHost> hosts = new ArrayList<SimulatedHost>();
+        
+        SimulatedTaskServer( LatticeShared shared ) { this.shared = shared; }
+        
+        void receive( LatticeShared proposed, Object source )
+        {
+            LatticeShared merged = proposed.join( shared );
+            if ( merged.isNewerThan( shared ) )
+            {
+                shared = merged;
+                changed( source, source == parent );
+                if ( immediate )
+                {
+                    flush();
+                }
+            }
+        }
+        
+        LatticeShared current() { return shared; }
+        
+        int sendUp( final LatticeShared value )
+        {
+            if ( parent == null )
+            {
+                return 0;
+            }
+            schedule( now + latency, new Runnable() 
+            { 
+                public void run() { parent.receive( value, SimulatedTaskServer.this ); }
+            } );
+            return 1;
+        }
+        
+        int sendDown( final LatticeShared value, Object exclude )
+        {
+            int $sent = 0;
+            for ( final SimulatedTaskServer child : children )
+            {
+                if ( child != exclude )
+                {
+                    schedule( now + latency, new Runnable() 
+                    { 
+                        public void run() { child.receive( value, SimulatedTaskServer.this ); }
+                    } );
+                    $sent++;
+                }
+            }
+            for ( final SimulatedHost host : hosts )
+            {
+                if ( host != exclude )
+                {
+                    schedule( now + latency, new Runnable() 
+                    { 
+                        public void run() { host.receive( value ); }
+                    } );
+                    $sent++;
+                }
+            }
+            return $sent;
+        }
+    }
+    
+    private final class SimulatedHost
+    {
+        SimulatedTaskServer taskServer;
+        LatticeShared shared;
+        long changeTime;
+        
+        SimulatedHost( SimulatedTaskServer taskServer, LatticeShared shared ) 
+        { 
+            this.taskServer = taskServer; 
+            this.shared = shared;
+        }
+        
+        // a task of this Host finds a better solution
+        void improve( int decrease )
+        {
+            int bound = ((Integer) shared.get()).intValue();
+            set( new IntUpperBound( bound - decrease ) );
+            send();
+        }
+        
+        void receive( LatticeShared proposed )
+        {
+            LatticeShared merged = proposed.join( shared );
+            if ( merged.isNewerThan( shared ) )
+            {
+                set( merged );
+                if ( immediate )
+                {
+                    send(); // Environment.setShared of a Shared object echoes
+                }
+            }
+        }
+        
+        private void set( LatticeShared shared )
+        {
+            this.shared = shared;
+            changeTime = now;
+        }
+        
+        private void send()
+        {
+            final LatticeShared value = shared;
+            $hostMessages++;
+            schedule( now + latency, new Runnable() 
+            { 
+                public void run() { taskServer.receive( value, SimulatedHost.this ); }
+            } );
+        }
+    }
+    
+    private String run( int $taskServers, int $hosts, int $improvements, long epoch )
+    {
+        Random random = new Random( 1 );
+        LatticeShared initial = new IntUpperBound( Integer.MAX_VALUE );
+        final SimulatedTaskServer[] taskServers = new SimulatedTaskServer[ $taskServers ];
+        List<SimulatedHost> hosts = new ArrayList<SimulatedHost>();
+        for ( int i = 0; i < $taskServers; i++ )
+        {
+            taskServers[i] = new SimulatedTaskServer( initial );
+            if ( i > 0 )
+            {
+                taskServers[i].parent = taskServers[ ( i - 1 ) / 2 ];
+                taskServers[i].parent.children.add( taskServers[i] );
+            }
+            for ( int j = 0; j < $hosts; j++ )
+            {
+                SimulatedHost host = new SimulatedHost( taskServers[i], initial );
+                taskServers[i].hosts.add( host );
+                hosts.add( host );
+            }
+        }
+        for ( final SimulatedHost host : hosts )
+        {
+            for ( int j = 0; j < $improvements; j++ )
+            {
+                final int decrease = 1 + random.nextInt( 10 );
+                schedule( (long) ( random.nextDouble() * DURATION ), new Runnable()
+                {
+                    public void run() { host.improve( decrease ); }
+                } );
+            }
+        }
+        if ( ! immediate )
+        {
+            for ( long time = epoch; time <= DURATION + epoch * ( $taskServers + 2 ) + latency * 2 * $taskServers; time += epoch )
+            {
+                schedule( time, new Runnable()
+                {
+                    public void run() 
+                    { 
+                        for ( int i = 0; i < taskServers.length; i++ ) 
+                        {
+                            taskServers[i].flush(); 
+                        }
+                    }
+                } );
+            }
+        }
+        while ( ! events.isEmpty() )
+        {
+            Event event = events.poll();
+            now = event.time;
+            event.action.run();
+        }
+        
+        // check: every Host has the best bound
+        LatticeShared best = initial;
+        long convergenceTime = 0;
+        for ( SimulatedHost host : hosts )
+        {
+            best = best.join( host.shared );
+            convergenceTime = Math.max( convergenceTime, host.changeTime );
+        }
+        boolean converged = true;
+        for ( SimulatedHost host : hosts )
+        {
+            converged &= ! best.isNewerThan( host.shared );
+        }
+        long $taskServerMessages = 0;
+        for ( int i = 0; i < taskServers.length; i++ )
+        {
+            $taskServerMessages += taskServers[i].getMessageCount();
+        }
+        return ( immediate ? "immediate" : "epoch " + epoch + " ms" ) + 
+               ": TaskServer messages: " + $taskServerMessages + 
+               " Host messages: " + $hostMessages +
+               " all Hosts have best bound " + best.get() + ": " + converged + 
+               " at " + convergenceTime + " ms";
+    }
+    
+    public static void main( String[] args )
+    {
+        int $taskServers  = ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 15;
+        int $hosts        = ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 32;
+        int $improvements = ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 20;
+        long epoch        = ( args.length > 3 ) ? Long.parseLong( args[3] ) : 10;
+        long latency      = ( args.length > 4 ) ? Long.parseLong( args[4] ) : 1;
+        
+        System.out.println( $taskServers + " TaskServers, " + $hosts + " Hosts each, " + 
+                            $improvements + " improvements per Host in " + DURATION + " ms" );
+        System.out.println( new SharedPropagationBenchmark( latency, true  ).run( $taskServers, $hosts, $improvements, 0 ) );
+        System.out.println( new SharedPropagationBenchmark( latency, false ).run( $taskServers, $hosts, $improvements, epoch ) );
+    }
+}
@@ -0,0 +1,99 @@
+package edu.ucsb.cs.jicos.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares TaskIdTrie with a list of killed TaskId objects that is searched
+ * for an ancestor of the queried TaskId.
+ */
+public class TaskIdTrieTest {
+
+    private static TaskId randomTaskId(Random random) {
+        TaskId taskId = new TaskId(1 + random.nextInt(2), (short) random.nextInt(2));
+        int depth = random.nextInt(6);
+        for (int i = 0; i < depth; i++) {
+            taskId = new TaskId(taskId, (short) random.nextInt(3));
+        }
+        return taskId;
+    }
+
+    private static boolean killed(List<TaskId> killed, TaskId taskId) {
+        for (TaskId ancestor : killed) {
+            if (ancestor.isAncestor(taskId)) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testContainsMatchesAncestorScan() {
+        Random random = new Random(1);
+        TaskIdTrie trie = new TaskIdTrie();
+        List<TaskId> killed = new ArrayList<TaskId>();
+        for (int step = 0; step < 300; step++) {
+            if (random.nextInt(4) == 0) {
+                TaskId taskId = randomTaskId(random);
+                trie.add(taskId);
+                killed.add(taskId);
+            }
+            for (int query = 0; query < 50; query++) {
+                TaskId taskId = randomTaskId(random);
+                Assertions.assertEquals(killed(killed, taskId), trie.contains(taskId), taskId.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testAncestorKillsDescendants() {
+        TaskId computation = new TaskId(7, (short) 1);
+        TaskId parent = new TaskId(computation, (short) 2);
+        TaskId child = new TaskId(parent, (short) 0);
+        TaskId sibling = new TaskId(computation, (short) 3);
+
+        TaskIdTrie trie = new TaskIdTrie();
+        trie.add(child);
+        Assertions.assertTrue(trie.contains(child));
+        Assertions.assertTrue(trie.contains(new TaskId(child, (short) 5)));
+        Assertions.assertFalse(trie.contains(parent));
+
+        trie.add(parent);
+        Assertions.assertTrue(trie.contains(parent));
+        Assertions.assertTrue(trie.contains(child));
+        Assertions.assertFalse(trie.contains(sibling));
+        Assertions.assertFalse(trie.contains(computation));
+        Assertions.assertFalse(trie.contains(new TaskId(new TaskId(7, (short) 2), (short) 2)));
+        Assertions.assertFalse(trie.contains(new TaskId(new TaskId(8, (short) 1), (short) 2)));
+    }
+
+    @Test
+    public void testSerializedFormKeepsKilledPrefixes() throws Exception {
+        Random random = new Random(2);
+        TaskIdTrie trie = new TaskIdTrie();
+        List<TaskId> killed = new ArrayList<TaskId>();
+        for (int i = 0; i < 40; i++) {
+            TaskId taskId = randomTaskId(random);
+            trie.add(taskId);
+            killed.add(taskId);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(trie);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        TaskIdTrie copy = (TaskIdTrie) in.readObject();
+
+        for (int query = 0; query < 2000; query++) {
+            TaskId taskId = randomTaskId(random);
+            Assertions.assertEquals(killed(killed, taskId), copy.contains(taskId), taskId.toString());
+        }
+    }
+}
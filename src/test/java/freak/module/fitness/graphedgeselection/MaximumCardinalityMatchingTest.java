@@ -0,0 +1,157 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.fitness.graphedgeselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that <code>MaximumCardinalityMatching</code> returns a matching of
+ * the graph and compares its size with an exhaustive search.
+ */
+public class MaximumCardinalityMatchingTest {
+
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 3000; trial++) {
+            int n = 1 + random.nextInt(14);
+            double density = random.nextDouble();
+            boolean[][] adjacent = new boolean[n][n];
+            for (int v = 0; v < n; v++) {
+                for (int w = v + 1; w < n; w++) {
+                    if (random.nextDouble() < density) addEdge(adjacent, v, w);
+                }
+            }
+            check(adjacent);
+        }
+    }
+
+    @Test
+    public void testRandomBipartiteGraphs() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 3000; trial++) {
+            int n = 1 + random.nextInt(14);
+            double density = random.nextDouble();
+            boolean[] left = new boolean[n];
+            for (int v = 0; v < n; v++) left[v] = random.nextBoolean();
+            boolean[][] adjacent = new boolean[n][n];
+            for (int v = 0; v < n; v++) {
+                for (int w = v + 1; w < n; w++) {
+                    if (left[v] != left[w] && random.nextDouble() < density) addEdge(adjacent, v, w);
+                }
+            }
+            check(adjacent);
+        }
+    }
+
+    @Test
+    public void testLoopsAreIgnored() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 2000; trial++) {
+            int n = 1 + random.nextInt(12);
+            double density = random.nextDouble();
+            // bipartite apart from the loops in every other trial
+            boolean bipartite = trial % 2 == 0;
+            boolean[][] adjacent = new boolean[n][n];
+            for (int v = 0; v < n; v++) {
+                if (random.nextInt(3) == 0) adjacent[v][v] = true;
+                for (int w = v + 1; w < n; w++) {
+                    if ((!bipartite || (v + w) % 2 == 1) && random.nextDouble() < density) addEdge(adjacent, v, w);
+                }
+            }
+            check(adjacent);
+        }
+    }
+
+    @Test
+    public void testBlossoms() {
+        // a path into a triangle needs the blossom to be contracted
+        check(graph(6, new int[] {0, 1, 1, 2, 2, 3, 3, 4, 4, 2, 4, 5}));
+        // 2 odd cycles joined by an edge
+        check(graph(10, new int[] {0, 1, 1, 2, 2, 3, 3, 4, 4, 0, 5, 6, 6, 7, 7, 8, 8, 9, 9, 5, 2, 7}));
+        // Petersen graph, it has a perfect matching
+        int[] petersen = {0, 1, 1, 2, 2, 3, 3, 4, 4, 0, 0, 5, 1, 6, 2, 7, 3, 8, 4, 9,
+                          5, 7, 7, 9, 9, 6, 6, 8, 8, 5};
+        Assertions.assertEquals(5, check(graph(10, petersen)));
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        int[] mate = MaximumCardinalityMatching.match(3, new int[4], new int[0]);
+        Assertions.assertArrayEquals(new int[] {-1, -1, -1}, mate);
+    }
+
+    private static boolean[][] graph(int n, int[] ends) {
+        boolean[][] adjacent = new boolean[n][n];
+        for (int i = 0; i < ends.length; i += 2) addEdge(adjacent, ends[i], ends[i + 1]);
+        return adjacent;
+    }
+
+    private static void addEdge(boolean[][] adjacent, int v, int w) {
+        adjacent[v][w] = true;
+        adjacent[w][v] = true;
+    }
+
+    // returns the size of the matching
+    private static int check(boolean[][] adjacent) {
+        int n = adjacent.length;
+        // adjacency arrays with the neighbours in random order
+        Random random = new Random(n);
+        int[] start = new int[n + 1];
+        List<Integer> neighbours = new ArrayList<Integer>();
+        for (int v = 0; v < n; v++) {
+            List<Integer> list = new ArrayList<Integer>();
+            for (int w = 0; w < n; w++) {
+                if (adjacent[v][w]) list.add(Integer.valueOf(w));
+            }
+            Collections.shuffle(list, random);
+            neighbours.addAll(list);
+            start[v + 1] = neighbours.size();
+        }
+        int[] array = new int[neighbours.size()];
+        for (int i = 0; i < array.length; i++) array[i] = neighbours.get(i).intValue();
+
+        int[] mate = MaximumCardinalityMatching.match(n, start, array);
+
+        Assertions.assertEquals(n, mate.length);
+        int matched = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] == -1) continue;
+            Assertions.assertTrue(mate[v] != v, "loop matched");
+            Assertions.assertTrue(adjacent[v][mate[v]], "not an edge");
+            Assertions.assertEquals(v, mate[mate[v]], "mates differ");
+            matched++;
+        }
+        int[] memo = new int[1 << n];
+        Arrays.fill(memo, -1);
+        Assertions.assertEquals(maximum(adjacent, 0, memo), matched / 2);
+        return matched / 2;
+    }
+
+    // size of a maximum matching of the nodes not in used
+    private static int maximum(boolean[][] adjacent, int used, int[] memo) {
+        int n = adjacent.length;
+        if (used == (1 << n) - 1) return 0;
+        if (memo[used] != -1) return memo[used];
+        int v = Integer.numberOfTrailingZeros(~used);
+        int best = maximum(adjacent, used | (1 << v), memo);
+        for (int w = v + 1; w < n; w++) {
+            if (adjacent[v][w] && (used & (1 << w)) == 0) {
+                best = Math.max(best, 1 + maximum(adjacent, used | (1 << v) | (1 << w), memo));
+            }
+        }
+        memo[used] = best;
+        return best;
+    }
+}
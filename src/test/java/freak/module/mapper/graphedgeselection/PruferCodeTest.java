@@ -0,0 +1,157 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.mapper.graphedgeselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that decoding and encoding Prufer numbers are inverse to each other
+ * and compares decoding with the quadratic textbook algorithm.
+ */
+public class PruferCodeTest {
+
+    @Test
+    public void testRoundTripOfRandomCodes() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 2000; trial++) {
+            int n = 2 + random.nextInt(60);
+            int[] code = new int[n - 2];
+            // small alphabets give nodes of high degree
+            int alphabet = 1 + random.nextInt(n);
+            for (int i = 0; i < code.length; i++) code[i] = random.nextInt(alphabet);
+
+            int[] ends = PruferCode.decode(code);
+            Assertions.assertEquals(edgeSet(decodeQuadratic(code)), edgeSet(ends));
+            assertSpanningTree(n, ends);
+            Assertions.assertArrayEquals(code, PruferCode.encode(n, ends));
+        }
+    }
+
+    @Test
+    public void testRoundTripOfRandomTrees() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 2000; trial++) {
+            int n = 2 + random.nextInt(60);
+            // random recursive tree with shuffled labels and edge order
+            int[] label = new int[n];
+            for (int i = 0; i < n; i++) label[i] = i;
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = label[i];
+                label[i] = label[j];
+                label[j] = t;
+            }
+            List<int[]> edges = new ArrayList<int[]>();
+            for (int v = 1; v < n; v++) {
+                int w = random.nextInt(v);
+                edges.add(random.nextBoolean() ? new int[] {label[v], label[w]} : new int[] {label[w], label[v]});
+            }
+            Collections.shuffle(edges, random);
+            int[] ends = new int[2 * (n - 1)];
+            for (int i = 0; i < edges.size(); i++) {
+                ends[2 * i] = edges.get(i)[0];
+                ends[2 * i + 1] = edges.get(i)[1];
+            }
+
+            int[] code = PruferCode.encode(n, ends);
+            Assertions.assertEquals(n - 2, code.length);
+            Assertions.assertEquals(edgeSet(ends), edgeSet(PruferCode.decode(code)));
+        }
+    }
+
+    @Test
+    public void testAllCodesGiveDistinctTrees() {
+        // Cayley: the n^(n-2) codes of length n - 2 give all labelled trees once
+        int n = 6;
+        int total = (int)Math.pow(n, n - 2);
+        Set<Set<Long>> trees = new HashSet<Set<Long>>();
+        int[] code = new int[n - 2];
+        for (int k = 0; k < total; k++) {
+            int rest = k;
+            for (int i = 0; i < code.length; i++) {
+                code[i] = rest % n;
+                rest /= n;
+            }
+            int[] ends = PruferCode.decode(code);
+            assertSpanningTree(n, ends);
+            Assertions.assertTrue(trees.add(edgeSet(ends)), Arrays.toString(code));
+        }
+        Assertions.assertEquals(total, trees.size());
+    }
+
+    @Test
+    public void testTwoNodes() {
+        int[] ends = PruferCode.decode(new int[0]);
+        Assertions.assertEquals(edgeSet(new int[] {0, 1}), edgeSet(ends));
+        Assertions.assertEquals(0, PruferCode.encode(2, ends).length);
+    }
+
+    // removes the lowest leaf again and again
+    private static int[] decodeQuadratic(int[] code) {
+        int n = code.length + 2;
+        int[] degree = new int[n];
+        Arrays.fill(degree, 1);
+        for (int i = 0; i < code.length; i++) degree[code[i]]++;
+        int[] ends = new int[2 * (n - 1)];
+        for (int i = 0; i < code.length; i++) {
+            int leaf = 0;
+            while (degree[leaf] != 1) leaf++;
+            ends[2 * i] = leaf;
+            ends[2 * i + 1] = code[i];
+            degree[leaf]--;
+            degree[code[i]]--;
+        }
+        int u = -1;
+        for (int v = 0; v < n; v++) {
+            if (degree[v] == 1) {
+                if (u == -1) {
+                    u = v;
+                } else {
+                    ends[2 * (n - 2)] = u;
+                    ends[2 * (n - 2) + 1] = v;
+                }
+            }
+        }
+        return ends;
+    }
+
+    private static Set<Long> edgeSet(int[] ends) {
+        Set<Long> edges = new HashSet<Long>();
+        for (int i = 0; i < ends.length; i += 2) {
+            int v = Math.min(ends[i], ends[i + 1]);
+            int w = Math.max(ends[i], ends[i + 1]);
+            Assertions.assertTrue(edges.add(Long.valueOf(((long)v << 32) | w)), "edge twice");
+        }
+        return edges;
+    }
+
+    private static void assertSpanningTree(int n, int[] ends) {
+        Assertions.assertEquals(2 * (n - 1), ends.length);
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) component[v] = v;
+        for (int i = 0; i < ends.length; i += 2) {
+            int a = find(component, ends[i]);
+            int b = find(component, ends[i + 1]);
+            Assertions.assertTrue(a != b, "cycle");
+            component[a] = b;
+        }
+    }
+
+    private static int find(int[] component, int v) {
+        while (component[v] != v) v = component[v];
+        return v;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.mutation.common;
+
+import edu.cornell.lassp.houle.RngPack.RandomElement;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that <code>FlipSampler</code> alters every position independently
+ * with the given probability, i.e. that the number of positions follows
+ * B(n, p) and every position is hit with probability p.
+ */
+public class FlipSamplerTest {
+
+    private static final int SAMPLES = 20000;
+
+    /**
+     * A random element backed by <code>java.util.Random</code>, raw values lie in (0, 1).
+     */
+    private static RandomElement randomElement(long seed) {
+        final Random random = new Random(seed);
+        return new RandomElement() {
+            public double raw() {
+                double value;
+                do {
+                    value = random.nextDouble();
+                } while (value == 0);
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void testStandardProbability() {
+        checkDistribution(1000, 0.001, 1);
+    }
+
+    @Test
+    public void testSmallProbability() {
+        checkDistribution(100000, 0.0001, 2);
+    }
+
+    @Test
+    public void testDensePositions() {
+        checkDistribution(100, 0.3, 3);
+    }
+
+    @Test
+    public void testProbabilityAboveHalf() {
+        checkDistribution(100, 0.8, 4);
+    }
+
+    @Test
+    public void testProbabilityOne() {
+        FlipSampler sampler = new FlipSampler();
+        sampler.sample(randomElement(5), 64, 1);
+        Assertions.assertEquals(64, sampler.getCount());
+        for (int i = 0; i < 64; i++) Assertions.assertEquals(i, sampler.getPosition(i));
+    }
+
+    @Test
+    public void testProbabilityZero() {
+        FlipSampler sampler = new FlipSampler();
+        sampler.sample(randomElement(6), 64, 0);
+        Assertions.assertEquals(0, sampler.getCount());
+    }
+
+    @Test
+    public void testBinomialMoments() {
+        RandomElement re = randomElement(7);
+        // large n splits the inversion into several chunks
+        int[] n = {10, 1000, 1000000};
+        double[] p = {0.5, 0.01, 0.001};
+        for (int c = 0; c < n.length; c++) {
+            double sum = 0;
+            double squares = 0;
+            for (int t = 0; t < SAMPLES; t++) {
+                int k = FlipSampler.binomial(re, n[c], p[c]);
+                Assertions.assertTrue(k >= 0 && k <= n[c]);
+                sum += k;
+                squares += (double)k * k;
+            }
+            checkMoments(sum, squares, n[c], p[c]);
+        }
+    }
+
+    private void checkDistribution(int n, double p, long seed) {
+        RandomElement re = randomElement(seed);
+        FlipSampler sampler = new FlipSampler();
+        long[] hits = new long[n];
+        double sum = 0;
+        double squares = 0;
+        for (int t = 0; t < SAMPLES; t++) {
+            sampler.sample(re, n, p);
+            int k = sampler.getCount();
+            sum += k;
+            squares += (double)k * k;
+            for (int i = 0; i < k; i++) {
+                int position = sampler.getPosition(i);
+                Assertions.assertTrue(position >= 0 && position < n, "position out of range");
+                if (i > 0) Assertions.assertTrue(position > sampler.getPosition(i - 1), "positions not ascending");
+                hits[position]++;
+            }
+        }
+        checkMoments(sum, squares, n, p);
+
+        // the first and the last position are hit as often as the others
+        double sigma = Math.sqrt(SAMPLES * p * (1 - p));
+        Assertions.assertEquals(SAMPLES * p, hits[0], 5 * sigma + 1, "first position");
+        Assertions.assertEquals(SAMPLES * p, hits[n - 1], 5 * sigma + 1, "last position");
+        double total = 0;
+        for (int i = 0; i < n; i++) total += hits[i];
+        double half = 0;
+        for (int i = 0; i < n / 2; i++) half += hits[i];
+        Assertions.assertEquals(total / 2, half, 5 * Math.sqrt(total / 4) + 1, "first half");
+    }
+
+    private void checkMoments(double sum, double squares, int n, double p) {
+        double mean = sum / SAMPLES;
+        double variance = squares / SAMPLES - mean * mean;
+        double expectedVariance = n * p * (1 - p);
+        Assertions.assertEquals(n * p, mean, 5 * Math.sqrt(expectedVariance / SAMPLES), "mean");
+        Assertions.assertEquals(expectedVariance, variance, 0.1 * expectedVariance, "variance");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.mutation.common;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares <code>ResidualSelection</code> with sorting the residuals.
+ */
+public class ResidualSelectionTest {
+
+    @Test
+    public void testDistinctResiduals() {
+        compareWithSort(1000, 0, 1);
+    }
+
+    @Test
+    public void testManyEqualResiduals() {
+        compareWithSort(1000, 5, 2);
+    }
+
+    @Test
+    public void testAllEqualResiduals() {
+        compareWithSort(200, 1, 3);
+    }
+
+    @Test
+    public void testSmallSets() {
+        Random random = new Random(4);
+        for (int n = 1; n <= 8; n++) {
+            for (int from = 0; from < n; from++) {
+                for (int to = from; to < n; to++) {
+                    double[] residuals = randomResiduals(random, n, 3);
+                    check(residuals, from, to);
+                }
+            }
+        }
+    }
+
+    private void compareWithSort(int n, int distinctValues, long seed) {
+        Random random = new Random(seed);
+        for (int trial = 0; trial < 50; trial++) {
+            double[] residuals = randomResiduals(random, n, distinctValues);
+            int from = random.nextInt(n);
+            int to = from + random.nextInt(n - from);
+            check(residuals, from, to);
+        }
+    }
+
+    // 0 distinct values: all residuals are distinct with probability 1
+    private static double[] randomResiduals(Random random, int n, int distinctValues) {
+        double[] residuals = new double[n];
+        for (int i = 0; i < n; i++) {
+            residuals[i] = distinctValues == 0 ? random.nextGaussian() : random.nextInt(distinctValues) - 1;
+        }
+        return residuals;
+    }
+
+    private static void check(double[] residuals, int from, int to) {
+        int n = residuals.length;
+        double[] keys = residuals.clone();
+        int[] points = new int[n];
+        // the point indices differ from the array positions
+        for (int i = 0; i < n; i++) points[i] = 3 * i + 1;
+
+        int[] selected = ResidualSelection.select(keys, points, from, to);
+
+        Assertions.assertEquals(to - from + 1, selected.length);
+        double[] selectedResiduals = new double[selected.length];
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < selected.length; i++) {
+            Assertions.assertEquals(1, selected[i] % 3, "not a point index");
+            int position = selected[i] / 3;
+            Assertions.assertFalse(seen[position], "point selected twice");
+            seen[position] = true;
+            selectedResiduals[i] = residuals[position];
+        }
+        double[] sorted = residuals.clone();
+        Arrays.sort(sorted);
+        Arrays.sort(selectedResiduals);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(sorted, from, to + 1), selectedResiduals, 0);
+    }
+}
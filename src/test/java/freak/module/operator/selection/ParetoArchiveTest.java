@@ -0,0 +1,91 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.operator.selection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares <code>ParetoArchive</code> with a linear scan over all members.
+ */
+public class ParetoArchiveTest {
+
+    @Test
+    public void testTwoObjectives() {
+        compareWithLinearScan(2, 1);
+    }
+
+    @Test
+    public void testThreeObjectives() {
+        compareWithLinearScan(3, 2);
+    }
+
+    @Test
+    public void testFourObjectives() {
+        compareWithLinearScan(4, 3);
+    }
+
+    @Test
+    public void testEqualVectorsAreRejected() {
+        ParetoArchive<Object> archive = ParetoArchive.create(3);
+        List<Object> removed = new ArrayList<Object>();
+        Assertions.assertTrue(archive.add(new Object(), new double[] {1, 2, 3}, removed));
+        Assertions.assertFalse(archive.add(new Object(), new double[] {1, 2, 3}, removed));
+        Assertions.assertEquals(1, archive.size());
+        Assertions.assertTrue(removed.isEmpty());
+    }
+
+    private void compareWithLinearScan(int objectives, long seed) {
+        Random random = new Random(seed);
+        ParetoArchive<Object> archive = ParetoArchive.create(objectives);
+        List<Object> members = new ArrayList<Object>();
+        IdentityHashMap<Object, double[]> fitness = new IdentityHashMap<Object, double[]>();
+        for (int step = 0; step < 5000; step++) {
+            // mostly points near a front, so the archive grows large
+            double[] point = new double[objectives];
+            double sum = 0;
+            for (int k = 0; k < objectives; k++) {
+                point[k] = random.nextInt(60);
+                sum += point[k];
+            }
+            if (random.nextInt(3) > 0 && sum > 0) {
+                for (int k = 0; k < objectives; k++) point[k] = Math.round(point[k] / sum * 200);
+            }
+
+            boolean dominated = false;
+            List<Object> expected = new ArrayList<Object>();
+            for (Object member : members) {
+                if (ParetoArchive.weaklyDominates(fitness.get(member), point)) dominated = true;
+                if (ParetoArchive.weaklyDominates(point, fitness.get(member))) expected.add(member);
+            }
+            Assertions.assertEquals(dominated, archive.isDominated(point));
+
+            Object individual = new Object();
+            List<Object> removed = new ArrayList<Object>();
+            Assertions.assertEquals(!dominated, archive.add(individual, point, removed));
+            if (!dominated) {
+                Assertions.assertEquals(new HashSet<Object>(expected), new HashSet<Object>(removed));
+                members.removeAll(expected);
+                members.add(individual);
+                fitness.put(individual, point);
+            } else {
+                Assertions.assertTrue(removed.isEmpty());
+            }
+            Assertions.assertEquals(members.size(), archive.size());
+        }
+        for (Object member : members) {
+            Assertions.assertTrue(archive.contains(member));
+            Assertions.assertSame(fitness.get(member), archive.getFitness(member));
+        }
+    }
+}
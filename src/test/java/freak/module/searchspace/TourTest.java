@@ -0,0 +1,90 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares <code>Tour</code> with reversing the segments of a plain array.
+ */
+public class TourTest {
+
+    @Test
+    public void testShortSegments() {
+        compareWithArray(50, 5, 1);
+    }
+
+    @Test
+    public void testLongSegments() {
+        // most segments are longer than half the tour, so the complement is reversed
+        compareWithArray(50, 50, 2);
+    }
+
+    @Test
+    public void testSmallTours() {
+        for (int n = 1; n <= 6; n++) {
+            compareWithArray(n, n, 3 + n);
+        }
+    }
+
+    @Test
+    public void testWholeTour() {
+        Tour tour = new Tour(new int[] {3, 1, 4, 2, 5});
+        tour.reverse(2, 1);
+        Assertions.assertArrayEquals(new int[] {2, 4, 1, 3, 5}, tour.toArray());
+    }
+
+    private void compareWithArray(int n, int maxLength, long seed) {
+        Random random = new Random(seed);
+        int[] expected = new int[n];
+        for (int i = 0; i < n; i++) expected[i] = i + 1;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int city = expected[i];
+            expected[i] = expected[j];
+            expected[j] = city;
+        }
+        Tour tour = new Tour(expected);
+
+        for (int step = 0; step < 2000; step++) {
+            int start = random.nextInt(n);
+            int length = 1 + random.nextInt(maxLength);
+            int end = (start + length - 1) % n;
+            tour.reverse(start, end);
+            reverse(expected, start, length);
+            assertSameTour(expected, tour);
+        }
+    }
+
+    // reverses the cyclic segment of the given length starting at start
+    private static void reverse(int[] tour, int start, int length) {
+        int n = tour.length;
+        for (int k = 0; k < length / 2; k++) {
+            int a = (start + k) % n;
+            int b = (start + length - 1 - k) % n;
+            int city = tour[a];
+            tour[a] = tour[b];
+            tour[b] = city;
+        }
+    }
+
+    private static void assertSameTour(int[] expected, Tour tour) {
+        int n = expected.length;
+        Assertions.assertEquals(n, tour.size());
+        Assertions.assertArrayEquals(expected, tour.toArray());
+        for (int i = 0; i < n; i++) {
+            int city = expected[i];
+            Assertions.assertEquals(city, tour.get(i));
+            Assertions.assertEquals(i, tour.indexOf(city));
+            Assertions.assertEquals(expected[(i + 1) % n], tour.next(city));
+            Assertions.assertEquals(expected[(i + n - 1) % n], tour.previous(city));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.searchspace.logictree;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the scalar and the vectorized <code>CountKernel</code>.
+ * Every invocation adds and removes all monomials once, so the count array
+ * is unchanged afterwards.
+ *
+ * The dataset is either the bundled <code>data/snap.csv</code> (monomials are
+ * single literals <code>SNPj=v</code>) or a synthetic table with the given number
+ * of rows and random monomials of the given density.
+ *
+ * Run the main method from the test classpath after <code>mvn test-compile</code>,
+ * the working directory must be the project root.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class CountKernelBenchmark {
+
+	@Param({ "snap", "1000000" })
+	public String dataset;
+
+	@Param({ "0.05", "0.5" })
+	public double density;
+
+	private long[] results;
+	private long[][] monomials;
+	private short[] count;
+
+	private final CountKernel scalar = new CountKernel();
+	private CountKernel vector;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		vector = CountKernel.getInstance();
+		if (vector.getClass() == CountKernel.class) {
+			throw new IllegalStateException("jdk.incubator.vector is not available");
+		}
+		Random random = new Random(4711);
+		if (dataset.equals("snap")) {
+			readSnap("data/snap.csv");
+		} else {
+			int rows = Integer.parseInt(dataset);
+			int words = LiteralStore.wordsFor(rows);
+			results = randomRows(random, rows, words, 0.5);
+			monomials = new long[16][];
+			for (int m = 0; m < monomials.length; m++) {
+				monomials[m] = randomRows(random, rows, words, density);
+			}
+			count = new short[rows];
+		}
+	}
+
+	private static long[] randomRows(Random random, int rows, int words, double p) {
+		long[] result = new long[words];
+		for (int i = 0; i < rows; i++) {
+			if (random.nextDouble() < p) result[i >>> 6] |= 1L << i;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the table and takes one literal <code>SNPj=v</code> per column as monomial.
+	 * For density &lt; 0.5 the least frequent value is used, else the most frequent one.
+	 */
+	private void readSnap(String path) throws IOException {
+		ArrayList<String[]> lines = new ArrayList<String[]>();
+		BufferedReader in = new BufferedReader(new FileReader(path));
+		try {
+			in.readLine();
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.length() > 0) lines.add(line.split(";"));
+			}
+		} finally {
+			in.close();
+		}
+		int rows = lines.size();
+		int vars = lines.get(0).length - 1;
+		int words = LiteralStore.wordsFor(rows);
+		results = new long[words];
+		monomials = new long[vars][words];
+		for (int j = 0; j < vars; j++) {
+			int[] freq = new int[256];
+			for (int i = 0; i < rows; i++) freq[Integer.parseInt(lines.get(i)[j + 1]) & 0xff]++;
+			int chosen = -1;
+			for (int v = 0; v < freq.length; v++) {
+				if (freq[v] == 0) continue;
+				if (chosen == -1 || (density < 0.5 ? freq[v] < freq[chosen] : freq[v] > freq[chosen])) chosen = v;
+			}
+			for (int i = 0; i < rows; i++) {
+				if ((Integer.parseInt(lines.get(i)[j + 1]) & 0xff) == chosen) monomials[j][i >>> 6] |= 1L << i;
+			}
+		}
+		for (int i = 0; i < rows; i++) {
+			if (Integer.parseInt(lines.get(i)[0]) == 1) results[i >>> 6] |= 1L << i;
+		}
+		count = new short[rows];
+	}
+
+	private long run(CountKernel kernel) {
+		long changed = 0;
+		for (int m = 0; m < monomials.length; m++) changed += kernel.add(count, monomials[m], results);
+		for (int m = 0; m < monomials.length; m++) changed += kernel.sub(count, monomials[m], results);
+		return changed;
+	}
+
+	@Benchmark
+	public long scalar() {
+		return run(scalar);
+	}
+
+	@Benchmark
+	public long vector() {
+		return run(vector);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CountKernelBenchmark.class.getSimpleName()).build()).run();
+	}
+}
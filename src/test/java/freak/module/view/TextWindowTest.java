@@ -0,0 +1,99 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.view;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares <code>TextWindow</code> with a list of lines that drops its
+ * oldest lines.
+ */
+public class TextWindowTest {
+
+    @Test
+    public void testEmptyWindow() {
+        TextWindow window = new TextWindow();
+        Assertions.assertEquals(0, window.size());
+        Assertions.assertEquals("", window.toString());
+        Assertions.assertEquals(0, window.getDropped());
+    }
+
+    @Test
+    public void testLimitDropsOldestLines() {
+        TextWindow window = new TextWindow();
+        window.add("a", 2);
+        window.add("b", 2);
+        Assertions.assertEquals("a\nb\n", window.toString());
+        window.add("c", 2);
+        Assertions.assertEquals(2, window.size());
+        Assertions.assertEquals("b\nc\n", window.toString());
+        Assertions.assertEquals(1, window.getDropped());
+        window.add("", 1);
+        Assertions.assertEquals(1, window.size());
+        Assertions.assertEquals("\n", window.toString());
+        Assertions.assertEquals(3, window.getDropped());
+    }
+
+    @Test
+    public void testUnboundedWindowKeepsAllLines() {
+        TextWindow window = new TextWindow();
+        LinkedList<String> expected = new LinkedList<String>();
+        for (int i = 0; i < 5000; i++) add(window, expected, "result " + i, Integer.MAX_VALUE);
+        Assertions.assertEquals(5000, window.size());
+        Assertions.assertEquals(0, window.getDropped());
+        Assertions.assertEquals(join(expected), window.toString());
+    }
+
+    @Test
+    public void testGrowthPastInitialCapacity() {
+        // the ring starts with 16 lines and wraps before it grows
+        TextWindow window = new TextWindow();
+        LinkedList<String> expected = new LinkedList<String>();
+        for (int i = 0; i < 10; i++) add(window, expected, "line " + i, 12);
+        for (int i = 10; i < 100; i++) {
+            add(window, expected, "line " + i, 1000);
+            Assertions.assertEquals(expected.size(), window.size());
+            Assertions.assertEquals(join(expected), window.toString());
+        }
+    }
+
+    @Test
+    public void testRandomLimits() {
+        Random random = new Random(1);
+        TextWindow window = new TextWindow();
+        LinkedList<String> expected = new LinkedList<String>();
+        int limit = 1 + random.nextInt(40);
+        long dropped = 0;
+        for (int step = 0; step < 3000; step++) {
+            if (random.nextInt(100) == 0) limit = 1 + random.nextInt(40);
+            StringBuffer line = new StringBuffer();
+            int length = random.nextInt(8);
+            for (int i = 0; i < length; i++) line.append((char)('a' + random.nextInt(26)));
+            dropped += Math.max(0, expected.size() + 1 - limit);
+            add(window, expected, line.toString(), limit);
+            Assertions.assertEquals(expected.size(), window.size());
+            Assertions.assertEquals(dropped, window.getDropped());
+            Assertions.assertEquals(join(expected), window.toString());
+        }
+    }
+
+    private static void add(TextWindow window, LinkedList<String> expected, String line, int limit) {
+        window.add(line, limit);
+        while (expected.size() >= limit) expected.removeFirst();
+        expected.addLast(line);
+    }
+
+    private static String join(LinkedList<String> lines) {
+        StringBuffer text = new StringBuffer();
+        for (String line : lines) text.append(line).append('\n');
+        return text.toString();
+    }
+}
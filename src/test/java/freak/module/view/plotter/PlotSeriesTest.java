@@ -0,0 +1,136 @@
+/*
+ * This file is part of RFrEAK. For licensing and copyright information
+ * please see the file COPYING in the root directory of this
+ * distribution or contact <robin.nunkesser@udo.edu>.
+ */
+
+package freak.module.view.plotter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares <code>PlotSeries</code> with a list of rows that is scanned for
+ * the extrema.
+ */
+public class PlotSeriesTest {
+
+    @Test
+    public void testEmptySeries() {
+        PlotSeries series = new PlotSeries();
+        Assertions.assertEquals(0, series.size());
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, series.getMin(), 0);
+        Assertions.assertEquals(Double.NEGATIVE_INFINITY, series.getMax(), 0);
+        Assertions.assertEquals(0, series.indexOfX(5));
+    }
+
+    @Test
+    public void testRandomAddAndRemove() {
+        Random random = new Random(1);
+        PlotSeries series = new PlotSeries();
+        List<Integer> xs = new ArrayList<Integer>();
+        List<double[]> rows = new ArrayList<double[]>();
+        int x = 0;
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action < 6) {
+                x += random.nextInt(3);
+                // rows of up to 40 values make the value ring grow past its rows
+                double[] data = new double[random.nextInt(random.nextInt(8) == 0 ? 40 : 4)];
+                for (int i = 0; i < data.length; i++) data[i] = random.nextGaussian();
+                series.add(x, data);
+                xs.add(Integer.valueOf(x));
+                rows.add(data.clone());
+            } else if (action < 9) {
+                series.removeFirst();
+                if (!rows.isEmpty()) {
+                    xs.remove(0);
+                    rows.remove(0);
+                }
+            } else {
+                int bound = x - random.nextInt(10);
+                series.removeBefore(bound);
+                while (!xs.isEmpty() && xs.get(0).intValue() < bound) {
+                    xs.remove(0);
+                    rows.remove(0);
+                }
+            }
+            check(series, xs, rows);
+        }
+    }
+
+    @Test
+    public void testGrowthKeepsOrder() {
+        // only adds, so both rings grow several times with the oldest row not in slot 0
+        PlotSeries series = new PlotSeries();
+        List<Integer> xs = new ArrayList<Integer>();
+        List<double[]> rows = new ArrayList<double[]>();
+        for (int x = 0; x < 10; x++) {
+            series.add(x, new double[] {x, -x});
+            xs.add(Integer.valueOf(x));
+            rows.add(new double[] {x, -x});
+        }
+        for (int i = 0; i < 5; i++) {
+            series.removeFirst();
+            xs.remove(0);
+            rows.remove(0);
+        }
+        for (int x = 10; x < 300; x++) {
+            double[] data = new double[x % 7];
+            for (int i = 0; i < data.length; i++) data[i] = x * (i + 1);
+            series.add(x, data);
+            xs.add(Integer.valueOf(x));
+            rows.add(data.clone());
+            check(series, xs, rows);
+        }
+    }
+
+    @Test
+    public void testIndexOfX() {
+        PlotSeries series = new PlotSeries();
+        int[] xs = {2, 2, 3, 7, 7, 7, 10};
+        for (int i = 0; i < xs.length; i++) series.add(xs[i], new double[] {i});
+        Assertions.assertEquals(0, series.indexOfX(0));
+        Assertions.assertEquals(0, series.indexOfX(2));
+        Assertions.assertEquals(2, series.indexOfX(3));
+        Assertions.assertEquals(3, series.indexOfX(4));
+        Assertions.assertEquals(3, series.indexOfX(7));
+        Assertions.assertEquals(6, series.indexOfX(8));
+        Assertions.assertEquals(6, series.indexOfX(10));
+        Assertions.assertEquals(7, series.indexOfX(11));
+
+        series.removeBefore(7);
+        Assertions.assertEquals(4, series.size());
+        Assertions.assertEquals(7, series.getX(0));
+        Assertions.assertEquals(0, series.indexOfX(3));
+        Assertions.assertEquals(3, series.indexOfX(9));
+    }
+
+    private static void check(PlotSeries series, List<Integer> xs, List<double[]> rows) {
+        Assertions.assertEquals(rows.size(), series.size());
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < rows.size(); row++) {
+            double[] data = rows.get(row);
+            Assertions.assertEquals(xs.get(row).intValue(), series.getX(row));
+            Assertions.assertEquals(data.length, series.getLength(row));
+            for (int i = 0; i < data.length; i++) {
+                Assertions.assertEquals(data[i], series.getValue(row, i), 0);
+                min = Math.min(min, data[i]);
+                max = Math.max(max, data[i]);
+            }
+        }
+        Assertions.assertEquals(min, series.getMin(), 0);
+        Assertions.assertEquals(max, series.getMax(), 0);
+        if (!xs.isEmpty()) {
+            int x = xs.get(xs.size() / 2).intValue();
+            int expected = 0;
+            while (xs.get(expected).intValue() < x) expected++;
+            Assertions.assertEquals(expected, series.indexOfX(x));
+        }
+    }
+}